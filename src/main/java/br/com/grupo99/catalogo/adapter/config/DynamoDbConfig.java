@@ -5,6 +5,9 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import br.com.grupo99.catalogo.domain.model.Peca;
+import br.com.grupo99.catalogo.domain.model.Reserva;
+import br.com.grupo99.catalogo.domain.model.Servico;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
@@ -15,13 +18,19 @@ import software.amazon.awssdk.services.dynamodb.model.*;
 
 import jakarta.annotation.PostConstruct;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Configuração DynamoDB para o Catalog Service.
  *
  * ✅ Substitui MongoConfig (@EnableMongoAuditing / @EnableMongoRepositories)
  * ✅ Auto-cria tabelas para desenvolvimento local (LocalStack)
- * ✅ Em produção, tabelas são criadas via Terraform
+ * ✅ Em produção, tabelas e GSIs são criados via Terraform (manter os mesmos
+ * nomes de índice declarados aqui)
  */
 @Configuration
 public class DynamoDbConfig {
@@ -37,6 +46,10 @@ public class DynamoDbConfig {
     @Value("${aws.dynamodb.table-prefix:}")
     private String tablePrefix;
 
+    /** O GSI de alterações só é consultado (e gravado) pela réplica em memória. */
+    @Value("${catalogo.replica.enabled:false}")
+    private boolean replicaHabilitada;
+
     @Bean
     public DynamoDbClient dynamoDbClient() {
         var builder = DynamoDbClient.builder()
@@ -79,8 +92,23 @@ public class DynamoDbConfig {
                         AwsBasicCredentials.create("test", "test")))
                 .build();
 
-        createTableIfNotExists(client, resolveTableName("pecas"), "id");
-        createTableIfNotExists(client, resolveTableName("servicos"), "id");
+        List<IndexSpec> pecaIndexes = new ArrayList<>(List.of(
+                new IndexSpec(Peca.INDEX_CODIGO_FABRICANTE, "codigoFabricante"),
+                new IndexSpec(Peca.INDEX_ATIVO, "ativoParticao", "nome")));
+        List<IndexSpec> servicoIndexes = new ArrayList<>(List.of(
+                new IndexSpec(Servico.INDEX_ATIVO, "ativoParticao", "nome")));
+        if (replicaHabilitada) {
+            pecaIndexes.add(new IndexSpec(Peca.INDEX_ATUALIZACAO, "atualizacaoParticao", "updatedAt"));
+            servicoIndexes.add(new IndexSpec(Servico.INDEX_ATUALIZACAO, "atualizacaoParticao", "updatedAt"));
+        }
+        createTableIfNotExists(client, resolveTableName("pecas"), "id", pecaIndexes);
+        createTableIfNotExists(client, resolveTableName("servicos"), "id", servicoIndexes);
+        createTableIfNotExists(client, resolveTableName("pecas-categorias"), "categoria", "itemId", List.of());
+        createTableIfNotExists(client, resolveTableName("servicos-categorias"), "categoria", "itemId", List.of());
+        createTableIfNotExists(client, resolveTableName("reservas"), "id", List.of(
+                new IndexSpec(Reserva.INDEX_EXPIRACAO, "expiracaoParticao", "expiraEm")));
+        enableTimeToLive(client, resolveTableName("reservas"), "expiracaoTtl");
+        createTableIfNotExists(client, resolveTableName("pecas-estoque"), "id", List.of());
 
         log.info("✅ Tabelas DynamoDB verificadas/criadas com sucesso");
     }
@@ -92,25 +120,134 @@ public class DynamoDbConfig {
         return baseName;
     }
 
-    private void createTableIfNotExists(DynamoDbClient client, String tableName, String partitionKey) {
+    private void createTableIfNotExists(DynamoDbClient client, String tableName, String partitionKey,
+            List<IndexSpec> indexes) {
+        createTableIfNotExists(client, tableName, partitionKey, null, indexes);
+    }
+
+    private void createTableIfNotExists(DynamoDbClient client, String tableName, String partitionKey,
+            String sortKey, List<IndexSpec> indexes) {
         try {
-            client.describeTable(DescribeTableRequest.builder().tableName(tableName).build());
+            TableDescription table = client.describeTable(DescribeTableRequest.builder()
+                    .tableName(tableName)
+                    .build())
+                    .table();
             log.info("Tabela '{}' já existe", tableName);
+            createMissingIndexes(client, table, indexes);
         } catch (ResourceNotFoundException e) {
             log.info("Criando tabela '{}'...", tableName);
-            client.createTable(CreateTableRequest.builder()
+            var request = CreateTableRequest.builder()
                     .tableName(tableName)
-                    .keySchema(KeySchemaElement.builder()
-                            .attributeName(partitionKey)
-                            .keyType(KeyType.HASH)
-                            .build())
-                    .attributeDefinitions(AttributeDefinition.builder()
-                            .attributeName(partitionKey)
-                            .attributeType(ScalarAttributeType.S)
+                    .keySchema(new IndexSpec(tableName, partitionKey, sortKey).keySchema())
+                    .attributeDefinitions(attributeDefinitions(
+                            List.of(new IndexSpec(tableName, partitionKey, sortKey)), indexes))
+                    .billingMode(BillingMode.PAY_PER_REQUEST);
+            if (!indexes.isEmpty()) {
+                request.globalSecondaryIndexes(indexes.stream()
+                        .map(IndexSpec::toGlobalSecondaryIndex)
+                        .collect(Collectors.toList()));
+            }
+            client.createTable(request.build());
+            log.info("✅ Tabela '{}' criada com sucesso", tableName);
+        }
+    }
+
+    private void enableTimeToLive(DynamoDbClient client, String tableName, String attribute) {
+        TimeToLiveStatus status = client.describeTimeToLive(DescribeTimeToLiveRequest.builder()
+                .tableName(tableName)
+                .build())
+                .timeToLiveDescription()
+                .timeToLiveStatus();
+        if (status == TimeToLiveStatus.ENABLED || status == TimeToLiveStatus.ENABLING) {
+            return;
+        }
+        client.updateTimeToLive(UpdateTimeToLiveRequest.builder()
+                .tableName(tableName)
+                .timeToLiveSpecification(TimeToLiveSpecification.builder()
+                        .attributeName(attribute)
+                        .enabled(true)
+                        .build())
+                .build());
+        log.info("✅ TTL '{}' habilitado na tabela '{}'", attribute, tableName);
+    }
+
+    /**
+     * Tabelas criadas antes de um novo GSI ganham o índice via UpdateTable.
+     * O DynamoDB aceita apenas uma criação de GSI por chamada.
+     */
+    private void createMissingIndexes(DynamoDbClient client, TableDescription table, List<IndexSpec> indexes) {
+        Set<String> existing = table.globalSecondaryIndexes().stream()
+                .map(GlobalSecondaryIndexDescription::indexName)
+                .collect(Collectors.toSet());
+
+        for (IndexSpec index : indexes) {
+            if (existing.contains(index.name())) {
+                continue;
+            }
+            log.info("Criando GSI '{}' na tabela '{}'...", index.name(), table.tableName());
+            client.updateTable(UpdateTableRequest.builder()
+                    .tableName(table.tableName())
+                    .attributeDefinitions(attributeDefinitions(List.of(), List.of(index)))
+                    .globalSecondaryIndexUpdates(GlobalSecondaryIndexUpdate.builder()
+                            .create(index.toCreateAction())
                             .build())
-                    .billingMode(BillingMode.PAY_PER_REQUEST)
                     .build());
-            log.info("✅ Tabela '{}' criada com sucesso", tableName);
+        }
+    }
+
+    private List<AttributeDefinition> attributeDefinitions(List<IndexSpec> tableKeys, List<IndexSpec> indexes) {
+        Set<String> attributes = new LinkedHashSet<>();
+        List<IndexSpec> keys = new ArrayList<>(tableKeys);
+        keys.addAll(indexes);
+        for (IndexSpec index : keys) {
+            attributes.add(index.partitionKey());
+            if (index.sortKey() != null) {
+                attributes.add(index.sortKey());
+            }
+        }
+
+        List<AttributeDefinition> definitions = new ArrayList<>();
+        for (String attribute : attributes) {
+            definitions.add(AttributeDefinition.builder()
+                    .attributeName(attribute)
+                    .attributeType(ScalarAttributeType.S)
+                    .build());
+        }
+        return definitions;
+    }
+
+    /**
+     * GSI com projeção ALL; todas as chaves de índice do catálogo são String.
+     */
+    private record IndexSpec(String name, String partitionKey, String sortKey) {
+
+        IndexSpec(String name, String partitionKey) {
+            this(name, partitionKey, null);
+        }
+
+        List<KeySchemaElement> keySchema() {
+            List<KeySchemaElement> keys = new ArrayList<>();
+            keys.add(KeySchemaElement.builder().attributeName(partitionKey).keyType(KeyType.HASH).build());
+            if (sortKey != null) {
+                keys.add(KeySchemaElement.builder().attributeName(sortKey).keyType(KeyType.RANGE).build());
+            }
+            return keys;
+        }
+
+        GlobalSecondaryIndex toGlobalSecondaryIndex() {
+            return GlobalSecondaryIndex.builder()
+                    .indexName(name)
+                    .keySchema(keySchema())
+                    .projection(Projection.builder().projectionType(ProjectionType.ALL).build())
+                    .build();
+        }
+
+        CreateGlobalSecondaryIndexAction toCreateAction() {
+            return CreateGlobalSecondaryIndexAction.builder()
+                    .indexName(name)
+                    .keySchema(keySchema())
+                    .projection(Projection.builder().projectionType(ProjectionType.ALL).build())
+                    .build();
         }
     }
 }
@@ -0,0 +1,171 @@
+package br.com.grupo99.catalogo.adapter.config;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.enhanced.dynamodb.AttributeConverter;
+import software.amazon.awssdk.enhanced.dynamodb.AttributeValueType;
+import software.amazon.awssdk.enhanced.dynamodb.EnhancedType;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conversor de Map<String, Object> ↔ mapa nativo do DynamoDB (M).
+ *
+ * Cada entrada vira um atributo tipado (S, N, BOOL, NULL, M, L), o que permite
+ * projetar e filtrar campos como especificacoes.voltagem no próprio DynamoDB e
+ * dispensa o parse de JSON a cada item lido. Números voltam como Integer/Long
+ * quando inteiros e BigDecimal caso contrário.
+ *
+ * A leitura é preguiçosa ({@link MapaLazy}): listagens que só serializam o item
+ * escrevem o atributo direto no JSON, sem montar o mapa.
+ *
+ * Itens ainda no formato antigo (JSON em S, ver {@link JsonMapConverter}) continuam
+ * legíveis; aws.dynamodb.migrar-especificacoes=true regrava-os como M.
+ */
+public class DynamoDbMapConverter implements AttributeConverter<Map<String, Object>> {
+
+    private static final JsonMapConverter LEGADO = new JsonMapConverter();
+
+    @Override
+    public AttributeValue transformFrom(Map<String, Object> input) {
+        if (input == null) {
+            return AttributeValue.builder().nul(true).build();
+        }
+        if (input instanceof MapaLazy lazy) {
+            AttributeValue original = lazy.mapaNativoIntacto();
+            if (original != null) {
+                return original;
+            }
+        }
+        return paraAtributo(input);
+    }
+
+    /**
+     * Devolve um {@link MapaLazy}: a conversão só acontece se alguém acessar o mapa.
+     */
+    @Override
+    public Map<String, Object> transformTo(AttributeValue input) {
+        if (input == null || Boolean.TRUE.equals(input.nul())) {
+            return null;
+        }
+        if (input.s() == null && !input.hasM()) {
+            return null;
+        }
+        return new MapaLazy(input);
+    }
+
+    /**
+     * Conversão efetiva, chamada por {@link MapaLazy} no primeiro acesso.
+     */
+    static Map<String, Object> materializar(AttributeValue input) {
+        if (input.s() != null) {
+            return LEGADO.transformTo(input);
+        }
+        return paraMapa(input.m());
+    }
+
+    @Override
+    public EnhancedType<Map<String, Object>> type() {
+        return EnhancedType.mapOf(String.class, Object.class);
+    }
+
+    @Override
+    public AttributeValueType attributeValueType() {
+        return AttributeValueType.M;
+    }
+
+    private static AttributeValue paraAtributo(Object valor) {
+        if (valor == null) {
+            return AttributeValue.builder().nul(true).build();
+        }
+        if (valor instanceof String texto) {
+            return AttributeValue.builder().s(texto).build();
+        }
+        if (valor instanceof Boolean booleano) {
+            return AttributeValue.builder().bool(booleano).build();
+        }
+        if (valor instanceof Number numero) {
+            return AttributeValue.builder().n(numero(numero)).build();
+        }
+        if (valor instanceof Map<?, ?> mapa) {
+            Map<String, AttributeValue> atributos = new LinkedHashMap<>();
+            mapa.forEach((chave, item) -> atributos.put(String.valueOf(chave), paraAtributo(item)));
+            return AttributeValue.builder().m(atributos).build();
+        }
+        if (valor instanceof Collection<?> colecao) {
+            List<AttributeValue> itens = new ArrayList<>(colecao.size());
+            colecao.forEach(item -> itens.add(paraAtributo(item)));
+            return AttributeValue.builder().l(itens).build();
+        }
+        return AttributeValue.builder().s(valor.toString()).build();
+    }
+
+    private static String numero(Number numero) {
+        if (numero instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        if (numero instanceof Double || numero instanceof Float) {
+            double valor = numero.doubleValue();
+            if (Double.isNaN(valor) || Double.isInfinite(valor)) {
+                throw new IllegalArgumentException("Número não suportado pelo DynamoDB: " + valor);
+            }
+            return BigDecimal.valueOf(valor).toPlainString();
+        }
+        return numero.toString();
+    }
+
+    private static Map<String, Object> paraMapa(Map<String, AttributeValue> atributos) {
+        Map<String, Object> mapa = new LinkedHashMap<>();
+        atributos.forEach((chave, valor) -> mapa.put(chave, paraObjeto(valor)));
+        return mapa;
+    }
+
+    private static Object paraObjeto(AttributeValue valor) {
+        if (valor.s() != null) {
+            return valor.s();
+        }
+        if (valor.n() != null) {
+            return paraNumero(valor.n());
+        }
+        if (valor.bool() != null) {
+            return valor.bool();
+        }
+        if (valor.hasM()) {
+            return paraMapa(valor.m());
+        }
+        if (valor.hasL()) {
+            List<Object> itens = new ArrayList<>(valor.l().size());
+            valor.l().forEach(item -> itens.add(paraObjeto(item)));
+            return itens;
+        }
+        if (valor.hasSs()) {
+            return new ArrayList<>(valor.ss());
+        }
+        if (valor.hasNs()) {
+            return valor.ns().stream().map(DynamoDbMapConverter::paraNumero).toList();
+        }
+        SdkBytes bytes = valor.b();
+        return bytes != null ? bytes.asByteArray() : null;
+    }
+
+    private static Number paraNumero(String texto) {
+        BigDecimal decimal = new BigDecimal(texto);
+        if (decimal.scale() > 0 && decimal.stripTrailingZeros().scale() > 0) {
+            return decimal;
+        }
+        BigInteger inteiro = decimal.toBigIntegerExact();
+        if (inteiro.bitLength() < Integer.SIZE) {
+            return inteiro.intValue();
+        }
+        if (inteiro.bitLength() < Long.SIZE) {
+            return inteiro.longValue();
+        }
+        return inteiro;
+    }
+}
@@ -3,6 +3,7 @@ package br.com.grupo99.catalogo.adapter.config;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import software.amazon.awssdk.enhanced.dynamodb.AttributeConverter;
 import software.amazon.awssdk.enhanced.dynamodb.AttributeValueType;
 import software.amazon.awssdk.enhanced.dynamodb.EnhancedType;
@@ -13,13 +14,14 @@ import java.util.Map;
 /**
  * Conversor customizado para Map<String, Object> ↔ DynamoDB String (JSON).
  *
- * Necessário porque DynamoDB Enhanced Client não suporta Map<String, Object>
- * nativamente.
- * O mapa é serializado como JSON string no DynamoDB.
+ * Formato antigo de especificacoes: hoje só é usado por {@link DynamoDbMapConverter}
+ * para ler itens ainda não migrados para mapa nativo (M).
  */
 public class JsonMapConverter implements AttributeConverter<Map<String, Object>> {
 
     private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectReader LEITOR = MAPPER.readerFor(new TypeReference<Map<String, Object>>() {
+    });
 
     @Override
     public AttributeValue transformFrom(Map<String, Object> input) {
@@ -39,8 +41,7 @@ public class JsonMapConverter implements AttributeConverter<Map<String, Object>>
             return null;
         }
         try {
-            return MAPPER.readValue(input.s(), new TypeReference<Map<String, Object>>() {
-            });
+            return LEITOR.readValue(input.s());
         } catch (JsonProcessingException e) {
             return null;
         }
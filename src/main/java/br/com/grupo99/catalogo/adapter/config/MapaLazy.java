@@ -0,0 +1,156 @@
+package br.com.grupo99.catalogo.adapter.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Map sobre o atributo lido do DynamoDB, convertido só no primeiro acesso.
+ *
+ * Enquanto ninguém lê o conteúdo, o item guarda apenas o AttributeValue: o Jackson
+ * escreve o mapa nativo direto no gerador e um save regrava o mesmo AttributeValue.
+ * O JSON do formato antigo nunca é embutido como está: é lido como mapa antes de ser
+ * escrito, e um texto inválido sai como objeto vazio em vez de corromper a resposta.
+ * Depois do primeiro acesso vale o mapa materializado, que pode ser alterado normalmente.
+ */
+@JsonSerialize(using = MapaLazy.Serializador.class)
+public final class MapaLazy extends AbstractMap<String, Object> {
+
+    private final AttributeValue original;
+    private volatile Map<String, Object> mapa;
+    private volatile boolean invalido;
+
+    MapaLazy(AttributeValue original) {
+        this.original = original;
+    }
+
+    /**
+     * Atributo original, se for mapa nativo e o conteúdo nunca tiver sido acessado.
+     */
+    AttributeValue mapaNativoIntacto() {
+        return mapa == null && original.hasM() ? original : null;
+    }
+
+    /**
+     * true se o atributo é JSON do formato antigo que não pôde ser lido (força a conversão).
+     */
+    public boolean invalido() {
+        mapa();
+        return invalido;
+    }
+
+    private Map<String, Object> mapa() {
+        Map<String, Object> atual = mapa;
+        if (atual == null) {
+            synchronized (this) {
+                atual = mapa;
+                if (atual == null) {
+                    atual = DynamoDbMapConverter.materializar(original);
+                    if (atual == null) {
+                        // JSON inválido no formato antigo: tratado como vazio.
+                        invalido = true;
+                        atual = new LinkedHashMap<>();
+                    }
+                    mapa = atual;
+                }
+            }
+        }
+        return atual;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return mapa().entrySet();
+    }
+
+    @Override
+    public int size() {
+        return mapa().size();
+    }
+
+    @Override
+    public Object get(Object chave) {
+        return mapa().get(chave);
+    }
+
+    @Override
+    public boolean containsKey(Object chave) {
+        return mapa().containsKey(chave);
+    }
+
+    @Override
+    public Object put(String chave, Object valor) {
+        return mapa().put(chave, valor);
+    }
+
+    @Override
+    public Object remove(Object chave) {
+        return mapa().remove(chave);
+    }
+
+    @Override
+    public void clear() {
+        mapa().clear();
+    }
+
+    static final class Serializador extends JsonSerializer<MapaLazy> {
+
+        @Override
+        public void serialize(MapaLazy valor, JsonGenerator gerador, SerializerProvider provider)
+                throws IOException {
+            if (valor.mapa != null || !valor.original.hasM()) {
+                // Formato antigo: materializa (e valida) o JSON antes de escrever.
+                provider.defaultSerializeValue(valor.mapa(), gerador);
+            } else {
+                escrever(valor.original, gerador);
+            }
+        }
+
+        private static void escrever(AttributeValue valor, JsonGenerator gerador) throws IOException {
+            if (valor.s() != null) {
+                gerador.writeString(valor.s());
+            } else if (valor.n() != null) {
+                gerador.writeNumber(valor.n());
+            } else if (valor.bool() != null) {
+                gerador.writeBoolean(valor.bool());
+            } else if (valor.hasM()) {
+                gerador.writeStartObject();
+                for (Map.Entry<String, AttributeValue> campo : valor.m().entrySet()) {
+                    gerador.writeFieldName(campo.getKey());
+                    escrever(campo.getValue(), gerador);
+                }
+                gerador.writeEndObject();
+            } else if (valor.hasL()) {
+                gerador.writeStartArray();
+                for (AttributeValue item : valor.l()) {
+                    escrever(item, gerador);
+                }
+                gerador.writeEndArray();
+            } else if (valor.hasSs()) {
+                gerador.writeStartArray();
+                for (String item : valor.ss()) {
+                    gerador.writeString(item);
+                }
+                gerador.writeEndArray();
+            } else if (valor.hasNs()) {
+                gerador.writeStartArray();
+                for (String item : valor.ns()) {
+                    gerador.writeNumber(item);
+                }
+                gerador.writeEndArray();
+            } else if (valor.b() != null) {
+                gerador.writeBinary(valor.b().asByteArray());
+            } else {
+                gerador.writeNull();
+            }
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import br.com.grupo99.catalogo.domain.model.Pagina;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Réplica em memória de uma tabela do catálogo, eventualmente consistente.
+ *
+ * Carregada por scan completo e atualizada por itens com updatedAt acima da marca
+ * d'água; as escritas desta instância são aplicadas na hora. Remoções feitas por outros
+ * processos só aparecem na próxima carga completa.
+ *
+ * Os ativos ficam ordenados por (nome, id), a mesma ordem do GSI ativo-nome-index, e os
+ * cursores gerados são compatíveis com os do DynamoDB (ativoParticao/nome/id e
+ * categoria/itemId). Os itens devolvidos são compartilhados e somente leitura.
+ */
+final class CatalogoReplica<T> {
+
+    record Chave(String nome, String id) implements Comparable<Chave> {
+
+        private static final Comparator<Chave> ORDEM = Comparator
+                .comparing(Chave::nome, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+                .thenComparing(Chave::id);
+
+        @Override
+        public int compareTo(Chave outra) {
+            return ORDEM.compare(this, outra);
+        }
+    }
+
+    /** Estado trocado por inteiro numa carga completa, para leitores nunca verem a réplica pela metade. */
+    private final class Estado {
+        final ConcurrentHashMap<String, T> porId = new ConcurrentHashMap<>();
+        final ConcurrentSkipListMap<Chave, T> ativos = new ConcurrentSkipListMap<>();
+        /** Valor do atributo único -> ID; só com {@link #chaveUnica} configurada. */
+        final ConcurrentHashMap<String, String> idPorChaveUnica = new ConcurrentHashMap<>();
+
+        void colocar(T item) {
+            String itemId = id.apply(item);
+            T anterior = porId.put(itemId, item);
+            if (anterior != null) {
+                ativos.remove(chave(anterior));
+                removerChaveUnica(anterior);
+            }
+            if (ativo.test(item)) {
+                ativos.put(chave(item), item);
+            }
+            String unica = chaveUnica.apply(item);
+            if (unica != null) {
+                idPorChaveUnica.put(unica, itemId);
+            }
+        }
+
+        void remover(String itemId) {
+            T anterior = porId.remove(itemId);
+            if (anterior != null) {
+                ativos.remove(chave(anterior));
+                removerChaveUnica(anterior);
+            }
+        }
+
+        private void removerChaveUnica(T item) {
+            String unica = chaveUnica.apply(item);
+            if (unica != null) {
+                idPorChaveUnica.remove(unica, id.apply(item));
+            }
+        }
+    }
+
+    private final Function<T, String> id;
+    private final Function<T, String> nome;
+    private final Predicate<T> ativo;
+    private final Function<T, LocalDateTime> atualizadoEm;
+    private final Function<T, Long> versao;
+    private final UnaryOperator<T> copia;
+    private final String particaoAtivo;
+    private final Function<T, String> chaveUnica;
+
+    private volatile Estado estado;
+    private volatile LocalDateTime marcaDagua;
+
+    CatalogoReplica(Function<T, String> id, Function<T, String> nome, Predicate<T> ativo,
+            Function<T, LocalDateTime> atualizadoEm, Function<T, Long> versao, UnaryOperator<T> copia,
+            String particaoAtivo) {
+        this(id, nome, ativo, atualizadoEm, versao, copia, particaoAtivo, item -> null);
+    }
+
+    /**
+     * @param chaveUnica atributo único indexado para {@link #porChaveUnica} (ex.: codigoFabricante)
+     */
+    CatalogoReplica(Function<T, String> id, Function<T, String> nome, Predicate<T> ativo,
+            Function<T, LocalDateTime> atualizadoEm, Function<T, Long> versao, UnaryOperator<T> copia,
+            String particaoAtivo, Function<T, String> chaveUnica) {
+        this.id = id;
+        this.nome = nome;
+        this.ativo = ativo;
+        this.atualizadoEm = atualizadoEm;
+        this.versao = versao;
+        this.copia = copia;
+        this.particaoAtivo = particaoAtivo;
+        this.chaveUnica = chaveUnica;
+    }
+
+    boolean pronta() {
+        return estado != null;
+    }
+
+    Optional<LocalDateTime> marcaDagua() {
+        return Optional.ofNullable(marcaDagua);
+    }
+
+    int tamanho() {
+        Estado atual = estado;
+        return atual != null ? atual.porId.size() : 0;
+    }
+
+    /**
+     * Substitui todo o conteúdo (carga completa).
+     */
+    synchronized void carregar(Collection<T> itens) {
+        Estado novo = new Estado();
+        itens.forEach(novo::colocar);
+        marcaDagua = maisRecente(itens, null);
+        estado = novo;
+    }
+
+    /**
+     * Aplica itens alterados vindos do DynamoDB, ignorando os que a réplica já tem na
+     * mesma versão ou em versão mais nova (toda escrita incrementa version).
+     *
+     * @return quantidade de itens efetivamente aplicados
+     */
+    synchronized int aplicar(Collection<T> alterados) {
+        Estado atual = estado;
+        if (atual == null) {
+            return 0;
+        }
+        int aplicados = 0;
+        for (T item : alterados) {
+            T existente = atual.porId.get(id.apply(item));
+            if (existente == null || versaoDe(item) > versaoDe(existente)) {
+                atual.colocar(item);
+                aplicados++;
+            }
+        }
+        marcaDagua = maisRecente(alterados, marcaDagua);
+        return aplicados;
+    }
+
+    /**
+     * Escrita feita por esta instância: guarda uma cópia do item como o DynamoDB o
+     * gravou (o item salvo ou a imagem ALL_NEW de um UpdateItem), com a mesma regra de
+     * versão de {@link #aplicar}. Nunca se aplica um delta sobre o item da réplica: se
+     * a sincronização já trouxe essa escrita (ou uma posterior), a versão igual ou mais
+     * nova prevalece e a imagem é ignorada.
+     *
+     * @return false se a réplica já tinha o item na mesma versão ou em versão mais nova
+     */
+    synchronized boolean registrar(T item) {
+        Estado atual = estado;
+        if (atual == null) {
+            return false;
+        }
+        T existente = atual.porId.get(id.apply(item));
+        if (existente != null && versaoDe(item) <= versaoDe(existente)) {
+            return false;
+        }
+        atual.colocar(copia.apply(item));
+        return true;
+    }
+
+    synchronized void remover(String itemId) {
+        Estado atual = estado;
+        if (atual != null) {
+            atual.remover(itemId);
+        }
+    }
+
+    /**
+     * Item pelo atributo único, sem percorrer a réplica.
+     */
+    Optional<T> porChaveUnica(String valor) {
+        Estado atual = estado;
+        String itemId = atual.idPorChaveUnica.get(valor);
+        return Optional.ofNullable(itemId != null ? atual.porId.get(itemId) : null)
+                .filter(item -> valor.equals(chaveUnica.apply(item)));
+    }
+
+    Collection<T> todos() {
+        return estado.porId.values();
+    }
+
+    List<T> ativos(Predicate<T> filtro) {
+        return estado.ativos.values().stream()
+                .filter(filtro)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Página de ativos na ordem do GSI, com cursor ativoParticao/nome/id.
+     */
+    Pagina<T> paginaAtivos(Predicate<T> filtro, int limite, String cursor) {
+        Map<String, AttributeValue> inicio = CursorCodec.decode(cursor);
+        Map<Chave, T> restantes = inicio == null
+                ? estado.ativos
+                : estado.ativos.tailMap(new Chave(texto(inicio, "nome"), texto(inicio, "id")), false);
+
+        List<T> itens = new ArrayList<>(limite);
+        Iterator<T> iterator = restantes.values().stream().filter(filtro).iterator();
+        while (iterator.hasNext() && itens.size() < limite) {
+            itens.add(iterator.next());
+        }
+        if (!iterator.hasNext()) {
+            return new Pagina<>(itens, null);
+        }
+        T ultimo = itens.get(itens.size() - 1);
+        Map<String, AttributeValue> chave = new LinkedHashMap<>();
+        chave.put("ativoParticao", AttributeValue.builder().s(particaoAtivo).build());
+        chave.put("nome", AttributeValue.builder().s(nome.apply(ultimo)).build());
+        chave.put("id", AttributeValue.builder().s(id.apply(ultimo)).build());
+        return new Pagina<>(itens, CursorCodec.encode(chave));
+    }
+
+    /**
+     * Página de ativos de uma categoria na ordem do índice invertido (por ID),
+     * com cursor categoria/itemId.
+     */
+    Pagina<T> paginaCategoria(String categoria, Predicate<T> pertence, int limite, String cursor) {
+        Map<String, AttributeValue> inicio = CursorCodec.decode(cursor);
+        String depoisDe = inicio != null ? texto(inicio, "itemId") : null;
+        List<T> candidatos = estado.ativos.values().stream()
+                .filter(pertence)
+                .filter(item -> depoisDe == null || id.apply(item).compareTo(depoisDe) > 0)
+                .sorted(Comparator.comparing(id))
+                .collect(Collectors.toList());
+        if (candidatos.size() <= limite) {
+            return new Pagina<>(candidatos, null);
+        }
+        List<T> itens = candidatos.subList(0, limite);
+        Map<String, AttributeValue> chave = new LinkedHashMap<>();
+        chave.put("categoria", AttributeValue.builder().s(categoria).build());
+        chave.put("itemId", AttributeValue.builder().s(id.apply(itens.get(limite - 1))).build());
+        return new Pagina<>(new ArrayList<>(itens), CursorCodec.encode(chave));
+    }
+
+    private Chave chave(T item) {
+        return new Chave(nome.apply(item), id.apply(item));
+    }
+
+    private long versaoDe(T item) {
+        return Objects.requireNonNullElse(versao.apply(item), 0L);
+    }
+
+    private LocalDateTime maisRecente(Collection<T> itens, LocalDateTime atual) {
+        LocalDateTime maior = atual;
+        for (T item : itens) {
+            LocalDateTime valor = atualizadoEm.apply(item);
+            if (valor != null && (maior == null || valor.isAfter(maior))) {
+                maior = valor;
+            }
+        }
+        return maior;
+    }
+
+    private static String texto(Map<String, AttributeValue> chave, String atributo) {
+        AttributeValue valor = chave.get(atributo);
+        if (valor == null || valor.s() == null) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+        return valor.s();
+    }
+}
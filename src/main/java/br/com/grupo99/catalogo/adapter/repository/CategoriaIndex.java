@@ -0,0 +1,168 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import br.com.grupo99.catalogo.domain.exception.EscritaIncompletaException;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Mantém a tabela de índice invertido de categorias ({@link CategoriaMembro}).
+ *
+ * A gravação é feita após o putItem/deleteItem do item principal. Uma falha
+ * entre as duas escritas deixa no máximo uma associação obsoleta, que é
+ * descartada na leitura ao conferir as categorias do item carregado.
+ *
+ * Escritas que o DynamoDB não processa nem após {@link #MAX_TENTATIVAS} (ou
+ * interrompidas durante o backoff) viram {@link EscritaIncompletaException} (503): o
+ * item principal já foi gravado, mas as associações novas podem faltar até o backfill
+ * aws.dynamodb.backfill-categoria-index, que regrava todas.
+ */
+class CategoriaIndex {
+
+    /** Limite de operações por BatchWriteItem. */
+    private static final int BATCH_WRITE_LIMIT = 25;
+
+    static final int MAX_TENTATIVAS = 5;
+
+    private final DynamoDbEnhancedClient enhancedClient;
+    private final DynamoDbTable<CategoriaMembro> table;
+
+    CategoriaIndex(DynamoDbEnhancedClient enhancedClient, String tableName) {
+        this.enhancedClient = enhancedClient;
+        this.table = enhancedClient.table(tableName, TableSchema.fromBean(CategoriaMembro.class));
+    }
+
+    /**
+     * Ajusta as associações do item: grava só as categorias que entraram e remove as
+     * que saíram. Com {@code anteriores} nulo (backfill), grava todas as atuais.
+     */
+    void sincronizar(String itemId, Collection<String> anteriores, Collection<String> atuais) {
+        Set<String> categoriasAnteriores = normalizar(anteriores);
+        Set<String> novas = normalizar(atuais);
+        Set<String> removidas = new HashSet<>(categoriasAnteriores);
+        removidas.removeAll(novas);
+        novas.removeAll(categoriasAnteriores);
+        if (novas.isEmpty() && removidas.isEmpty()) {
+            return;
+        }
+
+        List<CategoriaMembro> puts = novas.stream()
+                .map(categoria -> new CategoriaMembro(categoria, itemId))
+                .collect(Collectors.toList());
+        List<Key> deletes = removidas.stream()
+                .map(categoria -> chave(categoria, itemId))
+                .collect(Collectors.toList());
+        gravar(puts, deletes);
+    }
+
+    void remover(String itemId, Collection<String> categorias) {
+        sincronizar(itemId, categorias, null);
+    }
+
+    List<String> idsPorCategoria(String categoria) {
+        return table.query(QueryConditional.keyEqualTo(Key.builder().partitionValue(categoria).build()))
+                .items()
+                .stream()
+                .map(CategoriaMembro::getItemId)
+                .collect(Collectors.toList());
+    }
+
+    Page<CategoriaMembro> paginaPorCategoria(String categoria, int limite,
+            Map<String, AttributeValue> exclusiveStartKey) {
+        return table.query(QueryEnhancedRequest.builder()
+                .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(categoria).build()))
+                .limit(limite)
+                .exclusiveStartKey(exclusiveStartKey)
+                .build())
+                .iterator()
+                .next();
+    }
+
+    private void gravar(List<CategoriaMembro> puts, List<Key> deletes) {
+        Deque<CategoriaMembro> putsPendentes = new ArrayDeque<>(puts);
+        Deque<Key> deletesPendentes = new ArrayDeque<>(deletes);
+
+        int tentativa = 0;
+        while (!putsPendentes.isEmpty() || !deletesPendentes.isEmpty()) {
+            WriteBatch.Builder<CategoriaMembro> batch = WriteBatch.builder(CategoriaMembro.class)
+                    .mappedTableResource(table);
+            int operacoes = 0;
+            while (operacoes < BATCH_WRITE_LIMIT && !putsPendentes.isEmpty()) {
+                batch.addPutItem(putsPendentes.poll());
+                operacoes++;
+            }
+            while (operacoes < BATCH_WRITE_LIMIT && !deletesPendentes.isEmpty()) {
+                batch.addDeleteItem(deletesPendentes.poll());
+                operacoes++;
+            }
+
+            BatchWriteResult result = enhancedClient.batchWriteItem(BatchWriteItemEnhancedRequest.builder()
+                    .writeBatches(batch.build())
+                    .build());
+            List<CategoriaMembro> putsNaoProcessados = result.unprocessedPutItemsForTable(table);
+            List<Key> deletesNaoProcessados = result.unprocessedDeleteItemsForTable(table);
+            if (putsNaoProcessados.isEmpty() && deletesNaoProcessados.isEmpty()) {
+                continue;
+            }
+
+            int naoProcessadas = putsNaoProcessados.size() + deletesNaoProcessados.size()
+                    + putsPendentes.size() + deletesPendentes.size();
+            if (++tentativa > MAX_TENTATIVAS) {
+                throw new EscritaIncompletaException("Índice de categorias " + table.tableName() + ": "
+                        + naoProcessadas + " escritas não processadas após " + MAX_TENTATIVAS + " tentativas");
+            }
+            if (!aguardar(tentativa)) {
+                throw new EscritaIncompletaException("Índice de categorias " + table.tableName() + ": "
+                        + naoProcessadas + " escritas não processadas (interrompido)");
+            }
+            putsPendentes.addAll(putsNaoProcessados);
+            deletesPendentes.addAll(deletesNaoProcessados);
+        }
+    }
+
+    /**
+     * @return false se a thread foi interrompida: não há mais backoff, então para de tentar
+     */
+    private static boolean aguardar(int tentativa) {
+        try {
+            Thread.sleep(50L << tentativa);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Set<String> normalizar(Collection<String> categorias) {
+        Set<String> result = new HashSet<>();
+        if (categorias != null) {
+            for (String categoria : categorias) {
+                if (categoria != null && !categoria.isBlank()) {
+                    result.add(categoria);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static Key chave(String categoria, String itemId) {
+        return Key.builder().partitionValue(categoria).sortValue(itemId).build();
+    }
+}
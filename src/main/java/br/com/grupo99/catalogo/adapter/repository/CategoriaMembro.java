@@ -0,0 +1,45 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
+
+/**
+ * Item do índice invertido de categorias: um item por par (categoria, item do catálogo).
+ *
+ * Permite buscar por categoria com Query + BatchGetItem, já que
+ * contains(categorias, :cat) não é indexável no DynamoDB.
+ */
+@DynamoDbBean
+public class CategoriaMembro {
+
+    private String categoria;
+
+    private String itemId;
+
+    public CategoriaMembro() {
+    }
+
+    public CategoriaMembro(String categoria, String itemId) {
+        this.categoria = categoria;
+        this.itemId = itemId;
+    }
+
+    @DynamoDbPartitionKey
+    public String getCategoria() {
+        return categoria;
+    }
+
+    public void setCategoria(String categoria) {
+        this.categoria = categoria;
+    }
+
+    @DynamoDbSortKey
+    public String getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(String itemId) {
+        this.itemId = itemId;
+    }
+}
@@ -0,0 +1,79 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import br.com.grupo99.catalogo.domain.model.Pagina;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Converte o LastEvaluatedKey do DynamoDB em cursor opaco (JSON em Base64 URL-safe) e vice-versa.
+ *
+ * As chaves do catálogo (tabela e GSIs) são String ou Number.
+ */
+final class CursorCodec {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final TypeReference<Map<String, Map<String, String>>> CURSOR_TYPE = new TypeReference<>() {
+    };
+
+    private CursorCodec() {
+    }
+
+    static <T> Pagina<T> paginaDe(Page<T> page) {
+        return new Pagina<>(page.items(), encode(page.lastEvaluatedKey()));
+    }
+
+    static String encode(Map<String, AttributeValue> lastEvaluatedKey) {
+        if (lastEvaluatedKey == null || lastEvaluatedKey.isEmpty()) {
+            return null;
+        }
+
+        Map<String, Map<String, String>> cursor = new LinkedHashMap<>();
+        lastEvaluatedKey.forEach((nome, valor) -> {
+            if (valor.s() != null) {
+                cursor.put(nome, Map.of("S", valor.s()));
+            } else if (valor.n() != null) {
+                cursor.put(nome, Map.of("N", valor.n()));
+            } else {
+                throw new IllegalStateException("Tipo de chave não suportado no cursor: " + nome);
+            }
+        });
+
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(cursor));
+        } catch (IOException e) {
+            throw new IllegalStateException("Falha ao gerar cursor", e);
+        }
+    }
+
+    static Map<String, AttributeValue> decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        try {
+            Map<String, Map<String, String>> decoded = MAPPER.readValue(Base64.getUrlDecoder().decode(cursor),
+                    CURSOR_TYPE);
+            Map<String, AttributeValue> key = new LinkedHashMap<>();
+            decoded.forEach((nome, valor) -> {
+                if (valor != null && valor.containsKey("S")) {
+                    key.put(nome, AttributeValue.builder().s(valor.get("S")).build());
+                } else if (valor != null && valor.containsKey("N")) {
+                    key.put(nome, AttributeValue.builder().n(valor.get("N")).build());
+                } else {
+                    throw new IllegalArgumentException("Cursor inválido");
+                }
+            });
+            return key;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+}
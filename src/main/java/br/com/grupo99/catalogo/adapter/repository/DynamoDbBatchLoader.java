@@ -0,0 +1,130 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Leitura de itens por ID via BatchGetItem.
+ *
+ * As chaves são divididas em lotes de até 100, executados em paralelo em
+ * virtual threads. UnprocessedKeys (throttling) são reenviadas com backoff
+ * exponencial e jitter.
+ */
+class DynamoDbBatchLoader<T> {
+
+    /** Limite de chaves por BatchGetItem. */
+    static final int BATCH_GET_LIMIT = 100;
+
+    private static final int MAX_TENTATIVAS = 8;
+
+    private static final long BACKOFF_BASE_MS = 25;
+
+    /** Partition key das tabelas do catálogo. */
+    private static final String PARTITION_KEY = "id";
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbTable<T> table;
+
+    DynamoDbBatchLoader(DynamoDbClient dynamoDbClient, DynamoDbTable<T> table) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.table = table;
+    }
+
+    /**
+     * Carrega os itens existentes; IDs inexistentes são ignorados e a ordem não é garantida.
+     */
+    List<T> carregar(Collection<String> ids) {
+        List<String> unicos = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<List<String>> lotes = new ArrayList<>();
+        for (int inicio = 0; inicio < unicos.size(); inicio += BATCH_GET_LIMIT) {
+            lotes.add(unicos.subList(inicio, Math.min(inicio + BATCH_GET_LIMIT, unicos.size())));
+        }
+
+        if (lotes.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (lotes.size() == 1) {
+            return carregarLote(lotes.get(0));
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<List<T>>> futures = lotes.stream()
+                    .map(lote -> executor.submit(() -> carregarLote(lote)))
+                    .collect(Collectors.toList());
+
+            List<T> result = new ArrayList<>(unicos.size());
+            for (Future<List<T>> future : futures) {
+                result.addAll(aguardar(future));
+            }
+            return result;
+        }
+    }
+
+    private List<T> carregarLote(List<String> ids) {
+        List<Map<String, AttributeValue>> keys = ids.stream()
+                .map(id -> Map.of(PARTITION_KEY, AttributeValue.builder().s(id).build()))
+                .collect(Collectors.toList());
+        Map<String, KeysAndAttributes> pendentes = Map.of(table.tableName(),
+                KeysAndAttributes.builder().keys(keys).build());
+
+        List<T> result = new ArrayList<>(ids.size());
+        int tentativa = 0;
+        while (!pendentes.isEmpty()) {
+            BatchGetItemResponse response = dynamoDbClient.batchGetItem(BatchGetItemRequest.builder()
+                    .requestItems(pendentes)
+                    .build());
+            response.responses().getOrDefault(table.tableName(), List.of())
+                    .forEach(item -> result.add(table.tableSchema().mapToItem(item)));
+
+            pendentes = response.unprocessedKeys();
+            if (!pendentes.isEmpty()) {
+                if (++tentativa > MAX_TENTATIVAS) {
+                    throw new IllegalStateException("BatchGetItem em " + table.tableName()
+                            + " com chaves não processadas após " + MAX_TENTATIVAS + " tentativas");
+                }
+                aguardarBackoff(tentativa);
+            }
+        }
+        return result;
+    }
+
+    private static void aguardarBackoff(int tentativa) {
+        long teto = BACKOFF_BASE_MS << tentativa;
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(teto / 2, teto + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("BatchGetItem interrompido", e);
+        }
+    }
+
+    private static <R> R aguardar(Future<R> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("BatchGetItem interrompido", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Falha no BatchGetItem", e.getCause());
+        }
+    }
+}
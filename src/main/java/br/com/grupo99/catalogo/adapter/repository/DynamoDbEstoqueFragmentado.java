@@ -0,0 +1,344 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import br.com.grupo99.catalogo.domain.exception.ConflitoDeVersaoException;
+import br.com.grupo99.catalogo.domain.model.Peca;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.Delete;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Contador de estoque fragmentado para peças muito disputadas.
+ *
+ * Com fragmentosEstoque = N > 1, o estoque da peça fica em N contadores: o próprio
+ * item da peça (fragmento 0) e N - 1 itens {@link FragmentoEstoque}, cada um na sua
+ * partition key. Cada escrita cai num fragmento sorteado, então a vazão de escrita
+ * da peça cresce com N. A leitura soma os fragmentos (BatchGetItem) e guarda a soma
+ * por um TTL curto (catalogo.estoque.fragmentos.soma-ttl) que as escritas não
+ * invalidam: sob carga, a quantidade lida pode atrasar até esse TTL.
+ *
+ * As escritas são roteadas sem ler a peça: a escrita no item da peça exige que ela
+ * não seja fragmentada e, quando a condição falha, a imagem antiga informa quantos
+ * fragmentos ela tem ({@link EstoqueFragmentadoException}); esse número fica guardado
+ * por catalogo.estoque.fragmentos.config-ttl ({@link #fragmentosConhecidos}).
+ *
+ * A consolidação move o saldo de todos os fragmentos de volta para o item da peça
+ * num TransactWriteItems, condicionado ao saldo lido de cada fragmento. Um total
+ * absoluto (save, merge patch) usa as mesmas escritas ({@link #zeragem}) na transação
+ * que grava a quantidade no item, nunca "total menos a soma lida". Ao gravar
+ * uma nova configuração, a mesma transação cria os itens dos fragmentos 1..N-1 e
+ * apaga os que saíram dela: uma entrada só cai num fragmento que já existe, e uma
+ * peça removida não deixa fragmentos órfãos ({@link #remover}).
+ *
+ * As escritas nos fragmentos não tocam no item da peça (é isso que espalha a carga),
+ * então não mudam updatedAt nem version. Quem lê uma peça fragmentada não pode se
+ * basear neles para saber se o estoque mudou: a réplica e o cache guardam só o
+ * fragmento 0 e a soma dos demais é aplicada na leitura, e o ETag do item inclui a
+ * quantidade total.
+ */
+@Repository
+public class DynamoDbEstoqueFragmentado {
+
+    private static final Logger log = LoggerFactory.getLogger(DynamoDbEstoqueFragmentado.class);
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbTable<FragmentoEstoque> table;
+    private final DynamoDbBatchLoader<FragmentoEstoque> batchLoader;
+    private final String pecasTableName;
+    private final boolean indexarAlteracoes;
+    /** Soma dos fragmentos 1..N-1 por peça (sem o item da peça). */
+    private final Cache<String, Integer> somas;
+    /** Quantidade de fragmentos das peças sabidamente fragmentadas, aprendida das escritas. */
+    private final Cache<String, Integer> fragmentos;
+
+    public DynamoDbEstoqueFragmentado(
+            DynamoDbClient dynamoDbClient,
+            DynamoDbEnhancedClient enhancedClient,
+            MeterRegistry meterRegistry,
+            @Value("${aws.dynamodb.table-prefix:}") String tablePrefix,
+            @Value("${catalogo.estoque.fragmentos.soma-ttl:1s}") Duration somaTtl,
+            @Value("${catalogo.estoque.fragmentos.config-ttl:10s}") Duration configTtl,
+            @Value("${catalogo.cache.max-entries:10000}") long maxEntradas,
+            @Value("${catalogo.replica.enabled:false}") boolean indexarAlteracoes) {
+        String prefix = (tablePrefix != null && !tablePrefix.isBlank()) ? tablePrefix : "";
+        this.dynamoDbClient = dynamoDbClient;
+        this.table = enhancedClient.table(prefix + "pecas-estoque", TableSchema.fromBean(FragmentoEstoque.class));
+        this.batchLoader = new DynamoDbBatchLoader<>(dynamoDbClient, table);
+        this.pecasTableName = prefix + "pecas";
+        this.indexarAlteracoes = indexarAlteracoes;
+        this.somas = Caffeine.newBuilder()
+                .expireAfterWrite(somaTtl)
+                .maximumSize(maxEntradas)
+                .recordStats()
+                .build();
+        this.fragmentos = Caffeine.newBuilder()
+                .expireAfterWrite(configTtl)
+                .maximumSize(maxEntradas)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, somas, "estoque-fragmentos");
+    }
+
+    /**
+     * Quantidade de fragmentos já vista nesta instância (1 se desconhecida), sem ler a
+     * peça. Pode estar atrasada em até catalogo.estoque.fragmentos.config-ttl: uma
+     * escrita num fragmento que saiu da configuração não o encontra e vai ao item da peça.
+     */
+    public int fragmentosConhecidos(String pecaId) {
+        return Objects.requireNonNullElse(fragmentos.getIfPresent(pecaId), 1);
+    }
+
+    public void registrarFragmentos(String pecaId, int quantidade) {
+        if (quantidade > 1) {
+            fragmentos.put(pecaId, quantidade);
+        } else {
+            fragmentos.invalidate(pecaId);
+        }
+    }
+
+    static int fragmentosDe(Peca peca) {
+        Integer configurados = peca.getFragmentosEstoque();
+        return configurados == null || configurados < 1 ? 1 : configurados;
+    }
+
+    /**
+     * Saldo dos fragmentos 1..N-1 (o fragmento 0 é a quantidade do item da peça).
+     */
+    public int soma(String pecaId, int fragmentos) {
+        if (fragmentos <= 1) {
+            return 0;
+        }
+        return somas.get(pecaId, id -> saldos(id, fragmentos).values().stream()
+                .mapToInt(Integer::intValue)
+                .sum());
+    }
+
+    /**
+     * Descarta a soma guardada depois de uma transação montada com {@link #zeragem}.
+     */
+    public void invalidarSoma(String pecaId) {
+        somas.invalidate(pecaId);
+    }
+
+    /**
+     * Baixa condicional num fragmento.
+     *
+     * @return false se o fragmento não tem a quantidade (ou ainda não existe)
+     */
+    public boolean decrementar(String pecaId, int fragmento, int quantidade) {
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(table.tableName())
+                    .key(UpdateExpressions.chave(FragmentoEstoque.id(pecaId, fragmento)))
+                    .updateExpression("SET quantidade = quantidade - :q")
+                    .conditionExpression("quantidade >= :q")
+                    .expressionAttributeValues(Map.of(":q", numero(quantidade)))
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+        log.debug("Fragmento {} da peça {} baixado em {}", fragmento, pecaId, quantidade);
+        return true;
+    }
+
+    /**
+     * Entrada atômica (ADD) num fragmento existente. Nunca cria o item: os fragmentos
+     * nascem na consolidação que grava a configuração.
+     *
+     * @return false se o fragmento não existe (peça removida, configuração reduzida ou
+     *         fragmentada antes da criação antecipada); a entrada deve ir ao item da peça
+     */
+    public boolean incrementar(String pecaId, int fragmento, int quantidade) {
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(table.tableName())
+                    .key(UpdateExpressions.chave(FragmentoEstoque.id(pecaId, fragmento)))
+                    .updateExpression("ADD quantidade :q")
+                    .conditionExpression("attribute_exists(id)")
+                    .expressionAttributeValues(Map.of(":q", numero(quantidade)))
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            // Provável configuração atrasada: relê na próxima escrita.
+            fragmentos.invalidate(pecaId);
+            return false;
+        }
+        log.debug("Fragmento {} da peça {} acrescido de {}", fragmento, pecaId, quantidade);
+        return true;
+    }
+
+    /**
+     * Escritas que zeram os fragmentos de uma peça, para a mesma transação da escrita no
+     * item da peça; {@code saldo} é o total que havia neles.
+     */
+    record Zeragem(List<TransactWriteItem> itens, int saldo) {
+    }
+
+    /**
+     * Lê até {@link Peca#MAX_FRAGMENTOS_ESTOQUE} fragmentos (recolhendo também saldos
+     * deixados em fragmentos que já saíram da configuração) e monta uma escrita por
+     * fragmento, condicionada ao saldo lido: zera os configurados e, se
+     * {@code novosFragmentos} não for nulo, cria os fragmentos 1..novosFragmentos-1 que
+     * faltam e apaga os demais.
+     */
+    Zeragem zeragem(String pecaId, Integer novosFragmentos) {
+        Map<Integer, Integer> saldos = saldos(pecaId, Peca.MAX_FRAGMENTOS_ESTOQUE);
+        List<TransactWriteItem> itens = new ArrayList<>();
+        int total = 0;
+        // Um item por fragmento: a transação não aceita duas operações no mesmo item.
+        for (int fragmento = 1; fragmento < Peca.MAX_FRAGMENTOS_ESTOQUE; fragmento++) {
+            Integer saldo = saldos.get(fragmento);
+            boolean configurado = novosFragmentos == null || fragmento < novosFragmentos;
+            Map<String, AttributeValue> chave = UpdateExpressions.chave(FragmentoEstoque.id(pecaId, fragmento));
+            if (saldo != null) {
+                total += saldo;
+            }
+            if (saldo != null && !configurado) {
+                itens.add(TransactWriteItem.builder().delete(Delete.builder()
+                        .tableName(table.tableName())
+                        .key(chave)
+                        .conditionExpression("quantidade = :saldo")
+                        .expressionAttributeValues(Map.of(":saldo", numero(saldo)))
+                        .build()).build());
+            } else if (saldo != null && saldo != 0) {
+                itens.add(TransactWriteItem.builder().update(Update.builder()
+                        .tableName(table.tableName())
+                        .key(chave)
+                        .updateExpression("SET quantidade = :zero")
+                        .conditionExpression("quantidade = :saldo")
+                        .expressionAttributeValues(Map.of(":zero", numero(0), ":saldo", numero(saldo)))
+                        .build()).build());
+            } else if (saldo == null && novosFragmentos != null && configurado) {
+                itens.add(TransactWriteItem.builder().put(Put.builder()
+                        .tableName(table.tableName())
+                        .item(Map.of(
+                                "id", AttributeValue.builder().s(FragmentoEstoque.id(pecaId, fragmento)).build(),
+                                "pecaId", AttributeValue.builder().s(pecaId).build(),
+                                "quantidade", numero(0)))
+                        .conditionExpression("attribute_not_exists(id)")
+                        .build()).build());
+            }
+        }
+        return new Zeragem(itens, total);
+    }
+
+    /**
+     * Move o saldo de todos os fragmentos para o item da peça e, se {@code novosFragmentos}
+     * não for nulo, grava a nova configuração na mesma transação (ver {@link #zeragem}).
+     *
+     * @return quantidade movida para o item da peça
+     * @throws ConflitoDeVersaoException se um fragmento mudou depois da leitura
+     */
+    public int consolidar(String pecaId, Integer novosFragmentos) {
+        Zeragem zeragem = zeragem(pecaId, novosFragmentos);
+        if (zeragem.itens().isEmpty() && novosFragmentos == null) {
+            return 0;
+        }
+        List<TransactWriteItem> itens = new ArrayList<>(zeragem.itens());
+
+        Map<String, AttributeValue> valores = UpdateExpressions.valoresCarimbo(pecaId, indexarAlteracoes);
+        valores.put(":total", numero(zeragem.saldo()));
+        String set = UpdateExpressions.carimbo(indexarAlteracoes);
+        if (novosFragmentos != null) {
+            valores.put(":fragmentos", numero(novosFragmentos));
+            set += ", fragmentosEstoque = :fragmentos";
+        }
+        itens.add(TransactWriteItem.builder().update(Update.builder()
+                .tableName(pecasTableName)
+                .key(UpdateExpressions.chave(pecaId))
+                .updateExpression("ADD quantidade :total, version :um SET " + set)
+                .conditionExpression("attribute_exists(id)")
+                .expressionAttributeValues(valores)
+                .build()).build());
+
+        try {
+            dynamoDbClient.transactWriteItems(TransactWriteItemsRequest.builder()
+                    .transactItems(itens)
+                    .build());
+        } catch (TransactionCanceledException e) {
+            fragmentos.invalidate(pecaId);
+            List<CancellationReason> motivos = e.cancellationReasons();
+            if (condicaoFalhou(motivos, itens.size() - 1)) {
+                throw new RuntimeException("Peça não encontrada com ID: " + pecaId);
+            }
+            throw new ConflitoDeVersaoException(
+                    "Estoque da peça " + pecaId + " está sendo alterado por outra requisição", e);
+        } finally {
+            somas.invalidate(pecaId);
+        }
+        if (novosFragmentos != null) {
+            registrarFragmentos(pecaId, novosFragmentos);
+        }
+        log.info("Estoque da peça {} consolidado: {} unidade(s)", pecaId, zeragem.saldo());
+        return zeragem.saldo();
+    }
+
+    /**
+     * Apaga os fragmentos de uma peça removida, devolvendo o saldo que havia neles.
+     */
+    public int remover(String pecaId) {
+        int saldo = 0;
+        try {
+            for (Map.Entry<Integer, Integer> fragmento : saldos(pecaId, Peca.MAX_FRAGMENTOS_ESTOQUE).entrySet()) {
+                dynamoDbClient.deleteItem(DeleteItemRequest.builder()
+                        .tableName(table.tableName())
+                        .key(UpdateExpressions.chave(FragmentoEstoque.id(pecaId, fragmento.getKey())))
+                        .build());
+                saldo += fragmento.getValue();
+            }
+        } finally {
+            somas.invalidate(pecaId);
+            fragmentos.invalidate(pecaId);
+        }
+        if (saldo != 0) {
+            log.info("Fragmentos da peça removida {} apagados com {} unidade(s)", pecaId, saldo);
+        }
+        return saldo;
+    }
+
+    /**
+     * Saldo por fragmento (1..N-1); fragmentos nunca gravados ficam de fora.
+     */
+    private Map<Integer, Integer> saldos(String pecaId, int fragmentos) {
+        List<String> ids = IntStream.range(1, fragmentos)
+                .mapToObj(fragmento -> FragmentoEstoque.id(pecaId, fragmento))
+                .collect(Collectors.toList());
+        return batchLoader.carregar(ids).stream()
+                .collect(Collectors.toMap(
+                        fragmento -> Integer.valueOf(fragmento.getId().substring(pecaId.length() + 1)),
+                        fragmento -> Objects.requireNonNullElse(fragmento.getQuantidade(), 0)));
+    }
+
+    private static boolean condicaoFalhou(List<CancellationReason> motivos, int item) {
+        return motivos.size() > item && "ConditionalCheckFailed".equals(motivos.get(item).code());
+    }
+
+    private static AttributeValue numero(int valor) {
+        return AttributeValue.builder().n(Integer.toString(valor)).build();
+    }
+}
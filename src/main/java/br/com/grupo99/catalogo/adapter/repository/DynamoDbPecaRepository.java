@@ -1,24 +1,64 @@
 package br.com.grupo99.catalogo.adapter.repository;
 
+import br.com.grupo99.catalogo.adapter.config.DynamoDbMapConverter;
+import br.com.grupo99.catalogo.adapter.config.MapaLazy;
+import br.com.grupo99.catalogo.domain.exception.ConflitoDeVersaoException;
+import br.com.grupo99.catalogo.domain.model.Pagina;
 import br.com.grupo99.catalogo.domain.model.Peca;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbIndex;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.Expression;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.DeleteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.GetItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
 import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValuesOnConditionCheckFailure;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * DynamoDB Repository para Peca.
@@ -30,18 +70,106 @@ import java.util.stream.Collectors;
 public class DynamoDbPecaRepository {
 
     private static final Logger log = LoggerFactory.getLogger(DynamoDbPecaRepository.class);
+    private static final DynamoDbMapConverter ESPECIFICACOES = new DynamoDbMapConverter();
+    /** Limite de itens por TransactWriteItems. */
+    static final int AJUSTES_POR_TRANSACAO = 100;
+    private static final int MAX_TENTATIVAS_AJUSTE = 3;
+    private static final long BACKOFF_AJUSTE_MS = 25;
+    private final DynamoDbClient dynamoDbClient;
     private final DynamoDbTable<Peca> table;
+    private final DynamoDbIndex<Peca> codigoFabricanteIndex;
+    private final DynamoDbIndex<Peca> ativoIndex;
+    private final DynamoDbIndex<Peca> atualizacaoIndex;
+    private final CategoriaIndex categoriaIndex;
+    private final DynamoDbBatchLoader<Peca> batchLoader;
+    private final ParallelScanExecutor parallelScan;
+    /** Grava atualizacaoParticao (GSI de alterações) só quando a réplica em memória o consulta. */
+    private final boolean indexarAlteracoes;
 
     public DynamoDbPecaRepository(
+            DynamoDbClient dynamoDbClient,
             DynamoDbEnhancedClient enhancedClient,
-            @Value("${aws.dynamodb.table-prefix:}") String tablePrefix) {
-        String tableName = (tablePrefix != null && !tablePrefix.isBlank())
-                ? tablePrefix + "pecas"
-                : "pecas";
+            ParallelScanExecutor parallelScan,
+            @Value("${aws.dynamodb.table-prefix:}") String tablePrefix,
+            @Value("${catalogo.replica.enabled:false}") boolean indexarAlteracoes) {
+        String prefix = (tablePrefix != null && !tablePrefix.isBlank()) ? tablePrefix : "";
+        String tableName = prefix + "pecas";
+        this.dynamoDbClient = dynamoDbClient;
         this.table = enhancedClient.table(tableName, TableSchema.fromBean(Peca.class));
+        this.codigoFabricanteIndex = table.index(Peca.INDEX_CODIGO_FABRICANTE);
+        this.ativoIndex = table.index(Peca.INDEX_ATIVO);
+        this.atualizacaoIndex = table.index(Peca.INDEX_ATUALIZACAO);
+        this.categoriaIndex = new CategoriaIndex(enhancedClient, prefix + "pecas-categorias");
+        this.batchLoader = new DynamoDbBatchLoader<>(dynamoDbClient, table);
+        this.parallelScan = parallelScan;
+        this.indexarAlteracoes = indexarAlteracoes;
     }
 
     public Peca save(Peca peca) {
+        carimbar(peca);
+
+        Peca anterior;
+        try {
+            anterior = table.putItemWithResponse(PutItemEnhancedRequest.builder(Peca.class)
+                    .item(peca)
+                    .returnValues(ReturnValue.ALL_OLD)
+                    .build())
+                    .attributes();
+        } catch (ConditionalCheckFailedException e) {
+            throw new ConflitoDeVersaoException(
+                    "Peça " + peca.getId() + " foi alterada por outra requisição", e);
+        }
+        peca.setVersion(peca.getVersion() == null ? 1L : peca.getVersion() + 1);
+        categoriaIndex.sincronizar(peca.getId(),
+                anterior != null ? anterior.getCategorias() : null,
+                peca.getCategorias());
+        log.debug("Peca salva: {}", peca.getId());
+        return peca;
+    }
+
+    /**
+     * Save de uma peça fragmentada: grava o item (quantidade = total) e zera os
+     * fragmentos num único TransactWriteItems, cada fragmento condicionado ao saldo
+     * lido e o item à versão lida (o mesmo lock otimista do VersionedRecordExtension,
+     * que não participa de transações de baixo nível).
+     *
+     * @throws ConflitoDeVersaoException se o item ou um fragmento mudou depois da leitura
+     */
+    public Peca save(Peca peca, DynamoDbEstoqueFragmentado.Zeragem zeragem) {
+        carimbar(peca);
+        List<String> anteriores = categoriasGravadas(peca.getId());
+        Long versao = peca.getVersion();
+        long novaVersao = versao == null ? 1L : versao + 1;
+
+        Map<String, AttributeValue> item = new HashMap<>(table.tableSchema().itemToMap(peca, true));
+        item.put("version", AttributeValue.builder().n(Long.toString(novaVersao)).build());
+        Put.Builder put = Put.builder()
+                .tableName(table.tableName())
+                .item(item);
+        if (versao == null) {
+            put.conditionExpression("attribute_not_exists(version)");
+        } else {
+            put.conditionExpression("version = :versao")
+                    .expressionAttributeValues(Map.of(":versao",
+                            AttributeValue.builder().n(Long.toString(versao)).build()));
+        }
+        List<TransactWriteItem> itens = new ArrayList<>(zeragem.itens());
+        itens.add(TransactWriteItem.builder().put(put.build()).build());
+        try {
+            dynamoDbClient.transactWriteItems(TransactWriteItemsRequest.builder()
+                    .transactItems(itens)
+                    .build());
+        } catch (TransactionCanceledException e) {
+            throw new ConflitoDeVersaoException(
+                    "Peça " + peca.getId() + " foi alterada por outra requisição", e);
+        }
+        peca.setVersion(novaVersao);
+        categoriaIndex.sincronizar(peca.getId(), anteriores, peca.getCategorias());
+        log.debug("Peca salva com {} unidade(s) movida(s) dos fragmentos: {}", zeragem.saldo(), peca.getId());
+        return peca;
+    }
+
+    private void carimbar(Peca peca) {
         if (peca.getId() == null || peca.getId().isBlank()) {
             peca.setId(UUID.randomUUID().toString());
         }
@@ -49,10 +177,31 @@ public class DynamoDbPecaRepository {
             peca.setCreatedAt(LocalDateTime.now());
         }
         peca.setUpdatedAt(LocalDateTime.now());
+        peca.setAtualizacaoParticao(particaoAtualizacao(peca.getId()));
+    }
 
-        table.putItem(peca);
-        log.debug("Peca salva: {}", peca.getId());
-        return peca;
+    /**
+     * Categorias gravadas agora (leitura consistente), para o índice de categorias de
+     * uma escrita que não devolve a imagem antiga.
+     */
+    private List<String> categoriasGravadas(String id) {
+        GetItemResponse response = dynamoDbClient.getItem(GetItemRequest.builder()
+                .tableName(table.tableName())
+                .key(UpdateExpressions.chave(id))
+                .projectionExpression("id, categorias")
+                .consistentRead(true)
+                .build());
+        if (!response.hasItem() || response.item().isEmpty()) {
+            return null;
+        }
+        return table.tableSchema().mapToItem(response.item()).getCategorias();
+    }
+
+    /**
+     * Cópia profunda via mapeamento do schema (item -> atributos -> item).
+     */
+    public Peca copiar(Peca peca) {
+        return table.tableSchema().mapToItem(table.tableSchema().itemToMap(peca, true));
     }
 
     public Optional<Peca> findById(String id) {
@@ -60,77 +209,630 @@ public class DynamoDbPecaRepository {
         return Optional.ofNullable(entity);
     }
 
+    /**
+     * GetItem com ProjectionExpression: lê apenas os atributos pedidos.
+     * Atributos fora da projeção ficam com o valor padrão do bean e não devem ser usados.
+     */
+    public Optional<Peca> findById(String id, Collection<String> atributos) {
+        Map<String, String> nomes = new HashMap<>();
+        GetItemResponse response = dynamoDbClient.getItem(GetItemRequest.builder()
+                .tableName(table.tableName())
+                .key(UpdateExpressions.chave(id))
+                .projectionExpression(ProjectionExpressions.expressao(atributos, nomes))
+                .expressionAttributeNames(nomes)
+                .build());
+
+        if (!response.hasItem() || response.item().isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(table.tableSchema().mapToItem(response.item()));
+    }
+
+    /**
+     * BatchGetItem em lotes de 100 executados em paralelo; IDs inexistentes são omitidos.
+     */
+    public List<Peca> findAllById(Collection<String> ids) {
+        return batchLoader.carregar(ids);
+    }
+
+    /**
+     * Scan paralelo segmentado da tabela inteira.
+     */
     public List<Peca> findAll() {
-        return table.scan().items().stream().collect(Collectors.toList());
+        return parallelScan.scan(table);
     }
 
-    public List<Peca> findByAtivoTrue() {
-        ScanEnhancedRequest request = ScanEnhancedRequest.builder()
-                .filterExpression(Expression.builder()
-                        .expression("ativo = :ativo")
-                        .putExpressionValue(":ativo", AttributeValue.builder().bool(true).build())
-                        .build())
-                .build();
+    /**
+     * Scan sequencial preguiçoso: cada página é buscada só quando a anterior foi consumida.
+     */
+    public Stream<Peca> streamAll() {
+        return table.scan().items().stream();
+    }
 
-        return table.scan(request).items().stream().collect(Collectors.toList());
+    public Pagina<Peca> findAll(int limite, String cursor) {
+        return findAll(limite, cursor, null);
     }
 
+    /**
+     * @param atributos atributos projetados; null lê o item completo
+     */
+    public Pagina<Peca> findAll(int limite, String cursor, Collection<String> atributos) {
+        ScanEnhancedRequest.Builder request = ScanEnhancedRequest.builder()
+                .limit(limite)
+                .exclusiveStartKey(CursorCodec.decode(cursor));
+        if (atributos != null) {
+            request.attributesToProject(atributos);
+        }
+
+        Page<Peca> page = table.scan(request.build()).iterator().next();
+        return CursorCodec.paginaDe(page);
+    }
+
+    /**
+     * Itens ativos via GSI esparso: itens inativos não existem no índice
+     * e portanto não consomem leitura.
+     */
+    public List<Peca> findByAtivoTrue() {
+        return queryAtivos(null);
+    }
+
+    /**
+     * O GSI de ativos tem nome como sort key: a ordenação vem pronta do DynamoDB.
+     */
     public List<Peca> findByAtivoTrueOrderByNomeAsc() {
-        return findByAtivoTrue().stream()
-                .sorted(Comparator.comparing(Peca::getNome, Comparator.nullsLast(Comparator.naturalOrder())))
-                .collect(Collectors.toList());
+        return queryAtivos(null);
+    }
+
+    public Pagina<Peca> findByAtivoTrueOrderByNomeAsc(int limite, String cursor) {
+        return queryAtivos(null, limite, cursor, null);
     }
 
+    public Pagina<Peca> findByAtivoTrueOrderByNomeAsc(int limite, String cursor, Collection<String> atributos) {
+        return queryAtivos(null, limite, cursor, atributos);
+    }
+
+    /**
+     * Busca por código do fabricante via GSI (Query), sem varrer a tabela.
+     */
     public Optional<Peca> findByCodigoFabricante(String codigoFabricante) {
-        ScanEnhancedRequest request = ScanEnhancedRequest.builder()
-                .filterExpression(Expression.builder()
-                        .expression("codigoFabricante = :codigo")
-                        .putExpressionValue(":codigo", AttributeValue.builder().s(codigoFabricante).build())
-                        .build())
+        QueryEnhancedRequest request = QueryEnhancedRequest.builder()
+                .queryConditional(QueryConditional.keyEqualTo(Key.builder()
+                        .partitionValue(codigoFabricante)
+                        .build()))
+                .limit(1)
                 .build();
 
-        return table.scan(request).items().stream().findFirst();
+        return codigoFabricanteIndex.query(request).stream()
+                .flatMap(page -> page.items().stream())
+                .findFirst();
     }
 
+    /**
+     * Busca por categoria via índice invertido (Query) + BatchGetItem.
+     * Associações obsoletas são descartadas conferindo o item carregado.
+     */
     public List<Peca> findByCategoriasContainingAndAtivoTrue(String categoria) {
-        ScanEnhancedRequest request = ScanEnhancedRequest.builder()
-                .filterExpression(Expression.builder()
-                        .expression("contains(categorias, :cat) AND ativo = :ativo")
-                        .putExpressionValue(":cat", AttributeValue.builder().s(categoria).build())
-                        .putExpressionValue(":ativo", AttributeValue.builder().bool(true).build())
-                        .build())
-                .build();
+        return batchLoader.carregar(categoriaIndex.idsPorCategoria(categoria)).stream()
+                .filter(peca -> pertenceACategoriaAtiva(peca, categoria))
+                .sorted(Comparator.comparing(Peca::getNome, Comparator.nullsLast(Comparator.naturalOrder())))
+                .collect(Collectors.toList());
+    }
 
-        return table.scan(request).items().stream().collect(Collectors.toList());
+    /**
+     * Página da categoria na ordem do índice invertido (por ID). Associações
+     * obsoletas são descartadas, então a página pode ter menos itens que o limite.
+     */
+    public Pagina<Peca> findByCategoriasContainingAndAtivoTrue(String categoria, int limite, String cursor) {
+        Page<CategoriaMembro> membros = categoriaIndex.paginaPorCategoria(categoria, limite,
+                CursorCodec.decode(cursor));
+        List<String> ids = membros.items().stream()
+                .map(CategoriaMembro::getItemId)
+                .collect(Collectors.toList());
+        Map<String, Peca> porId = batchLoader.carregar(ids).stream()
+                .collect(Collectors.toMap(Peca::getId, Function.identity()));
+
+        List<Peca> itens = ids.stream()
+                .map(porId::get)
+                .filter(Objects::nonNull)
+                .filter(peca -> pertenceACategoriaAtiva(peca, categoria))
+                .collect(Collectors.toList());
+        return new Pagina<>(itens, CursorCodec.encode(membros.lastEvaluatedKey()));
+    }
+
+    private static boolean pertenceACategoriaAtiva(Peca peca, String categoria) {
+        return Boolean.TRUE.equals(peca.getAtivo())
+                && peca.getCategorias() != null
+                && peca.getCategorias().contains(categoria);
     }
 
     public List<Peca> findByMarcaAndAtivoTrue(String marca) {
-        ScanEnhancedRequest request = ScanEnhancedRequest.builder()
-                .filterExpression(Expression.builder()
-                        .expression("marca = :marca AND ativo = :ativo")
-                        .putExpressionValue(":marca", AttributeValue.builder().s(marca).build())
-                        .putExpressionValue(":ativo", AttributeValue.builder().bool(true).build())
-                        .build())
-                .build();
+        return queryAtivos(filtroMarca(marca));
+    }
 
-        return table.scan(request).items().stream().collect(Collectors.toList());
+    public Pagina<Peca> findByMarcaAndAtivoTrue(String marca, int limite, String cursor) {
+        return queryAtivos(filtroMarca(marca), limite, cursor, null);
+    }
+
+    private static Expression filtroMarca(String marca) {
+        return Expression.builder()
+                .expression("marca = :marca")
+                .putExpressionValue(":marca", AttributeValue.builder().s(marca).build())
+                .build();
     }
 
     public List<Peca> findByQuantidadeLessThanEqualAndAtivoTrue(Integer quantidade) {
-        ScanEnhancedRequest request = ScanEnhancedRequest.builder()
-                .filterExpression(Expression.builder()
-                        .expression("quantidade <= :qtd AND ativo = :ativo")
-                        .putExpressionValue(":qtd", AttributeValue.builder().n(String.valueOf(quantidade)).build())
+        return queryAtivos(Expression.builder()
+                .expression("quantidade <= :qtd")
+                .putExpressionValue(":qtd", AttributeValue.builder().n(String.valueOf(quantidade)).build())
+                .build());
+    }
+
+    private List<Peca> queryAtivos(Expression filter) {
+        return ativoIndex.query(ativosRequest(filter).build()).stream()
+                .flatMap(page -> page.items().stream())
+                .collect(Collectors.toList());
+    }
+
+    private Pagina<Peca> queryAtivos(Expression filter, int limite, String cursor, Collection<String> atributos) {
+        QueryEnhancedRequest.Builder request = ativosRequest(filter)
+                .limit(limite)
+                .exclusiveStartKey(CursorCodec.decode(cursor));
+        if (atributos != null) {
+            request.attributesToProject(atributos);
+        }
+
+        Page<Peca> page = ativoIndex.query(request.build()).iterator().next();
+        return CursorCodec.paginaDe(page);
+    }
+
+    private static QueryEnhancedRequest.Builder ativosRequest(Expression filter) {
+        QueryEnhancedRequest.Builder request = QueryEnhancedRequest.builder()
+                .queryConditional(QueryConditional.keyEqualTo(Key.builder()
+                        .partitionValue(Peca.PARTICAO_ATIVO)
+                        .build()))
+                .scanIndexForward(true);
+        if (filter != null) {
+            request.filterExpression(filter);
+        }
+        return request;
+    }
+
+    /**
+     * Regrava itens ativos anteriores ao GSI esparso para que passem a ter ativoParticao.
+     *
+     * @return quantidade de itens reindexados
+     */
+    public int reindexarAtivos() {
+        AtomicInteger total = new AtomicInteger();
+        parallelScan.forEach(table,
+                request -> request.filterExpression(Expression.builder()
+                        .expression("ativo = :ativo AND attribute_not_exists(ativoParticao)")
                         .putExpressionValue(":ativo", AttributeValue.builder().bool(true).build())
-                        .build())
-                .build();
+                        .build()),
+                peca -> {
+                    try {
+                        peca.setAtualizacaoParticao(particaoAtualizacao(peca.getId()));
+                        table.putItem(peca);
+                        total.incrementAndGet();
+                    } catch (ConditionalCheckFailedException e) {
+                        // Alterada durante o scan: o save concorrente já gravou ativoParticao.
+                    }
+                });
+        return total.get();
+    }
+
+    /**
+     * Regrava como mapa nativo (M) as especificacoes ainda guardadas como JSON string.
+     * Não altera version nem updatedAt: o conteúdo é o mesmo. A condição sobre version
+     * descarta itens alterados durante o scan, que já foram gravados no formato novo.
+     *
+     * @return quantidade de itens migrados
+     */
+    public int migrarEspecificacoes() {
+        AttributeValue tipoTexto = AttributeValue.builder().s("S").build();
+        AtomicInteger total = new AtomicInteger();
+        parallelScan.forEach(table,
+                request -> request
+                        .filterExpression(Expression.builder()
+                                .expression("attribute_type(especificacoes, :tipo)")
+                                .putExpressionValue(":tipo", tipoTexto)
+                                .build())
+                        .attributesToProject("id", "especificacoes", "version"),
+                peca -> {
+                    if (peca.getEspecificacoes() == null
+                            || peca.getEspecificacoes() instanceof MapaLazy lazy && lazy.invalido()) {
+                        // JSON inválido no formato antigo: fica como está.
+                        return;
+                    }
+                    Map<String, AttributeValue> valores = new HashMap<>();
+                    valores.put(":tipo", tipoTexto);
+                    valores.put(":mapa", ESPECIFICACOES.transformFrom(peca.getEspecificacoes()));
+                    String condicao = "attribute_type(especificacoes, :tipo) AND ";
+                    if (peca.getVersion() == null) {
+                        condicao += "attribute_not_exists(version)";
+                    } else {
+                        condicao += "version = :versao";
+                        valores.put(":versao", AttributeValue.builder().n(peca.getVersion().toString()).build());
+                    }
+                    try {
+                        dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                                .tableName(table.tableName())
+                                .key(UpdateExpressions.chave(peca.getId()))
+                                .updateExpression("SET especificacoes = :mapa")
+                                .conditionExpression(condicao)
+                                .expressionAttributeValues(valores)
+                                .build());
+                        total.incrementAndGet();
+                    } catch (ConditionalCheckFailedException e) {
+                        // Alterada ou removida durante o scan.
+                    }
+                });
+        return total.get();
+    }
 
-        return table.scan(request).items().stream().collect(Collectors.toList());
+    /**
+     * Itens com updatedAt posterior a {@code desde}, via GSI de alterações: uma Query por
+     * partição (ITEM#0..N-1), sem scan. O GSI é eventualmente consistente: quem consulta
+     * deve usar uma margem de segurança.
+     */
+    public List<Peca> findAlteradosDesde(LocalDateTime desde) {
+        List<Peca> alterados = new ArrayList<>();
+        for (int particao = 0; particao < Peca.PARTICOES_ATUALIZACAO; particao++) {
+            QueryEnhancedRequest request = QueryEnhancedRequest.builder()
+                    .queryConditional(QueryConditional.sortGreaterThan(Key.builder()
+                            .partitionValue(Peca.PARTICAO_ATUALIZACAO + "#" + particao)
+                            .sortValue(desde.toString())
+                            .build()))
+                    .build();
+            atualizacaoIndex.query(request).stream()
+                    .forEach(page -> alterados.addAll(page.items()));
+        }
+        return alterados;
+    }
+
+    /**
+     * Valor de atualizacaoParticao para o ID: nulo (fora do GSI) com a réplica desabilitada.
+     */
+    private String particaoAtualizacao(String id) {
+        return indexarAlteracoes ? Peca.particaoAtualizacao(id) : null;
     }
 
-    public void deleteById(String id) {
-        table.deleteItem(Key.builder().partitionValue(id).build());
+    /**
+     * Entrega todos os IDs da tabela (scan paralelo com leitura consistente, só o atributo id).
+     * O consumer é chamado de várias threads.
+     */
+    public void percorrerIds(Consumer<String> consumer) {
+        parallelScan.forEach(table,
+                request -> request.attributesToProject("id").consistentRead(true),
+                peca -> consumer.accept(peca.getId()));
+    }
+
+    /**
+     * Regrava o índice invertido de categorias a partir dos itens existentes.
+     *
+     * @return quantidade de itens reindexados
+     */
+    public int reindexarCategorias() {
+        AtomicInteger total = new AtomicInteger();
+        parallelScan.forEach(table,
+                request -> request.filterExpression(Expression.builder()
+                        .expression("attribute_exists(categorias)")
+                        .build()),
+                peca -> {
+                    categoriaIndex.sincronizar(peca.getId(), null, peca.getCategorias());
+                    total.incrementAndGet();
+                });
+        return total.get();
+    }
+
+    /**
+     * Baixa de estoque atômica: um único UpdateItem condicionado a quantidade >= :q.
+     * Sem leitura prévia, duas baixas simultâneas nunca deixam o estoque negativo.
+     * Incrementa version para que um save concorrente baseado na leitura antiga falhe.
+     *
+     * @param fragmentada true para baixar do fragmento 0 de uma peça fragmentada; com
+     *        false a condição também exige peça não fragmentada
+     * @return item após a baixa
+     * @throws EstoqueFragmentadoException com fragmentada = false numa peça fragmentada
+     */
+    public Peca decrementarQuantidade(String id, int quantidade, boolean fragmentada) {
+        return atualizarQuantidade(id,
+                "SET quantidade = quantidade - :q, " + UpdateExpressions.carimbo(indexarAlteracoes)
+                        + " ADD version :um",
+                "attribute_exists(id) AND quantidade >= :q", fragmentada, quantidade);
+    }
+
+    /**
+     * Entrada de estoque atômica (ADD), sem leitura prévia.
+     *
+     * @param fragmentada como em {@link #decrementarQuantidade}
+     * @return item após a entrada
+     */
+    public Peca incrementarQuantidade(String id, int quantidade, boolean fragmentada) {
+        return atualizarQuantidade(id,
+                "ADD quantidade :q, version :um SET " + UpdateExpressions.carimbo(indexarAlteracoes),
+                "attribute_exists(id)", fragmentada, quantidade);
+    }
+
+    /**
+     * Ajuste de estoque em massa: cada delta é um ADD condicional (a peça existe e, se
+     * negativo, quantidade >= -delta) e os ajustes vão em TransactWriteItems de até
+     * {@link #AJUSTES_POR_TRANSACAO} itens, executados em paralelo em virtual threads.
+     *
+     * Uma condição que falha cancela só a sua transação: os itens culpados (apontados
+     * pelos CancellationReasons) saem como falha e o resto do lote é reenviado.
+     * Conflitos entre transações são reenviados com backoff até {@link #MAX_TENTATIVAS_AJUSTE} vezes.
+     *
+     * @param ajustes ID -> delta (IDs únicos; delta zero é ignorado)
+     * @return ID -> motivo da falha, com as mesmas exceções de incrementar/decrementar
+     *         (IllegalArgumentException para estoque insuficiente)
+     */
+    public Map<String, RuntimeException> ajustarQuantidades(Map<String, Integer> ajustes) {
+        List<Map.Entry<String, Integer>> itens = ajustes.entrySet().stream()
+                .filter(ajuste -> ajuste.getValue() != 0)
+                .collect(Collectors.toList());
+        List<List<Map.Entry<String, Integer>>> lotes = new ArrayList<>();
+        for (int inicio = 0; inicio < itens.size(); inicio += AJUSTES_POR_TRANSACAO) {
+            lotes.add(itens.subList(inicio, Math.min(inicio + AJUSTES_POR_TRANSACAO, itens.size())));
+        }
+
+        Map<String, RuntimeException> falhas = new ConcurrentHashMap<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = lotes.stream()
+                    .map(lote -> executor.submit(() -> ajustarLote(lote, falhas)))
+                    .collect(Collectors.toList());
+            for (Future<?> future : futures) {
+                aguardar(future);
+            }
+        }
+        log.debug("Ajuste de estoque: {} peça(s), {} falha(s)", itens.size(), falhas.size());
+        return falhas;
+    }
+
+    private void ajustarLote(List<Map.Entry<String, Integer>> lote, Map<String, RuntimeException> falhas) {
+        List<Map.Entry<String, Integer>> pendentes = new ArrayList<>(lote);
+        for (int tentativa = 1; !pendentes.isEmpty(); tentativa++) {
+            try {
+                dynamoDbClient.transactWriteItems(TransactWriteItemsRequest.builder()
+                        .transactItems(pendentes.stream().map(this::ajuste).collect(Collectors.toList()))
+                        .build());
+                return;
+            } catch (TransactionCanceledException e) {
+                List<CancellationReason> motivos = e.cancellationReasons();
+                List<Map.Entry<String, Integer>> restantes = new ArrayList<>();
+                for (int i = 0; i < pendentes.size(); i++) {
+                    CancellationReason motivo = i < motivos.size() ? motivos.get(i) : null;
+                    String id = pendentes.get(i).getKey();
+                    if (motivo != null && "ConditionalCheckFailed".equals(motivo.code())) {
+                        falhas.put(id, motivo.hasItem() && !motivo.item().isEmpty()
+                                ? estoqueInsuficiente(id, motivo.item())
+                                : new RuntimeException("Peça não encontrada com ID: " + id));
+                    } else {
+                        restantes.add(pendentes.get(i));
+                    }
+                }
+                boolean algumaCondicaoFalhou = restantes.size() < pendentes.size();
+                if (!algumaCondicaoFalhou && tentativa >= MAX_TENTATIVAS_AJUSTE) {
+                    restantes.forEach(ajuste -> falhas.put(ajuste.getKey(), new ConflitoDeVersaoException(
+                            "Peça " + ajuste.getKey() + " está sendo alterada por outra requisição", e)));
+                    return;
+                }
+                if (!algumaCondicaoFalhou) {
+                    aguardarBackoff(tentativa);
+                }
+                pendentes = restantes;
+            }
+        }
+    }
+
+    private TransactWriteItem ajuste(Map.Entry<String, Integer> ajuste) {
+        int delta = ajuste.getValue();
+        Map<String, AttributeValue> valores = UpdateExpressions.valoresCarimbo(ajuste.getKey(),
+                indexarAlteracoes);
+        valores.put(":q", AttributeValue.builder().n(String.valueOf(delta)).build());
+        String condicao = "attribute_exists(id)";
+        if (delta < 0) {
+            valores.put(":minimo", AttributeValue.builder().n(String.valueOf(-delta)).build());
+            condicao += " AND quantidade >= :minimo";
+        }
+        return TransactWriteItem.builder().update(Update.builder()
+                .tableName(table.tableName())
+                .key(UpdateExpressions.chave(ajuste.getKey()))
+                .updateExpression("ADD quantidade :q, version :um SET "
+                        + UpdateExpressions.carimbo(indexarAlteracoes))
+                .conditionExpression(condicao)
+                .expressionAttributeValues(valores)
+                .returnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD)
+                .build()).build();
+    }
+
+    private static void aguardarBackoff(int tentativa) {
+        long teto = BACKOFF_AJUSTE_MS << tentativa;
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(teto / 2, teto + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ajuste de estoque interrompido", e);
+        }
+    }
+
+    private static void aguardar(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ajuste de estoque interrompido", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Falha no ajuste de estoque", e.getCause());
+        }
+    }
+
+    private Peca atualizarQuantidade(String id, String updateExpression, String conditionExpression,
+            boolean fragmentada, int quantidade) {
+        Map<String, AttributeValue> valores = UpdateExpressions.valoresCarimbo(id, indexarAlteracoes);
+        valores.put(":q", AttributeValue.builder().n(String.valueOf(quantidade)).build());
+        UpdateItemResponse response;
+        try {
+            response = dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(table.tableName())
+                    .key(UpdateExpressions.chave(id))
+                    .updateExpression(updateExpression)
+                    .conditionExpression(fragmentada ? conditionExpression
+                            : conditionExpression + " AND " + EstoqueFragmentadoException.NAO_FRAGMENTADA)
+                    .expressionAttributeValues(valores)
+                    .returnValues(ReturnValue.ALL_NEW)
+                    .returnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD)
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            throw falhaDeCondicao(id, e, fragmentada);
+        }
+        log.debug("Estoque da peça {} atualizado em {}", id, quantidade);
+        return table.tableSchema().mapToItem(response.attributes());
+    }
+
+    /**
+     * Distingue item inexistente (sem imagem antiga), peça fragmentada e condição de
+     * estoque não atendida. Quem já escreve no fragmento 0 recebe só a falta de estoque.
+     */
+    private static RuntimeException falhaDeCondicao(String id, ConditionalCheckFailedException e,
+            boolean fragmentada) {
+        if (e.hasItem() && !e.item().isEmpty()) {
+            return fragmentada
+                    ? new IllegalArgumentException("Quantidade insuficiente em estoque")
+                    : estoqueInsuficiente(id, e.item());
+        }
+        return new RuntimeException("Peça não encontrada com ID: " + id);
+    }
+
+    /**
+     * Numa peça fragmentada o item guarda só o fragmento 0: a falta pode ser só dele.
+     */
+    private static RuntimeException estoqueInsuficiente(String id, Map<String, AttributeValue> imagemAntiga) {
+        int fragmentos = EstoqueFragmentadoException.fragmentosDe(imagemAntiga);
+        if (fragmentos > 1) {
+            return new EstoqueFragmentadoException(id, fragmentos);
+        }
+        return new IllegalArgumentException("Quantidade insuficiente em estoque");
+    }
+
+    /**
+     * Atualização parcial em um único UpdateItem: só os atributos alterados trafegam.
+     *
+     * @param alteracoes atributo -> novo valor; null remove o atributo
+     * @return item completo após a alteração, ou vazio se o ID não existir
+     */
+    public Optional<Peca> atualizarCampos(String id, Map<String, Object> alteracoes) {
+        return atualizar(id, alteracoes);
+    }
+
+    /**
+     * Merge patch com quantidade absoluta numa peça fragmentada: o UpdateItem do item
+     * (quantidade = total) e a zeragem dos fragmentos vão num único TransactWriteItems;
+     * o item completo é relido depois (transações não devolvem a imagem nova).
+     *
+     * @return item após a alteração, ou vazio se o ID não existir
+     * @throws ConflitoDeVersaoException se um fragmento mudou depois da leitura
+     */
+    public Optional<Peca> atualizarCampos(String id, Map<String, Object> alteracoes,
+            DynamoDbEstoqueFragmentado.Zeragem zeragem) {
+        UpdateExpressions.Atualizacao atualizacao = UpdateExpressions.atualizacao(id, alteracoes,
+                indexarAlteracoes);
+        List<TransactWriteItem> itens = new ArrayList<>(zeragem.itens());
+        itens.add(TransactWriteItem.builder().update(Update.builder()
+                .tableName(table.tableName())
+                .key(UpdateExpressions.chave(id))
+                .updateExpression(atualizacao.expressao())
+                .conditionExpression("attribute_exists(id)")
+                .expressionAttributeNames(atualizacao.nomes())
+                .expressionAttributeValues(atualizacao.valores())
+                .build()).build());
+        try {
+            dynamoDbClient.transactWriteItems(TransactWriteItemsRequest.builder()
+                    .transactItems(itens)
+                    .build());
+        } catch (TransactionCanceledException e) {
+            List<CancellationReason> motivos = e.cancellationReasons();
+            int item = itens.size() - 1;
+            if (motivos.size() > item && "ConditionalCheckFailed".equals(motivos.get(item).code())) {
+                return Optional.empty();
+            }
+            throw new ConflitoDeVersaoException(
+                    "Estoque da peça " + id + " está sendo alterado por outra requisição", e);
+        }
+        log.debug("Peca {} atualizada com {} unidade(s) movida(s) dos fragmentos: {}", id, zeragem.saldo(),
+                alteracoes.keySet());
+        return Optional.ofNullable(table.getItem(GetItemEnhancedRequest.builder()
+                .key(Key.builder().partitionValue(id).build())
+                .consistentRead(true)
+                .build()));
+    }
+
+    /**
+     * Desativação em um único UpdateItem condicional: ativo = false e REMOVE ativoParticao,
+     * o que tira o item do GSI esparso de ativos.
+     *
+     * @return item após a alteração, ou vazio se o ID não existir
+     */
+    public Optional<Peca> desativar(String id) {
+        Map<String, Object> alteracoes = new HashMap<>();
+        alteracoes.put("ativo", false);
+        alteracoes.put("ativoParticao", null);
+        return atualizar(id, alteracoes);
+    }
+
+    /**
+     * UpdateItem com a imagem nova (ALL_NEW). Uma quantidade absoluta só vale para peça
+     * não fragmentada: se a peça é fragmentada, {@link EstoqueFragmentadoException}.
+     */
+    private Optional<Peca> atualizar(String id, Map<String, Object> alteracoes) {
+        UpdateExpressions.Atualizacao atualizacao = UpdateExpressions.atualizacao(id, alteracoes,
+                indexarAlteracoes);
+        boolean quantidadeAbsoluta = alteracoes.get("quantidade") != null;
+        try {
+            UpdateItemResponse response = dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(table.tableName())
+                    .key(UpdateExpressions.chave(id))
+                    .updateExpression(atualizacao.expressao())
+                    .conditionExpression(quantidadeAbsoluta
+                            ? "attribute_exists(id) AND " + EstoqueFragmentadoException.NAO_FRAGMENTADA
+                            : "attribute_exists(id)")
+                    .expressionAttributeNames(atualizacao.nomes())
+                    .expressionAttributeValues(atualizacao.valores())
+                    .returnValues(ReturnValue.ALL_NEW)
+                    .returnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD)
+                    .build());
+            log.debug("Peca {} atualizada: {}", id, alteracoes.keySet());
+            return Optional.of(table.tableSchema().mapToItem(response.attributes()));
+        } catch (ConditionalCheckFailedException e) {
+            if (e.hasItem() && !e.item().isEmpty()) {
+                throw new EstoqueFragmentadoException(id, EstoqueFragmentadoException.fragmentosDe(e.item()));
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * DeleteItem condicional (attribute_exists(id)) que devolve o item antigo (ALL_OLD)
+     * para limpar o índice de categorias sem leitura prévia.
+     *
+     * @return false se o ID não existir
+     */
+    public boolean deleteById(String id) {
+        Peca removido;
+        try {
+            removido = table.deleteItem(DeleteItemEnhancedRequest.builder()
+                    .key(Key.builder().partitionValue(id).build())
+                    .conditionExpression(Expression.builder().expression("attribute_exists(id)").build())
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+        categoriaIndex.remover(id, removido.getCategorias());
         log.debug("Peca deletada: {}", id);
+        return true;
     }
 
     public boolean existsById(String id) {
@@ -0,0 +1,288 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import br.com.grupo99.catalogo.domain.exception.ConflitoDeVersaoException;
+import br.com.grupo99.catalogo.domain.model.Reserva;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbIndex;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.Delete;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValuesOnConditionCheckFailure;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reservas de estoque: cada operação é um TransactWriteItems com dois itens, a
+ * reserva e a peça, ambos condicionais. Não há lock na aplicação; a disputa fica
+ * por item no DynamoDB, e um conflito entre transações vira
+ * {@link ConflitoDeVersaoException} para a retentativa do serviço.
+ *
+ * As atualizações da peça incrementam version e carimbam updatedAt, como as
+ * demais escritas parciais (cache, réplica e lock otimista continuam coerentes).
+ *
+ * Concorrência numa mesma peça: o DynamoDB serializa as transações sobre o item e
+ * cancela as que colidem com uma em andamento (TransactionConflict), sem aplicar
+ * nenhuma das duas escritas. O estoque nunca fica negativo nem é vendido duas vezes;
+ * o custo da disputa é latência (retentativas no serviço) e, esgotadas as
+ * retentativas, um 409 para o cliente repetir.
+ */
+@Repository
+public class DynamoDbReservaRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(DynamoDbReservaRepository.class);
+
+    /** Posições dos itens nas transações. */
+    private static final int ITEM_RESERVA = 0;
+    private static final int ITEM_PECA = 1;
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbTable<Reserva> table;
+    private final DynamoDbIndex<Reserva> expiracaoIndex;
+    private final String pecasTableName;
+    private final boolean indexarAlteracoes;
+
+    public DynamoDbReservaRepository(
+            DynamoDbClient dynamoDbClient,
+            DynamoDbEnhancedClient enhancedClient,
+            @Value("${aws.dynamodb.table-prefix:}") String tablePrefix,
+            @Value("${catalogo.replica.enabled:false}") boolean indexarAlteracoes) {
+        String prefix = (tablePrefix != null && !tablePrefix.isBlank()) ? tablePrefix : "";
+        this.dynamoDbClient = dynamoDbClient;
+        this.table = enhancedClient.table(prefix + "reservas", TableSchema.fromBean(Reserva.class));
+        this.expiracaoIndex = table.index(Reserva.INDEX_EXPIRACAO);
+        this.pecasTableName = prefix + "pecas";
+        this.indexarAlteracoes = indexarAlteracoes;
+    }
+
+    /**
+     * Grava a reserva e move a quantidade de disponível para reservada, condicionado
+     * a quantidade >= :q. Duas reservas simultâneas nunca vendem o mesmo estoque.
+     *
+     * @throws EstoqueFragmentadoException se falta estoque no item de uma peça fragmentada
+     */
+    public Reserva reservar(Reserva reserva) {
+        Map<String, AttributeValue> valores = UpdateExpressions.valoresCarimbo(reserva.getPecaId(), indexarAlteracoes);
+        valores.put(":q", numero(reserva.getQuantidade()));
+        List<TransactWriteItem> itens = List.of(
+                TransactWriteItem.builder().put(Put.builder()
+                        .tableName(table.tableName())
+                        .item(table.tableSchema().itemToMap(reserva, true))
+                        .conditionExpression("attribute_not_exists(id)")
+                        .build()).build(),
+                TransactWriteItem.builder().update(Update.builder()
+                        .tableName(pecasTableName)
+                        .key(UpdateExpressions.chave(reserva.getPecaId()))
+                        .updateExpression("SET quantidade = quantidade - :q, "
+                                + UpdateExpressions.carimbo(indexarAlteracoes)
+                                + " ADD quantidadeReservada :q, version :um")
+                        .conditionExpression("attribute_exists(id) AND quantidade >= :q")
+                        .expressionAttributeValues(valores)
+                        .returnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD)
+                        .build()).build());
+
+        Resultado resultado = executar(itens, reserva.getPecaId());
+        if (resultado.peca() != null) {
+            if (resultado.peca().hasItem() && !resultado.peca().item().isEmpty()) {
+                int fragmentos = EstoqueFragmentadoException.fragmentosDe(resultado.peca().item());
+                if (fragmentos > 1) {
+                    // Só o fragmento 0 está no item: o saldo dos demais pode cobrir a reserva.
+                    throw new EstoqueFragmentadoException(reserva.getPecaId(), fragmentos);
+                }
+                throw new IllegalArgumentException("Quantidade insuficiente em estoque");
+            }
+            throw new RuntimeException("Peça não encontrada com ID: " + reserva.getPecaId());
+        }
+        if (resultado.reservaFalhou()) {
+            throw new IllegalStateException("Reserva " + reserva.getId() + " já existe");
+        }
+        log.debug("Reserva {} criada: {} unidade(s) da peça {}", reserva.getId(), reserva.getQuantidade(),
+                reserva.getPecaId());
+        return reserva;
+    }
+
+    public Optional<Reserva> findById(String id) {
+        return Optional.ofNullable(table.getItem(Key.builder().partitionValue(id).build()));
+    }
+
+    /**
+     * Consome a reserva: apaga o item (só se ainda não expirou) e baixa quantidadeReservada.
+     *
+     * @return false se a reserva já foi confirmada, liberada ou expirou
+     */
+    public boolean confirmar(Reserva reserva) {
+        Map<String, AttributeValue> valores = UpdateExpressions.valoresCarimbo(reserva.getPecaId(), indexarAlteracoes);
+        valores.put(":menosq", numero(-reserva.getQuantidade()));
+        Delete delete = Delete.builder()
+                .tableName(table.tableName())
+                .key(UpdateExpressions.chave(reserva.getId()))
+                .conditionExpression("attribute_exists(id) AND expiraEm > :instante")
+                .expressionAttributeValues(Map.of(":instante", instanteAtual()))
+                .build();
+        return concluir(reserva, delete, "ADD quantidadeReservada :menosq, version :um SET "
+                + UpdateExpressions.carimbo(indexarAlteracoes), valores);
+    }
+
+    /**
+     * Desfaz a reserva e devolve a quantidade ao disponível.
+     *
+     * @param somenteExpirada true na varredura: só libera se o prazo já passou
+     * @return false se a reserva já foi confirmada ou liberada
+     */
+    public boolean liberar(Reserva reserva, boolean somenteExpirada) {
+        Map<String, AttributeValue> valores = UpdateExpressions.valoresCarimbo(reserva.getPecaId(), indexarAlteracoes);
+        valores.put(":q", numero(reserva.getQuantidade()));
+        valores.put(":menosq", numero(-reserva.getQuantidade()));
+        Delete.Builder delete = Delete.builder()
+                .tableName(table.tableName())
+                .key(UpdateExpressions.chave(reserva.getId()));
+        if (somenteExpirada) {
+            delete.conditionExpression("attribute_exists(id) AND expiraEm <= :instante")
+                    .expressionAttributeValues(Map.of(":instante", instanteAtual()));
+        } else {
+            delete.conditionExpression("attribute_exists(id)");
+        }
+        return concluir(reserva, delete.build(), "ADD quantidade :q, quantidadeReservada :menosq, version :um SET "
+                + UpdateExpressions.carimbo(indexarAlteracoes), valores);
+    }
+
+    /**
+     * Reservas com prazo vencido até {@code ate}, mais antigas primeiro. Lê até
+     * {@code limite} reservas de cada partição do índice e devolve as {@code limite}
+     * mais antigas.
+     */
+    public List<Reserva> findExpiradas(Instant ate, int limite) {
+        String instante = ate.truncatedTo(ChronoUnit.SECONDS).toString();
+        List<Reserva> expiradas = new ArrayList<>();
+        for (int particao = 0; particao < Reserva.PARTICOES_EXPIRACAO; particao++) {
+            expiradas.addAll(expiradasNaParticao(Reserva.PARTICAO_EXPIRACAO + "#" + particao, instante, limite));
+        }
+        return expiradas.stream()
+                .sorted(Comparator.comparing(Reserva::getExpiraEm))
+                .limit(limite)
+                .toList();
+    }
+
+    private List<Reserva> expiradasNaParticao(String particao, String instante, int limite) {
+        QueryEnhancedRequest request = QueryEnhancedRequest.builder()
+                .queryConditional(QueryConditional.sortLessThanOrEqualTo(Key.builder()
+                        .partitionValue(particao)
+                        .sortValue(instante)
+                        .build()))
+                .limit(limite)
+                .build();
+        return expiracaoIndex.query(request).stream()
+                .findFirst()
+                .map(Page::items)
+                .orElse(List.of());
+    }
+
+    private boolean concluir(Reserva reserva, Delete delete, String updateExpression,
+            Map<String, AttributeValue> valores) {
+        List<TransactWriteItem> itens = List.of(
+                TransactWriteItem.builder().delete(delete).build(),
+                TransactWriteItem.builder().update(Update.builder()
+                        .tableName(pecasTableName)
+                        .key(UpdateExpressions.chave(reserva.getPecaId()))
+                        .updateExpression(updateExpression)
+                        .conditionExpression("attribute_exists(id)")
+                        .expressionAttributeValues(valores)
+                        .build()).build());
+
+        Resultado resultado = executar(itens, reserva.getPecaId());
+        if (resultado.sucesso()) {
+            log.debug("Reserva {} concluída", reserva.getId());
+            return true;
+        }
+        if (resultado.reservaFalhou()) {
+            return false;
+        }
+        // Peça removida depois da reserva: não há estoque a ajustar, só a reserva a apagar.
+        return removerReserva(reserva.getId(), delete);
+    }
+
+    private boolean removerReserva(String id, Delete delete) {
+        try {
+            dynamoDbClient.deleteItem(DeleteItemRequest.builder()
+                    .tableName(delete.tableName())
+                    .key(delete.key())
+                    .conditionExpression(delete.conditionExpression())
+                    .expressionAttributeValues(delete.hasExpressionAttributeValues()
+                            ? delete.expressionAttributeValues() : null)
+                    .build());
+            log.debug("Reserva {} removida (peça inexistente)", id);
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Condições que falharam numa transação: a da reserva (item 0) e/ou a da peça
+     * (item 1, com a imagem antiga quando pedida com ALL_OLD).
+     */
+    private record Resultado(boolean reservaFalhou, CancellationReason peca) {
+
+        static final Resultado SUCESSO = new Resultado(false, null);
+
+        boolean sucesso() {
+            return !reservaFalhou && peca == null;
+        }
+    }
+
+    private Resultado executar(List<TransactWriteItem> itens, String pecaId) {
+        try {
+            dynamoDbClient.transactWriteItems(TransactWriteItemsRequest.builder()
+                    .transactItems(itens)
+                    .build());
+            return Resultado.SUCESSO;
+        } catch (TransactionCanceledException e) {
+            List<CancellationReason> motivos = e.cancellationReasons();
+            if (motivos.stream().anyMatch(motivo -> "TransactionConflict".equals(motivo.code()))) {
+                throw new ConflitoDeVersaoException(
+                        "Peça " + pecaId + " está sendo alterada por outra requisição", e);
+            }
+            boolean reservaFalhou = condicaoFalhou(motivos, ITEM_RESERVA);
+            CancellationReason peca = condicaoFalhou(motivos, ITEM_PECA) ? motivos.get(ITEM_PECA) : null;
+            if (!reservaFalhou && peca == null) {
+                throw e;
+            }
+            return new Resultado(reservaFalhou, peca);
+        }
+    }
+
+    private static boolean condicaoFalhou(List<CancellationReason> motivos, int item) {
+        return motivos.size() > item && "ConditionalCheckFailed".equals(motivos.get(item).code());
+    }
+
+    private static AttributeValue numero(int valor) {
+        return AttributeValue.builder().n(Integer.toString(valor)).build();
+    }
+
+    private static AttributeValue instanteAtual() {
+        return AttributeValue.builder().s(Instant.now().truncatedTo(ChronoUnit.SECONDS).toString()).build();
+    }
+}
@@ -1,24 +1,48 @@
 package br.com.grupo99.catalogo.adapter.repository;
 
+import br.com.grupo99.catalogo.domain.exception.ConflitoDeVersaoException;
+import br.com.grupo99.catalogo.domain.model.Pagina;
 import br.com.grupo99.catalogo.domain.model.Servico;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbIndex;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.Expression;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.DeleteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
 import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * DynamoDB Repository para Servico.
@@ -30,15 +54,32 @@ import java.util.stream.Collectors;
 public class DynamoDbServicoRepository {
 
     private static final Logger log = LoggerFactory.getLogger(DynamoDbServicoRepository.class);
+    private final DynamoDbClient dynamoDbClient;
     private final DynamoDbTable<Servico> table;
+    private final DynamoDbIndex<Servico> ativoIndex;
+    private final DynamoDbIndex<Servico> atualizacaoIndex;
+    private final CategoriaIndex categoriaIndex;
+    private final DynamoDbBatchLoader<Servico> batchLoader;
+    private final ParallelScanExecutor parallelScan;
+    /** Grava atualizacaoParticao (GSI de alterações) só quando a réplica em memória o consulta. */
+    private final boolean indexarAlteracoes;
 
     public DynamoDbServicoRepository(
+            DynamoDbClient dynamoDbClient,
             DynamoDbEnhancedClient enhancedClient,
-            @Value("${aws.dynamodb.table-prefix:}") String tablePrefix) {
-        String tableName = (tablePrefix != null && !tablePrefix.isBlank())
-                ? tablePrefix + "servicos"
-                : "servicos";
+            ParallelScanExecutor parallelScan,
+            @Value("${aws.dynamodb.table-prefix:}") String tablePrefix,
+            @Value("${catalogo.replica.enabled:false}") boolean indexarAlteracoes) {
+        String prefix = (tablePrefix != null && !tablePrefix.isBlank()) ? tablePrefix : "";
+        String tableName = prefix + "servicos";
+        this.dynamoDbClient = dynamoDbClient;
         this.table = enhancedClient.table(tableName, TableSchema.fromBean(Servico.class));
+        this.ativoIndex = table.index(Servico.INDEX_ATIVO);
+        this.atualizacaoIndex = table.index(Servico.INDEX_ATUALIZACAO);
+        this.categoriaIndex = new CategoriaIndex(enhancedClient, prefix + "servicos-categorias");
+        this.batchLoader = new DynamoDbBatchLoader<>(dynamoDbClient, table);
+        this.parallelScan = parallelScan;
+        this.indexarAlteracoes = indexarAlteracoes;
     }
 
     public Servico save(Servico servico) {
@@ -49,65 +90,340 @@ public class DynamoDbServicoRepository {
             servico.setCreatedAt(LocalDateTime.now());
         }
         servico.setUpdatedAt(LocalDateTime.now());
+        servico.setAtualizacaoParticao(particaoAtualizacao(servico.getId()));
 
-        table.putItem(servico);
+        Servico anterior;
+        try {
+            anterior = table.putItemWithResponse(PutItemEnhancedRequest.builder(Servico.class)
+                    .item(servico)
+                    .returnValues(ReturnValue.ALL_OLD)
+                    .build())
+                    .attributes();
+        } catch (ConditionalCheckFailedException e) {
+            throw new ConflitoDeVersaoException(
+                    "Serviço " + servico.getId() + " foi alterado por outra requisição", e);
+        }
+        servico.setVersion(servico.getVersion() == null ? 1L : servico.getVersion() + 1);
+        categoriaIndex.sincronizar(servico.getId(),
+                anterior != null ? anterior.getCategorias() : null,
+                servico.getCategorias());
         log.debug("Servico salvo: {}", servico.getId());
         return servico;
     }
 
+    /**
+     * Cópia profunda via mapeamento do schema (item -> atributos -> item).
+     */
+    public Servico copiar(Servico servico) {
+        return table.tableSchema().mapToItem(table.tableSchema().itemToMap(servico, true));
+    }
+
     public Optional<Servico> findById(String id) {
         Servico entity = table.getItem(Key.builder().partitionValue(id).build());
         return Optional.ofNullable(entity);
     }
 
+    /**
+     * GetItem com ProjectionExpression: lê apenas os atributos pedidos.
+     * Atributos fora da projeção ficam com o valor padrão do bean e não devem ser usados.
+     */
+    public Optional<Servico> findById(String id, Collection<String> atributos) {
+        Map<String, String> nomes = new HashMap<>();
+        GetItemResponse response = dynamoDbClient.getItem(GetItemRequest.builder()
+                .tableName(table.tableName())
+                .key(UpdateExpressions.chave(id))
+                .projectionExpression(ProjectionExpressions.expressao(atributos, nomes))
+                .expressionAttributeNames(nomes)
+                .build());
+
+        if (!response.hasItem() || response.item().isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(table.tableSchema().mapToItem(response.item()));
+    }
+
+    /**
+     * BatchGetItem em lotes de 100 executados em paralelo; IDs inexistentes são omitidos.
+     */
+    public List<Servico> findAllById(Collection<String> ids) {
+        return batchLoader.carregar(ids);
+    }
+
+    /**
+     * Scan paralelo segmentado da tabela inteira.
+     */
     public List<Servico> findAll() {
-        return table.scan().items().stream().collect(Collectors.toList());
+        return parallelScan.scan(table);
     }
 
-    public List<Servico> findByAtivoTrue() {
-        ScanEnhancedRequest request = ScanEnhancedRequest.builder()
-                .filterExpression(Expression.builder()
-                        .expression("ativo = :ativo")
-                        .putExpressionValue(":ativo", AttributeValue.builder().bool(true).build())
-                        .build())
-                .build();
+    /**
+     * Scan sequencial preguiçoso: cada página é buscada só quando a anterior foi consumida.
+     */
+    public Stream<Servico> streamAll() {
+        return table.scan().items().stream();
+    }
+
+    public Pagina<Servico> findAll(int limite, String cursor) {
+        return findAll(limite, cursor, null);
+    }
+
+    /**
+     * @param atributos atributos projetados; null lê o item completo
+     */
+    public Pagina<Servico> findAll(int limite, String cursor, Collection<String> atributos) {
+        ScanEnhancedRequest.Builder request = ScanEnhancedRequest.builder()
+                .limit(limite)
+                .exclusiveStartKey(CursorCodec.decode(cursor));
+        if (atributos != null) {
+            request.attributesToProject(atributos);
+        }
+
+        Page<Servico> page = table.scan(request.build()).iterator().next();
+        return CursorCodec.paginaDe(page);
+    }
 
-        return table.scan(request).items().stream().collect(Collectors.toList());
+    /**
+     * Itens ativos via GSI esparso: itens inativos não existem no índice
+     * e portanto não consomem leitura.
+     */
+    public List<Servico> findByAtivoTrue() {
+        return queryAtivos(null);
     }
 
+    /**
+     * O GSI de ativos tem nome como sort key: a ordenação vem pronta do DynamoDB.
+     */
     public List<Servico> findByAtivoTrueOrderByNomeAsc() {
-        return findByAtivoTrue().stream()
+        return queryAtivos(null);
+    }
+
+    public Pagina<Servico> findByAtivoTrueOrderByNomeAsc(int limite, String cursor) {
+        return queryAtivos(null, limite, cursor, null);
+    }
+
+    public Pagina<Servico> findByAtivoTrueOrderByNomeAsc(int limite, String cursor, Collection<String> atributos) {
+        return queryAtivos(null, limite, cursor, atributos);
+    }
+
+    /**
+     * Busca por categoria via índice invertido (Query) + BatchGetItem.
+     * Associações obsoletas são descartadas conferindo o item carregado.
+     */
+    public List<Servico> findByCategoriasContainingAndAtivoTrue(String categoria) {
+        return batchLoader.carregar(categoriaIndex.idsPorCategoria(categoria)).stream()
+                .filter(servico -> pertenceACategoriaAtiva(servico, categoria))
                 .sorted(Comparator.comparing(Servico::getNome, Comparator.nullsLast(Comparator.naturalOrder())))
                 .collect(Collectors.toList());
     }
 
-    public List<Servico> findByCategoriasContainingAndAtivoTrue(String categoria) {
-        ScanEnhancedRequest request = ScanEnhancedRequest.builder()
-                .filterExpression(Expression.builder()
-                        .expression("contains(categorias, :cat) AND ativo = :ativo")
-                        .putExpressionValue(":cat", AttributeValue.builder().s(categoria).build())
-                        .putExpressionValue(":ativo", AttributeValue.builder().bool(true).build())
-                        .build())
-                .build();
+    /**
+     * Página da categoria na ordem do índice invertido (por ID). Associações
+     * obsoletas são descartadas, então a página pode ter menos itens que o limite.
+     */
+    public Pagina<Servico> findByCategoriasContainingAndAtivoTrue(String categoria, int limite, String cursor) {
+        Page<CategoriaMembro> membros = categoriaIndex.paginaPorCategoria(categoria, limite,
+                CursorCodec.decode(cursor));
+        List<String> ids = membros.items().stream()
+                .map(CategoriaMembro::getItemId)
+                .collect(Collectors.toList());
+        Map<String, Servico> porId = batchLoader.carregar(ids).stream()
+                .collect(Collectors.toMap(Servico::getId, Function.identity()));
+
+        List<Servico> itens = ids.stream()
+                .map(porId::get)
+                .filter(Objects::nonNull)
+                .filter(servico -> pertenceACategoriaAtiva(servico, categoria))
+                .collect(Collectors.toList());
+        return new Pagina<>(itens, CursorCodec.encode(membros.lastEvaluatedKey()));
+    }
 
-        return table.scan(request).items().stream().collect(Collectors.toList());
+    private static boolean pertenceACategoriaAtiva(Servico servico, String categoria) {
+        return Boolean.TRUE.equals(servico.getAtivo())
+                && servico.getCategorias() != null
+                && servico.getCategorias().contains(categoria);
     }
 
     public List<Servico> findByTempoEstimadoMinutosLessThanEqualAndAtivoTrue(Integer tempoMaximo) {
-        ScanEnhancedRequest request = ScanEnhancedRequest.builder()
-                .filterExpression(Expression.builder()
-                        .expression("tempoEstimadoMinutos <= :tempo AND ativo = :ativo")
-                        .putExpressionValue(":tempo", AttributeValue.builder().n(String.valueOf(tempoMaximo)).build())
+        return queryAtivos(Expression.builder()
+                .expression("tempoEstimadoMinutos <= :tempo")
+                .putExpressionValue(":tempo", AttributeValue.builder().n(String.valueOf(tempoMaximo)).build())
+                .build());
+    }
+
+    private List<Servico> queryAtivos(Expression filter) {
+        return ativoIndex.query(ativosRequest(filter).build()).stream()
+                .flatMap(page -> page.items().stream())
+                .collect(Collectors.toList());
+    }
+
+    private Pagina<Servico> queryAtivos(Expression filter, int limite, String cursor, Collection<String> atributos) {
+        QueryEnhancedRequest.Builder request = ativosRequest(filter)
+                .limit(limite)
+                .exclusiveStartKey(CursorCodec.decode(cursor));
+        if (atributos != null) {
+            request.attributesToProject(atributos);
+        }
+
+        Page<Servico> page = ativoIndex.query(request.build()).iterator().next();
+        return CursorCodec.paginaDe(page);
+    }
+
+    private static QueryEnhancedRequest.Builder ativosRequest(Expression filter) {
+        QueryEnhancedRequest.Builder request = QueryEnhancedRequest.builder()
+                .queryConditional(QueryConditional.keyEqualTo(Key.builder()
+                        .partitionValue(Servico.PARTICAO_ATIVO)
+                        .build()))
+                .scanIndexForward(true);
+        if (filter != null) {
+            request.filterExpression(filter);
+        }
+        return request;
+    }
+
+    /**
+     * Regrava itens ativos anteriores ao GSI esparso para que passem a ter ativoParticao.
+     *
+     * @return quantidade de itens reindexados
+     */
+    public int reindexarAtivos() {
+        AtomicInteger total = new AtomicInteger();
+        parallelScan.forEach(table,
+                request -> request.filterExpression(Expression.builder()
+                        .expression("ativo = :ativo AND attribute_not_exists(ativoParticao)")
                         .putExpressionValue(":ativo", AttributeValue.builder().bool(true).build())
-                        .build())
-                .build();
+                        .build()),
+                servico -> {
+                    try {
+                        servico.setAtualizacaoParticao(particaoAtualizacao(servico.getId()));
+                        table.putItem(servico);
+                        total.incrementAndGet();
+                    } catch (ConditionalCheckFailedException e) {
+                        // Alterado durante o scan: o save concorrente já gravou ativoParticao.
+                    }
+                });
+        return total.get();
+    }
 
-        return table.scan(request).items().stream().collect(Collectors.toList());
+    /**
+     * Itens com updatedAt posterior a {@code desde}, via GSI de alterações: uma Query por
+     * partição (ITEM#0..N-1), sem scan. O GSI é eventualmente consistente: quem consulta
+     * deve usar uma margem de segurança.
+     */
+    public List<Servico> findAlteradosDesde(LocalDateTime desde) {
+        List<Servico> alterados = new ArrayList<>();
+        for (int particao = 0; particao < Servico.PARTICOES_ATUALIZACAO; particao++) {
+            QueryEnhancedRequest request = QueryEnhancedRequest.builder()
+                    .queryConditional(QueryConditional.sortGreaterThan(Key.builder()
+                            .partitionValue(Servico.PARTICAO_ATUALIZACAO + "#" + particao)
+                            .sortValue(desde.toString())
+                            .build()))
+                    .build();
+            atualizacaoIndex.query(request).stream()
+                    .forEach(page -> alterados.addAll(page.items()));
+        }
+        return alterados;
+    }
+
+    /**
+     * Valor de atualizacaoParticao para o ID: nulo (fora do GSI) com a réplica desabilitada.
+     */
+    private String particaoAtualizacao(String id) {
+        return indexarAlteracoes ? Servico.particaoAtualizacao(id) : null;
+    }
+
+    /**
+     * Entrega todos os IDs da tabela (scan paralelo com leitura consistente, só o atributo id).
+     * O consumer é chamado de várias threads.
+     */
+    public void percorrerIds(Consumer<String> consumer) {
+        parallelScan.forEach(table,
+                request -> request.attributesToProject("id").consistentRead(true),
+                servico -> consumer.accept(servico.getId()));
+    }
+
+    /**
+     * Regrava o índice invertido de categorias a partir dos itens existentes.
+     *
+     * @return quantidade de itens reindexados
+     */
+    public int reindexarCategorias() {
+        AtomicInteger total = new AtomicInteger();
+        parallelScan.forEach(table,
+                request -> request.filterExpression(Expression.builder()
+                        .expression("attribute_exists(categorias)")
+                        .build()),
+                servico -> {
+                    categoriaIndex.sincronizar(servico.getId(), null, servico.getCategorias());
+                    total.incrementAndGet();
+                });
+        return total.get();
     }
 
-    public void deleteById(String id) {
-        table.deleteItem(Key.builder().partitionValue(id).build());
+    /**
+     * Atualização parcial em um único UpdateItem: só os atributos alterados trafegam.
+     *
+     * @param alteracoes atributo -> novo valor; null remove o atributo
+     * @return item completo após a alteração, ou vazio se o ID não existir
+     */
+    public Optional<Servico> atualizarCampos(String id, Map<String, Object> alteracoes) {
+        return atualizar(id, alteracoes);
+    }
+
+    /**
+     * Desativação em um único UpdateItem condicional: ativo = false e REMOVE ativoParticao,
+     * o que tira o item do GSI esparso de ativos.
+     *
+     * @return item após a alteração, ou vazio se o ID não existir
+     */
+    public Optional<Servico> desativar(String id) {
+        Map<String, Object> alteracoes = new HashMap<>();
+        alteracoes.put("ativo", false);
+        alteracoes.put("ativoParticao", null);
+        return atualizar(id, alteracoes);
+    }
+
+    /**
+     * UpdateItem com a imagem nova (ALL_NEW), que substitui o item na réplica.
+     */
+    private Optional<Servico> atualizar(String id, Map<String, Object> alteracoes) {
+        UpdateExpressions.Atualizacao atualizacao = UpdateExpressions.atualizacao(id, alteracoes,
+                indexarAlteracoes);
+        try {
+            UpdateItemResponse response = dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(table.tableName())
+                    .key(UpdateExpressions.chave(id))
+                    .updateExpression(atualizacao.expressao())
+                    .conditionExpression("attribute_exists(id)")
+                    .expressionAttributeNames(atualizacao.nomes())
+                    .expressionAttributeValues(atualizacao.valores())
+                    .returnValues(ReturnValue.ALL_NEW)
+                    .build());
+            log.debug("Servico {} atualizado: {}", id, alteracoes.keySet());
+            return Optional.of(table.tableSchema().mapToItem(response.attributes()));
+        } catch (ConditionalCheckFailedException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * DeleteItem condicional (attribute_exists(id)) que devolve o item antigo (ALL_OLD)
+     * para limpar o índice de categorias sem leitura prévia.
+     *
+     * @return false se o ID não existir
+     */
+    public boolean deleteById(String id) {
+        Servico removido;
+        try {
+            removido = table.deleteItem(DeleteItemEnhancedRequest.builder()
+                    .key(Key.builder().partitionValue(id).build())
+                    .conditionExpression(Expression.builder().expression("attribute_exists(id)").build())
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+        categoriaIndex.remover(id, removido.getCategorias());
         log.debug("Servico deletado: {}", id);
+        return true;
     }
 
     public boolean existsById(String id) {
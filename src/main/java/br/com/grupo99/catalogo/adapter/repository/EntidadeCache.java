@@ -0,0 +1,103 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cache read-through por ID (Caffeine: TTL, limite de entradas, despejo W-TinyLFU).
+ * IDs inexistentes ficam no mesmo cache como {@link Optional#empty()}, com TTL curto,
+ * para que buscas repetidas por IDs removidos não voltem ao DynamoDB.
+ *
+ * A ausência é gravada pela própria carga, dentro do compute do Caffeine: uma
+ * invalidação concorrente espera a carga terminar e remove o resultado, então uma
+ * leitura que viu o ID ausente não esconde um item criado logo depois.
+ *
+ * As entidades são mutáveis, então cada leitura devolve uma cópia: quem altera a
+ * entidade antes do save não contamina o cache. Métricas cache.gets/cache.evictions
+ * são publicadas no MeterRegistry com a tag cache=nome.
+ */
+final class EntidadeCache<T> {
+
+    private final Cache<String, Optional<T>> cache;
+    private final UnaryOperator<T> copia;
+
+    EntidadeCache(String nome, Duration ttl, long maxEntradas, Duration ttlAusentes, UnaryOperator<T> copia,
+            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfter(new PorPresenca<T>(ttl, ttlAusentes))
+                .maximumSize(maxEntradas)
+                .recordStats()
+                .build();
+        this.copia = copia;
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, nome);
+    }
+
+    /**
+     * Busca no cache ou carrega; um ID não encontrado fica em cache como ausente.
+     * Uma invalidação concorrente espera a carga em andamento do mesmo ID terminar.
+     */
+    Optional<T> get(String id, Function<String, Optional<T>> carregar) {
+        return cache.get(id, carregar).map(copia);
+    }
+
+    boolean ausente(String id) {
+        Optional<T> valor = cache.getIfPresent(id);
+        return valor != null && valor.isEmpty();
+    }
+
+    Optional<T> getIfPresent(String id) {
+        Optional<T> valor = cache.getIfPresent(id);
+        return valor == null ? Optional.empty() : valor.map(copia);
+    }
+
+    /**
+     * Descarta o item ou a marca de ausente (chamado após qualquer escrita).
+     */
+    void invalidar(String id) {
+        if (id != null) {
+            cache.invalidate(id);
+        }
+    }
+
+    /**
+     * Após um delete: o próximo findById responde vazio sem ir ao DynamoDB.
+     */
+    void marcarAusente(String id) {
+        cache.put(id, Optional.empty());
+    }
+
+    /** TTL por entrada: o de itens presentes ou o (mais curto) de ausentes, contado da escrita. */
+    private static final class PorPresenca<T> implements Expiry<String, Optional<T>> {
+
+        private final long ttlNanos;
+        private final long ttlAusentesNanos;
+
+        PorPresenca(Duration ttl, Duration ttlAusentes) {
+            this.ttlNanos = ttl.toNanos();
+            this.ttlAusentesNanos = ttlAusentes.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String id, Optional<T> valor, long agora) {
+            return valor.isPresent() ? ttlNanos : ttlAusentesNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String id, Optional<T> valor, long agora, long restante) {
+            return expireAfterCreate(id, valor, agora);
+        }
+
+        @Override
+        public long expireAfterRead(String id, Optional<T> valor, long agora, long restante) {
+            return restante;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+
+/**
+ * Escrita de estoque recusada pelo item da peça porque a peça é fragmentada. A
+ * quantidade de fragmentos vem da imagem antiga devolvida pela condição que falhou,
+ * para o chamador seguir pelo caminho fragmentado sem ler a peça.
+ */
+final class EstoqueFragmentadoException extends RuntimeException {
+
+    /** Condição das escritas que só valem para peças não fragmentadas (usa ":um"). */
+    static final String NAO_FRAGMENTADA = "(attribute_not_exists(fragmentosEstoque) OR fragmentosEstoque <= :um)";
+
+    private final int fragmentos;
+
+    EstoqueFragmentadoException(String pecaId, int fragmentos) {
+        super("Peça " + pecaId + " tem o estoque em " + fragmentos + " fragmentos");
+        this.fragmentos = fragmentos;
+    }
+
+    int fragmentos() {
+        return fragmentos;
+    }
+
+    /**
+     * Fragmentos na imagem antiga do item (ReturnValuesOnConditionCheckFailure.ALL_OLD);
+     * 1 se a peça não é fragmentada.
+     */
+    static int fragmentosDe(Map<String, AttributeValue> imagemAntiga) {
+        AttributeValue fragmentos = imagemAntiga.get("fragmentosEstoque");
+        if (fragmentos == null || fragmentos.n() == null) {
+            return 1;
+        }
+        return Math.max(1, Integer.parseInt(fragmentos.n()));
+    }
+}
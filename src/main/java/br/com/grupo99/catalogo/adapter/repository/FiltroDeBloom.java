@@ -0,0 +1,68 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom thread-safe para IDs: {@link #podeConter} nunca dá falso negativo;
+ * falsos positivos ocorrem na taxa configurada enquanto o número de IDs não passar
+ * do esperado (acima disso a taxa sobe, mas continua sem falso negativo).
+ */
+final class FiltroDeBloom {
+
+    private final AtomicLongArray bits;
+    private final long totalBits;
+    private final int funcoes;
+
+    FiltroDeBloom(long esperados, double taxaFalsoPositivo) {
+        if (esperados < 1 || taxaFalsoPositivo <= 0 || taxaFalsoPositivo >= 1) {
+            throw new IllegalArgumentException("Parâmetros inválidos para o filtro de Bloom");
+        }
+        long m = (long) Math.ceil(-esperados * Math.log(taxaFalsoPositivo) / (Math.log(2) * Math.log(2)));
+        this.totalBits = Math.max(64, m);
+        this.bits = new AtomicLongArray(Math.toIntExact((totalBits + 63) / 64));
+        this.funcoes = Math.max(1, (int) Math.round((double) totalBits / esperados * Math.log(2)));
+    }
+
+    void adicionar(String id) {
+        long h1 = fnv1a(id);
+        long h2 = misturar(h1) | 1;
+        for (int i = 0; i < funcoes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, totalBits);
+            int palavra = (int) (bit >>> 6);
+            long mascara = 1L << bit;
+            long atual;
+            do {
+                atual = bits.get(palavra);
+            } while ((atual & mascara) == 0 && !bits.compareAndSet(palavra, atual, atual | mascara));
+        }
+    }
+
+    boolean podeConter(String id) {
+        long h1 = fnv1a(id);
+        long h2 = misturar(h1) | 1;
+        for (int i = 0; i < funcoes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, totalBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long fnv1a(String valor) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : valor.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /** Finalizador do SplitMix64, usado como segundo hash independente. */
+    private static long misturar(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,49 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+
+/**
+ * Fragmento de estoque de uma peça com contador fragmentado (tabela pecas-estoque).
+ *
+ * O ID é "pecaId#n" (n de 1 a fragmentosEstoque - 1; o fragmento 0 é o próprio item
+ * da peça), para que cada fragmento caia numa partition key diferente.
+ */
+@DynamoDbBean
+public class FragmentoEstoque {
+
+    private String id;
+
+    private String pecaId;
+
+    private Integer quantidade;
+
+    static String id(String pecaId, int fragmento) {
+        return pecaId + "#" + fragmento;
+    }
+
+    @DynamoDbPartitionKey
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getPecaId() {
+        return pecaId;
+    }
+
+    public void setPecaId(String pecaId) {
+        this.pecaId = pecaId;
+    }
+
+    public Integer getQuantidade() {
+        return quantidade;
+    }
+
+    public void setQuantidade(Integer quantidade) {
+        this.quantidade = quantidade;
+    }
+}
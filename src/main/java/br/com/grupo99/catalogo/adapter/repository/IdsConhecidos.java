@@ -0,0 +1,69 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import java.util.function.Consumer;
+
+/**
+ * Conjunto aproximado (filtro de Bloom) dos IDs existentes em uma tabela, para
+ * responder "certamente não existe" sem ir ao DynamoDB.
+ *
+ * Enquanto não for reconstruído a partir de um scan, não rejeita nenhum ID. Depois,
+ * aprende os IDs gravados por esta instância ({@link #registrar}) e os gravados pelas
+ * outras pela sincronização da réplica (change feed), e é reconstruído a cada carga
+ * completa dela, o que também descarta os IDs removidos. Um ID criado em outra
+ * instância só é rejeitado aqui até a próxima sincronização (catalogo.replica.intervalo);
+ * por isso o filtro exige catalogo.replica.enabled (ver {@link IdsConhecidosStartup}).
+ */
+final class IdsConhecidos {
+
+    private final long esperados;
+    private final double taxaFalsoPositivo;
+
+    private volatile FiltroDeBloom filtro;
+    private volatile FiltroDeBloom emConstrucao;
+
+    IdsConhecidos(long esperados, double taxaFalsoPositivo) {
+        this.esperados = esperados;
+        this.taxaFalsoPositivo = taxaFalsoPositivo;
+    }
+
+    boolean ativo() {
+        return filtro != null;
+    }
+
+    boolean certamenteAusente(String id) {
+        FiltroDeBloom atual = filtro;
+        return atual != null && !atual.podeConter(id);
+    }
+
+    /**
+     * Chamado depois de gravar o item ou de vê-lo no change feed. Lê o filtro em construção antes do ativo para
+     * não perder IDs gravados durante a troca.
+     */
+    void registrar(String id) {
+        FiltroDeBloom novo = emConstrucao;
+        if (novo != null) {
+            novo.adicionar(id);
+        }
+        FiltroDeBloom atual = filtro;
+        if (atual != null) {
+            atual.adicionar(id);
+        }
+    }
+
+    /**
+     * Monta um filtro novo percorrendo todos os IDs e só então o ativa. IDs gravados
+     * durante o scan entram pelo {@link #registrar}.
+     *
+     * @param percorrerIds entrega cada ID existente ao consumer (pode ser de várias threads)
+     */
+    synchronized void reconstruir(Consumer<Consumer<String>> percorrerIds) {
+        FiltroDeBloom novo = new FiltroDeBloom(esperados, taxaFalsoPositivo);
+        emConstrucao = novo;
+        try {
+            percorrerIds.accept(novo::adicionar);
+            filtro = novo;
+        } finally {
+            emConstrucao = null;
+        }
+    }
+}
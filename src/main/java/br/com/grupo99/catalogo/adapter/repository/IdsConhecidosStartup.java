@@ -0,0 +1,56 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reconstrói os filtros de IDs conhecidos a partir de um scan (só o atributo id)
+ * quando catalogo.ids-conhecidos.enabled=true. Se falhar, os filtros seguem
+ * desligados e toda busca vai ao DynamoDB.
+ *
+ * Os IDs criados em outras instâncias chegam aos filtros pela sincronização da
+ * réplica; sem catalogo.replica.enabled eles seriam rejeitados até o próximo
+ * restart, então os filtros ficam desligados.
+ */
+@Component
+public class IdsConhecidosStartup {
+
+    private static final Logger log = LoggerFactory.getLogger(IdsConhecidosStartup.class);
+
+    private final PecaRepositoryAdapter pecaRepository;
+    private final ServicoRepositoryAdapter servicoRepository;
+    private final boolean habilitado;
+    private final boolean replicaHabilitada;
+
+    public IdsConhecidosStartup(PecaRepositoryAdapter pecaRepository,
+            ServicoRepositoryAdapter servicoRepository,
+            @Value("${catalogo.ids-conhecidos.enabled:false}") boolean habilitado,
+            @Value("${catalogo.replica.enabled:false}") boolean replicaHabilitada) {
+        this.pecaRepository = pecaRepository;
+        this.servicoRepository = servicoRepository;
+        this.habilitado = habilitado;
+        this.replicaHabilitada = replicaHabilitada;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void executar() {
+        if (!habilitado) {
+            return;
+        }
+        if (!replicaHabilitada) {
+            log.warn("Filtros de IDs conhecidos desligados: exigem catalogo.replica.enabled=true");
+            return;
+        }
+        try {
+            pecaRepository.reconstruirIdsConhecidos();
+            servicoRepository.reconstruirIdsConhecidos();
+            log.info("✅ Filtros de IDs conhecidos carregados");
+        } catch (RuntimeException e) {
+            log.warn("Filtros de IDs conhecidos desligados: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Write-behind de entradas de estoque: soma em memória os incrementos por ID e grava
+ * um único ADD por ID a cada intervalo, ou antes quando o número de IDs pendentes
+ * chega ao limite. Uma entrega com centenas de incrementos na mesma peça vira uma
+ * escrita por descarga.
+ *
+ * A remoção de cada ID do mapa é atômica (remove): um incremento que chega durante a
+ * descarga cria uma nova entrada e sai na próxima. Falhas transitórias do DynamoDB
+ * (throttling, 5xx, rede e timeouts) devolvem o delta ao mapa; as demais (peça
+ * removida, ValidationException) descartam o delta e contam como falha, para um
+ * delta que nunca vai passar não travar o ID. {@link #encerrar()} para o agendamento
+ * e descarrega tudo. As descargas são serializadas por um lock: a do encerramento
+ * espera uma periódica que ainda esteja rodando.
+ *
+ * Acumular e encerrar compartilham um ReadWriteLock: os acúmulos seguram a leitura
+ * (não se bloqueiam entre si) e o encerramento pega a escrita só para virar a
+ * chave. Todo delta acumulado antes disso entra na descarga final; os posteriores
+ * são gravados direto, sem passar pelo mapa.
+ *
+ * Métricas: catalogo.estoque.write-behind.descarga (Timer), .pecas (IDs por descarga),
+ * .incrementos, .falhas e .pendentes.
+ */
+final class IncrementosAcumulados {
+
+    private static final Logger log = LoggerFactory.getLogger(IncrementosAcumulados.class);
+
+    private static final String METRICA = "catalogo.estoque.write-behind";
+
+    private static final int TENTATIVAS_NO_ENCERRAMENTO = 3;
+
+    private final Map<String, Integer> pendentes = new ConcurrentHashMap<>();
+    private final BiConsumer<String, Integer> gravar;
+    private final int maxPendentes;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean descargaAgendada = new AtomicBoolean();
+    private final Lock descarga = new ReentrantLock();
+    private final ReadWriteLock encerramento = new ReentrantReadWriteLock();
+    /** Guardado por {@link #encerramento}. */
+    private boolean encerrado;
+    private final Timer descargas;
+    private final DistributionSummary pecasPorDescarga;
+    private final Counter incrementos;
+    private final Counter falhas;
+
+    IncrementosAcumulados(Duration intervalo, int maxPendentes, BiConsumer<String, Integer> gravar,
+            MeterRegistry meterRegistry) {
+        this.gravar = gravar;
+        this.maxPendentes = maxPendentes;
+        this.descargas = Timer.builder(METRICA + ".descarga").register(meterRegistry);
+        this.pecasPorDescarga = DistributionSummary.builder(METRICA + ".pecas").register(meterRegistry);
+        this.incrementos = Counter.builder(METRICA + ".incrementos").register(meterRegistry);
+        this.falhas = Counter.builder(METRICA + ".falhas").register(meterRegistry);
+        meterRegistry.gaugeMapSize(METRICA + ".pendentes", Tags.empty(), pendentes);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalogo-estoque-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Mesma thread para as descargas periódicas e por limite: nunca rodam em paralelo.
+        executor.scheduleWithFixedDelay(this::descarregar, intervalo.toMillis(), intervalo.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    void acumular(String id, int quantidade) {
+        encerramento.readLock().lock();
+        try {
+            if (!encerrado) {
+                pendentes.merge(id, quantidade, Integer::sum);
+                incrementos.increment();
+                if (pendentes.size() >= maxPendentes && descargaAgendada.compareAndSet(false, true)) {
+                    executor.execute(this::descarregar);
+                }
+                return;
+            }
+        } finally {
+            encerramento.readLock().unlock();
+        }
+        // Encerrado: a descarga final pode já ter passado, então grava direto.
+        gravar.accept(id, quantidade);
+    }
+
+    /**
+     * Grava um ADD por ID pendente.
+     *
+     * @return quantidade de IDs gravados
+     */
+    int descarregar() {
+        descarga.lock();
+        try {
+            return descarregarPendentes();
+        } finally {
+            descarga.unlock();
+        }
+    }
+
+    private int descarregarPendentes() {
+        descargaAgendada.set(false);
+        if (pendentes.isEmpty()) {
+            return 0;
+        }
+        return descargas.record(() -> {
+            int gravados = 0;
+            for (String id : new ArrayList<>(pendentes.keySet())) {
+                Integer delta = pendentes.remove(id);
+                if (delta == null || delta == 0) {
+                    continue;
+                }
+                try {
+                    gravar.accept(id, delta);
+                    gravados++;
+                } catch (RuntimeException e) {
+                    falhas.increment();
+                    if (transitoria(e)) {
+                        pendentes.merge(id, delta, Integer::sum);
+                        log.warn("Entrada de {} na peça {} adiada para a próxima descarga: {}", delta, id,
+                                e.getMessage());
+                    } else {
+                        log.warn("Entrada de {} na peça {} descartada: {}", delta, id, e.getMessage());
+                    }
+                }
+            }
+            pecasPorDescarga.record(gravados);
+            return gravados;
+        });
+    }
+
+    /**
+     * Throttling, erro 5xx do serviço ou falha do lado do cliente (rede, timeouts).
+     */
+    static boolean transitoria(RuntimeException e) {
+        if (e instanceof SdkServiceException servico) {
+            return servico.isThrottlingException() || servico.statusCode() >= 500;
+        }
+        return e instanceof SdkClientException;
+    }
+
+    /**
+     * Para o agendamento e descarrega o que restou (chamado no shutdown), repetindo
+     * algumas vezes os deltas adiados por falha do DynamoDB.
+     */
+    void encerrar() {
+        encerramento.writeLock().lock();
+        try {
+            encerrado = true;
+        } finally {
+            encerramento.writeLock().unlock();
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Descarga do write-behind ainda em andamento; a final espera por ela");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int gravados = 0;
+        for (int tentativa = 0; tentativa < TENTATIVAS_NO_ENCERRAMENTO && !pendentes.isEmpty(); tentativa++) {
+            gravados += descarregar();
+        }
+        if (!pendentes.isEmpty()) {
+            log.error("Write-behind encerrado com {} peça(s) sem gravar: {}", pendentes.size(), pendentes);
+        } else if (gravados > 0) {
+            log.info("Write-behind descarregado no encerramento: {} peça(s)", gravados);
+        }
+    }
+}
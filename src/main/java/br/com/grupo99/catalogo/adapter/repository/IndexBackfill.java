@@ -0,0 +1,60 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backfill dos índices mantidos pela aplicação.
+ *
+ * Itens gravados antes dos índices ficariam fora das consultas:
+ * - aws.dynamodb.backfill-ativo-index=true: grava ativoParticao nos itens ativos
+ * - aws.dynamodb.backfill-categoria-index=true: grava o índice invertido de categorias
+ * - aws.dynamodb.migrar-especificacoes=true: converte especificacoes de JSON string para mapa nativo
+ *
+ * Habilitar uma única vez após o deploy.
+ */
+@Component
+public class IndexBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(IndexBackfill.class);
+
+    private final DynamoDbPecaRepository pecaRepository;
+    private final DynamoDbServicoRepository servicoRepository;
+    private final boolean ativoIndex;
+    private final boolean categoriaIndex;
+    private final boolean especificacoes;
+
+    public IndexBackfill(DynamoDbPecaRepository pecaRepository,
+            DynamoDbServicoRepository servicoRepository,
+            @Value("${aws.dynamodb.backfill-ativo-index:false}") boolean ativoIndex,
+            @Value("${aws.dynamodb.backfill-categoria-index:false}") boolean categoriaIndex,
+            @Value("${aws.dynamodb.migrar-especificacoes:false}") boolean especificacoes) {
+        this.pecaRepository = pecaRepository;
+        this.servicoRepository = servicoRepository;
+        this.ativoIndex = ativoIndex;
+        this.categoriaIndex = categoriaIndex;
+        this.especificacoes = especificacoes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void executar() {
+        if (ativoIndex) {
+            int pecas = pecaRepository.reindexarAtivos();
+            int servicos = servicoRepository.reindexarAtivos();
+            log.info("✅ Backfill do índice de ativos: {} peças, {} serviços", pecas, servicos);
+        }
+        if (categoriaIndex) {
+            int pecas = pecaRepository.reindexarCategorias();
+            int servicos = servicoRepository.reindexarCategorias();
+            log.info("✅ Backfill do índice de categorias: {} peças, {} serviços", pecas, servicos);
+        }
+        if (especificacoes) {
+            int pecas = pecaRepository.migrarEspecificacoes();
+            log.info("✅ Especificações migradas para mapa nativo: {} peças", pecas);
+        }
+    }
+}
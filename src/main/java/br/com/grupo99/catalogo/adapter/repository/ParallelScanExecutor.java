@@ -0,0 +1,121 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * Scan paralelo do DynamoDB (Segment/TotalSegments) executado em virtual threads.
+ *
+ * Cada segmento percorre suas páginas em sequência; o semáforo limita quantos
+ * segmentos têm requisição em andamento ao mesmo tempo, protegendo a capacidade
+ * da tabela.
+ */
+@Component
+public class ParallelScanExecutor {
+
+    private final int segmentos;
+    private final int maxEmAndamento;
+
+    public ParallelScanExecutor(
+            @Value("${aws.dynamodb.parallel-scan.segments:8}") int segmentos,
+            @Value("${aws.dynamodb.parallel-scan.max-in-flight:4}") int maxEmAndamento) {
+        if (segmentos < 1 || maxEmAndamento < 1) {
+            throw new IllegalArgumentException("Segmentos e requisições simultâneas devem ser positivos");
+        }
+        this.segmentos = segmentos;
+        this.maxEmAndamento = maxEmAndamento;
+    }
+
+    /**
+     * Lê a tabela inteira e devolve os itens na ordem dos segmentos.
+     */
+    public <T> List<T> scan(DynamoDbTable<T> table) {
+        return scan(table, request -> {
+        });
+    }
+
+    /**
+     * Lê a tabela aplicando filtro/projeção definidos em {@code customizer}.
+     */
+    public <T> List<T> scan(DynamoDbTable<T> table, Consumer<ScanEnhancedRequest.Builder> customizer) {
+        List<List<T>> porSegmento = new ArrayList<>(segmentos);
+        for (int i = 0; i < segmentos; i++) {
+            porSegmento.add(new ArrayList<>());
+        }
+
+        executar(table, customizer, (segmento, item) -> porSegmento.get(segmento).add(item));
+
+        List<T> result = new ArrayList<>();
+        porSegmento.forEach(result::addAll);
+        return result;
+    }
+
+    /**
+     * Entrega cada item ao consumer à medida que as páginas chegam, sem acumular a tabela.
+     * O consumer é chamado de várias threads e deve ser thread-safe.
+     */
+    public <T> void forEach(DynamoDbTable<T> table, Consumer<ScanEnhancedRequest.Builder> customizer,
+            Consumer<T> consumer) {
+        executar(table, customizer, (segmento, item) -> consumer.accept(item));
+    }
+
+    private <T> void executar(DynamoDbTable<T> table, Consumer<ScanEnhancedRequest.Builder> customizer,
+            SegmentoConsumer<T> consumer) {
+        Semaphore emAndamento = new Semaphore(maxEmAndamento);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(segmentos);
+            for (int segmento = 0; segmento < segmentos; segmento++) {
+                int atual = segmento;
+                futures.add(executor.submit(() -> {
+                    emAndamento.acquire();
+                    try {
+                        ScanEnhancedRequest.Builder request = ScanEnhancedRequest.builder()
+                                .segment(atual)
+                                .totalSegments(segmentos);
+                        customizer.accept(request);
+                        table.scan(request.build()).items().forEach(item -> consumer.accept(atual, item));
+                    } finally {
+                        emAndamento.release();
+                    }
+                    return null;
+                }));
+            }
+            aguardar(futures);
+        }
+    }
+
+    private static void aguardar(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                throw new IllegalStateException("Scan paralelo interrompido", e);
+            } catch (ExecutionException e) {
+                futures.forEach(f -> f.cancel(true));
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException("Falha no scan paralelo", e.getCause());
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface SegmentoConsumer<T> {
+        void accept(int segmento, T item);
+    }
+}
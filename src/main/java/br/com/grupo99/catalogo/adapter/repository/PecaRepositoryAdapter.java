@@ -1,11 +1,31 @@
 package br.com.grupo99.catalogo.adapter.repository;
 
+import br.com.grupo99.catalogo.application.service.GeracaoCatalogo;
+import br.com.grupo99.catalogo.domain.exception.ConflitoDeVersaoException;
+import br.com.grupo99.catalogo.domain.model.Pagina;
 import br.com.grupo99.catalogo.domain.model.Peca;
+import br.com.grupo99.catalogo.domain.model.Reserva;
 import br.com.grupo99.catalogo.domain.repository.PecaRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Adapter que implementa PecaRepository (domínio) usando DynamoDB.
@@ -14,6 +34,16 @@ import java.util.Optional;
  * - Implementa interface de domínio: PecaRepository
  * - Delega para DynamoDB: DynamoDbPecaRepository
  * - Isolamento de framework em adapter layer
+ * - Cache read-through de findById, invalidado em toda escrita
+ * - Leituras idênticas concorrentes compartilham uma única chamada (SingleFlight)
+ * - IDs ausentes: cache negativo e filtro de Bloom opcional (IdsConhecidos)
+ * - Listas e buscas servidas pela réplica em memória quando habilitada (CatalogoReplica)
+ * - Toda escrita avança a GeracaoCatalogo (ETag das coleções)
+ * - Peças com contador fragmentado: escritas de estoque roteadas sem leitura prévia para
+ *   um fragmento sorteado e leituras com a soma dos fragmentos (DynamoDbEstoqueFragmentado)
+ * - Réplica atualizada com a imagem gravada (ALL_NEW); escritas em transação chegam a ela
+ *   pela sincronização
+ * - Entradas de estoque opcionalmente acumuladas em write-behind (IncrementosAcumulados)
  * 
  * Migrado de MongoDB/DocumentDB para DynamoDB
  */
@@ -21,58 +51,618 @@ import java.util.Optional;
 public class PecaRepositoryAdapter implements PecaRepository {
 
     private final DynamoDbPecaRepository dynamoDbRepository;
+    private final DynamoDbReservaRepository reservaRepository;
+    private final DynamoDbEstoqueFragmentado estoqueFragmentado;
+    private final EntidadeCache<Peca> cache;
+    private final IdsConhecidos idsConhecidos;
+    private final CatalogoReplica<Peca> replica;
+    private final GeracaoCatalogo geracao;
+    private final SingleFlight singleFlight = new SingleFlight();
+    /** Nulo com catalogo.estoque.write-behind.enabled=false. */
+    private final IncrementosAcumulados incrementosAcumulados;
 
-    public PecaRepositoryAdapter(DynamoDbPecaRepository dynamoDbRepository) {
+    public PecaRepositoryAdapter(
+            DynamoDbPecaRepository dynamoDbRepository,
+            DynamoDbReservaRepository reservaRepository,
+            DynamoDbEstoqueFragmentado estoqueFragmentado,
+            GeracaoCatalogo geracao,
+            MeterRegistry meterRegistry,
+            @Value("${catalogo.cache.ttl:60s}") Duration cacheTtl,
+            @Value("${catalogo.cache.max-entries:10000}") long cacheMaxEntries,
+            @Value("${catalogo.cache.negative-ttl:10s}") Duration cacheTtlAusentes,
+            @Value("${catalogo.ids-conhecidos.esperados:100000}") long idsEsperados,
+            @Value("${catalogo.ids-conhecidos.taxa-falso-positivo:0.01}") double taxaFalsoPositivo,
+            @Value("${catalogo.estoque.write-behind.enabled:false}") boolean writeBehind,
+            @Value("${catalogo.estoque.write-behind.intervalo:500ms}") Duration intervaloWriteBehind,
+            @Value("${catalogo.estoque.write-behind.max-pendentes:1000}") int maxPendentesWriteBehind) {
         this.dynamoDbRepository = dynamoDbRepository;
+        this.reservaRepository = reservaRepository;
+        this.estoqueFragmentado = estoqueFragmentado;
+        this.geracao = geracao;
+        this.cache = new EntidadeCache<>("pecas", cacheTtl, cacheMaxEntries, cacheTtlAusentes,
+                dynamoDbRepository::copiar, meterRegistry);
+        this.idsConhecidos = new IdsConhecidos(idsEsperados, taxaFalsoPositivo);
+        this.replica = new CatalogoReplica<>(Peca::getId, Peca::getNome,
+                peca -> Boolean.TRUE.equals(peca.getAtivo()), Peca::getUpdatedAt, Peca::getVersion,
+                dynamoDbRepository::copiar, Peca.PARTICAO_ATIVO, Peca::getCodigoFabricante);
+        this.incrementosAcumulados = writeBehind
+                ? new IncrementosAcumulados(intervaloWriteBehind, maxPendentesWriteBehind,
+                        this::gravarIncremento, meterRegistry)
+                : null;
     }
 
+    /**
+     * Grava as entradas de estoque ainda acumuladas antes de o cliente DynamoDB fechar.
+     */
+    @PreDestroy
+    public void encerrar() {
+        if (incrementosAcumulados != null) {
+            incrementosAcumulados.encerrar();
+        }
+    }
+
+    /**
+     * Carrega o filtro de IDs conhecidos a partir de um scan; ver {@link IdsConhecidosStartup}.
+     */
+    public void reconstruirIdsConhecidos() {
+        idsConhecidos.reconstruir(dynamoDbRepository::percorrerIds);
+    }
+
+    /**
+     * Carga completa da réplica em memória (scan paralelo); ver {@link ReplicaSincronizador}.
+     *
+     * @return quantidade de itens carregados
+     */
+    public int carregarReplica() {
+        List<Peca> pecas = dynamoDbRepository.findAll();
+        replica.carregar(pecas);
+        if (idsConhecidos.ativo()) {
+            // A carga completa já percorre todos os IDs: reconstrói o filtro sem outro scan.
+            idsConhecidos.reconstruir(consumer -> pecas.forEach(item -> consumer.accept(item.getId())));
+        }
+        geracao.avancar();
+        return replica.tamanho();
+    }
+
+    /**
+     * Aplica na réplica os itens alterados desde a marca d'água, recuando {@code margem}
+     * para cobrir a consistência eventual do GSI e escritas lentas.
+     *
+     * @return quantidade de itens aplicados (alterações ainda não vistas por esta instância)
+     */
+    public int sincronizarReplica(Duration margem) {
+        if (!replica.pronta()) {
+            return 0;
+        }
+        LocalDateTime desde = replica.marcaDagua().orElse(LocalDateTime.of(1970, 1, 1, 0, 0)).minus(margem);
+        List<Peca> alterados = dynamoDbRepository.findAlteradosDesde(desde);
+        // IDs criados em outras instâncias chegam ao filtro por aqui.
+        alterados.forEach(item -> idsConhecidos.registrar(item.getId()));
+        int aplicados = replica.aplicar(alterados);
+        if (aplicados > 0) {
+            geracao.avancar();
+        }
+        return aplicados;
+    }
+
+    /**
+     * Numa peça fragmentada a quantidade recebida é o total: vai inteira para o item da
+     * peça, na mesma transação que zera os fragmentos condicionados ao saldo lido.
+     */
     @Override
     public Peca save(Peca peca) {
-        return dynamoDbRepository.save(peca);
+        boolean fragmentada = DynamoDbEstoqueFragmentado.fragmentosDe(peca) > 1 && peca.getQuantidade() != null;
+        try {
+            Peca salva;
+            if (fragmentada) {
+                validarTotal(peca.getQuantidade());
+                salva = dynamoDbRepository.save(peca, estoqueFragmentado.zeragem(peca.getId(), null));
+            } else {
+                salva = dynamoDbRepository.save(peca);
+            }
+            idsConhecidos.registrar(salva.getId());
+            replica.registrar(salva);
+            return salva;
+        } finally {
+            if (fragmentada) {
+                estoqueFragmentado.invalidarSoma(peca.getId());
+            }
+            cache.invalidar(peca.getId());
+            geracao.avancar();
+        }
     }
 
     @Override
     public Optional<Peca> findById(String id) {
-        return dynamoDbRepository.findById(id);
+        if (idsConhecidos.certamenteAusente(id)) {
+            return Optional.empty();
+        }
+        return cache.get(id, dynamoDbRepository::findById).map(this::comEstoqueTotal);
+    }
+
+    @Override
+    public Optional<Peca> findById(String id, Set<String> atributos) {
+        if (idsConhecidos.certamenteAusente(id) || cache.ausente(id)) {
+            return Optional.empty();
+        }
+        Set<String> projecao = comFragmentos(atributos);
+        // O item completo em cache atende qualquer projeção.
+        return cache.getIfPresent(id).or(() -> singleFlight.executar(Arrays.asList("findById", id, projecao),
+                () -> dynamoDbRepository.findById(id, projecao))).map(this::comEstoqueTotal);
     }
 
     @Override
     public List<Peca> findByAtivoTrue() {
-        return dynamoDbRepository.findByAtivoTrue();
+        if (replica.pronta()) {
+            return comEstoqueTotal(replica.ativos(item -> true));
+        }
+        return comEstoqueTotal(singleFlight.executar(Arrays.asList("findByAtivoTrue"),
+                () -> dynamoDbRepository.findByAtivoTrue()));
     }
 
     @Override
     public List<Peca> findByAtivoTrueOrderByNomeAsc() {
-        return dynamoDbRepository.findByAtivoTrueOrderByNomeAsc();
+        if (replica.pronta()) {
+            return comEstoqueTotal(replica.ativos(item -> true));
+        }
+        return comEstoqueTotal(singleFlight.executar(Arrays.asList("findByAtivoTrueOrderByNomeAsc"),
+                () -> dynamoDbRepository.findByAtivoTrueOrderByNomeAsc()));
+    }
+
+    @Override
+    public Pagina<Peca> findByAtivoTrueOrderByNomeAsc(int limite, String cursor) {
+        if (replica.pronta()) {
+            return replica.paginaAtivos(item -> true, limite, cursor).map(this::comEstoqueTotal);
+        }
+        return singleFlight.executar(Arrays.asList("findByAtivoTrueOrderByNomeAsc", limite, cursor),
+                () -> dynamoDbRepository.findByAtivoTrueOrderByNomeAsc(limite, cursor)).map(this::comEstoqueTotal);
+    }
+
+    @Override
+    public Pagina<Peca> findByAtivoTrueOrderByNomeAsc(int limite, String cursor, Set<String> atributos) {
+        if (replica.pronta()) {
+            return replica.paginaAtivos(item -> true, limite, cursor).map(this::comEstoqueTotal);
+        }
+        Set<String> projecao = comFragmentos(atributos);
+        return singleFlight.executar(Arrays.asList("findByAtivoTrueOrderByNomeAsc", limite, cursor, projecao),
+                () -> dynamoDbRepository.findByAtivoTrueOrderByNomeAsc(limite, cursor, projecao))
+                .map(this::comEstoqueTotal);
     }
 
     @Override
     public Optional<Peca> findByCodigoFabricante(String codigoFabricante) {
-        return dynamoDbRepository.findByCodigoFabricante(codigoFabricante);
+        if (replica.pronta()) {
+            return replica.porChaveUnica(codigoFabricante).map(this::comEstoqueTotal);
+        }
+        return singleFlight.executar(Arrays.asList("findByCodigoFabricante", codigoFabricante),
+                () -> dynamoDbRepository.findByCodigoFabricante(codigoFabricante)).map(this::comEstoqueTotal);
+    }
+
+    @Override
+    public List<Peca> findAllById(Collection<String> ids) {
+        return comEstoqueTotal(dynamoDbRepository.findAllById(ids));
     }
 
     @Override
     public List<Peca> findAll() {
-        return dynamoDbRepository.findAll();
+        if (replica.pronta()) {
+            return comEstoqueTotal(new ArrayList<>(replica.todos()));
+        }
+        return comEstoqueTotal(singleFlight.executar(Arrays.asList("findAll"),
+                () -> dynamoDbRepository.findAll()));
+    }
+
+    @Override
+    public Pagina<Peca> findAll(int limite, String cursor) {
+        return singleFlight.executar(Arrays.asList("findAll", limite, cursor),
+                () -> dynamoDbRepository.findAll(limite, cursor)).map(this::comEstoqueTotal);
     }
 
     @Override
-    public void deleteById(String id) {
-        dynamoDbRepository.deleteById(id);
+    public Pagina<Peca> findAll(int limite, String cursor, Set<String> atributos) {
+        Set<String> projecao = comFragmentos(atributos);
+        return singleFlight.executar(Arrays.asList("findAll", limite, cursor, projecao),
+                () -> dynamoDbRepository.findAll(limite, cursor, projecao)).map(this::comEstoqueTotal);
+    }
+
+    @Override
+    public Stream<Peca> streamAll() {
+        return dynamoDbRepository.streamAll().map(this::comEstoqueTotal);
+    }
+
+    /**
+     * Uma quantidade numa peça fragmentada é o total: o item recusa a escrita simples
+     * (EstoqueFragmentadoException) e ela é refeita numa transação que zera os fragmentos.
+     */
+    @Override
+    public Optional<Peca> atualizarCampos(String id, Map<String, Object> alteracoes) {
+        try {
+            Optional<Peca> atualizada;
+            try {
+                atualizada = dynamoDbRepository.atualizarCampos(id, alteracoes);
+            } catch (EstoqueFragmentadoException e) {
+                estoqueFragmentado.registrarFragmentos(id, e.fragmentos());
+                validarTotal(((Number) alteracoes.get("quantidade")).intValue());
+                try {
+                    atualizada = dynamoDbRepository.atualizarCampos(id, alteracoes,
+                            estoqueFragmentado.zeragem(id, null));
+                } finally {
+                    estoqueFragmentado.invalidarSoma(id);
+                }
+            }
+            atualizada.ifPresent(replica::registrar);
+            return atualizada.map(this::comEstoqueTotal);
+        } finally {
+            cache.invalidar(id);
+            geracao.avancar();
+        }
+    }
+
+    /**
+     * O total de uma peça fragmentada fica inteiro no item da peça: não pode ser negativo,
+     * ou o item aceitaria baixas sem saldo enquanto os fragmentos zerados não têm nada.
+     */
+    private static void validarTotal(int total) {
+        if (total < 0) {
+            throw new IllegalArgumentException("Quantidade não pode ser negativa");
+        }
+    }
+
+    @Override
+    public boolean desativar(String id) {
+        try {
+            Optional<Peca> desativada = dynamoDbRepository.desativar(id);
+            desativada.ifPresent(replica::registrar);
+            return desativada.isPresent();
+        } finally {
+            cache.invalidar(id);
+            geracao.avancar();
+        }
+    }
+
+    @Override
+    public boolean deleteById(String id) {
+        boolean removido;
+        try {
+            removido = dynamoDbRepository.deleteById(id);
+        } catch (RuntimeException e) {
+            cache.invalidar(id);
+            geracao.avancar();
+            throw e;
+        }
+        // Removido agora ou inexistente: em ambos os casos o ID está ausente.
+        cache.marcarAusente(id);
+        geracao.avancar();
+        replica.remover(id);
+        if (removido) {
+            // A configuração em cache pode estar atrasada: procura os fragmentos de qualquer forma.
+            estoqueFragmentado.remover(id);
+        }
+        return removido;
     }
 
     @Override
     public boolean existsById(String id) {
-        return dynamoDbRepository.existsById(id);
+        return findById(id).isPresent();
+    }
+
+    /**
+     * Sem leitura prévia: a baixa vai ao item da peça condicionada a peça não
+     * fragmentada; se ela é (ou já se sabe que é), segue pelos fragmentos.
+     */
+    @Override
+    public void decrementarQuantidade(String id, int quantidade) {
+        int fragmentos = estoqueFragmentado.fragmentosConhecidos(id);
+        if (fragmentos <= 1) {
+            try {
+                decrementarNaPeca(id, quantidade, false);
+                return;
+            } catch (EstoqueFragmentadoException e) {
+                fragmentos = e.fragmentos();
+                estoqueFragmentado.registrarFragmentos(id, fragmentos);
+            }
+        }
+        decrementarFragmentada(id, quantidade, fragmentos);
+    }
+
+    /**
+     * Tenta os fragmentos a partir de um sorteado; se nenhum tem a quantidade sozinho,
+     * consolida o saldo no item da peça e baixa de lá.
+     */
+    private void decrementarFragmentada(String id, int quantidade, int fragmentos) {
+        try {
+            int inicio = ThreadLocalRandom.current().nextInt(fragmentos);
+            for (int i = 0; i < fragmentos; i++) {
+                int fragmento = (inicio + i) % fragmentos;
+                boolean baixado = fragmento == 0
+                        ? tentarDecrementarNaPeca(id, quantidade)
+                        : estoqueFragmentado.decrementar(id, fragmento, quantidade);
+                if (baixado) {
+                    return;
+                }
+            }
+            consolidar(id, null);
+            decrementarNaPeca(id, quantidade, true);
+        } finally {
+            geracao.avancar();
+        }
+    }
+
+    /**
+     * Com write-behind, só confere que a peça existe (cache) e acumula a entrada; ela
+     * fica visível nas leituras depois da próxima descarga.
+     */
+    @Override
+    public void incrementarQuantidade(String id, int quantidade) {
+        if (incrementosAcumulados == null) {
+            gravarIncremento(id, quantidade);
+            return;
+        }
+        if (idsConhecidos.certamenteAusente(id) || cache.get(id, dynamoDbRepository::findById).isEmpty()) {
+            throw new RuntimeException("Peça não encontrada com ID: " + id);
+        }
+        incrementosAcumulados.acumular(id, quantidade);
+    }
+
+    /**
+     * Roteada como a baixa, sem leitura prévia. Numa peça fragmentada a entrada vai a um
+     * fragmento sorteado; se ele não existe (peça removida ou configuração aprendida
+     * atrasada), vai ao item da peça, que confere a existência.
+     */
+    private void gravarIncremento(String id, int quantidade) {
+        int fragmentos = estoqueFragmentado.fragmentosConhecidos(id);
+        if (fragmentos <= 1) {
+            try {
+                incrementarNaPeca(id, quantidade, false);
+                return;
+            } catch (EstoqueFragmentadoException e) {
+                fragmentos = e.fragmentos();
+                estoqueFragmentado.registrarFragmentos(id, fragmentos);
+            }
+        }
+        int fragmento = ThreadLocalRandom.current().nextInt(fragmentos);
+        if (fragmento == 0) {
+            incrementarNaPeca(id, quantidade, true);
+            return;
+        }
+        boolean gravado;
+        try {
+            gravado = estoqueFragmentado.incrementar(id, fragmento, quantidade);
+        } finally {
+            geracao.avancar();
+        }
+        if (!gravado) {
+            incrementarNaPeca(id, quantidade, true);
+        }
+    }
+
+    @Override
+    public void definirFragmentosEstoque(String id, int fragmentos) {
+        consolidar(id, fragmentos);
+    }
+
+    /**
+     * Os ajustes vão ao item da peça; numa peça fragmentada, uma baixa que o item não
+     * cobre sozinho é refeita pelo caminho fragmentado de {@link #decrementarQuantidade}.
+     * A réplica recebe os ajustes pela sincronização, como as demais escritas em transação.
+     */
+    @Override
+    public Map<String, String> ajustarQuantidades(Map<String, Integer> ajustes) {
+        Map<String, String> falhas = new HashMap<>();
+        try {
+            for (Map.Entry<String, RuntimeException> falha : dynamoDbRepository.ajustarQuantidades(ajustes).entrySet()) {
+                String id = falha.getKey();
+                RuntimeException motivo = falha.getValue();
+                if (motivo instanceof EstoqueFragmentadoException fragmentada) {
+                    estoqueFragmentado.registrarFragmentos(id, fragmentada.fragmentos());
+                    try {
+                        decrementarFragmentada(id, -ajustes.get(id), fragmentada.fragmentos());
+                        continue;
+                    } catch (RuntimeException e) {
+                        motivo = e;
+                    }
+                }
+                falhas.put(id, motivo.getMessage());
+            }
+            return falhas;
+        } finally {
+            ajustes.keySet().forEach(cache::invalidar);
+            geracao.avancar();
+        }
+    }
+
+    private boolean tentarDecrementarNaPeca(String id, int quantidade) {
+        try {
+            decrementarNaPeca(id, quantidade, true);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * A réplica recebe a imagem gravada (ALL_NEW), nunca o delta: uma sincronização que
+     * já trouxe esta versão não a aplica de novo.
+     */
+    private void decrementarNaPeca(String id, int quantidade, boolean fragmentada) {
+        try {
+            replica.registrar(dynamoDbRepository.decrementarQuantidade(id, quantidade, fragmentada));
+        } finally {
+            cache.invalidar(id);
+            geracao.avancar();
+        }
+    }
+
+    private void incrementarNaPeca(String id, int quantidade, boolean fragmentada) {
+        try {
+            replica.registrar(dynamoDbRepository.incrementarQuantidade(id, quantidade, fragmentada));
+        } finally {
+            cache.invalidar(id);
+            geracao.avancar();
+        }
+    }
+
+    /**
+     * A reserva baixa só do item da peça; numa peça fragmentada sem saldo suficiente
+     * nele, consolida os fragmentos e tenta de novo.
+     *
+     * Reservas, confirmações e liberações são transações, que não devolvem a imagem do
+     * item: a réplica recebe a peça pela sincronização.
+     */
+    @Override
+    public Reserva reservar(Reserva reserva) {
+        try {
+            return reservarNaPeca(reserva);
+        } catch (EstoqueFragmentadoException e) {
+            estoqueFragmentado.registrarFragmentos(reserva.getPecaId(), e.fragmentos());
+            consolidar(reserva.getPecaId(), null);
+            try {
+                return reservarNaPeca(reserva);
+            } catch (EstoqueFragmentadoException aindaFalta) {
+                throw new IllegalArgumentException("Quantidade insuficiente em estoque");
+            }
+        }
+    }
+
+    private Reserva reservarNaPeca(Reserva reserva) {
+        try {
+            return reservaRepository.reservar(reserva);
+        } finally {
+            cache.invalidar(reserva.getPecaId());
+            geracao.avancar();
+        }
+    }
+
+    @Override
+    public Optional<Reserva> findReservaById(String reservaId) {
+        return reservaRepository.findById(reservaId);
+    }
+
+    @Override
+    public boolean confirmarReserva(Reserva reserva) {
+        try {
+            return reservaRepository.confirmar(reserva);
+        } finally {
+            cache.invalidar(reserva.getPecaId());
+            geracao.avancar();
+        }
+    }
+
+    @Override
+    public boolean liberarReserva(Reserva reserva) {
+        return liberar(reserva, false);
+    }
+
+    @Override
+    public int liberarReservasExpiradas(int limite) {
+        int liberadas = 0;
+        for (Reserva reserva : reservaRepository.findExpiradas(Instant.now(), limite)) {
+            try {
+                if (liberar(reserva, true)) {
+                    liberadas++;
+                }
+            } catch (ConflitoDeVersaoException e) {
+                // Peça disputada agora; a reserva continua vencida e volta na próxima varredura.
+            }
+        }
+        return liberadas;
+    }
+
+    private boolean liberar(Reserva reserva, boolean somenteExpirada) {
+        try {
+            return reservaRepository.liberar(reserva, somenteExpirada);
+        } finally {
+            cache.invalidar(reserva.getPecaId());
+            geracao.avancar();
+        }
+    }
+
+    /**
+     * Transação como as reservas: a réplica recebe a peça consolidada pela sincronização.
+     */
+    private void consolidar(String id, Integer novosFragmentos) {
+        try {
+            estoqueFragmentado.consolidar(id, novosFragmentos);
+        } finally {
+            cache.invalidar(id);
+            geracao.avancar();
+        }
     }
 
     @Override
     public List<Peca> findByCategoria(String categoria) {
-        return dynamoDbRepository.findByCategoriasContainingAndAtivoTrue(categoria);
+        if (replica.pronta()) {
+            return comEstoqueTotal(replica.ativos(item -> temCategoria(item, categoria)));
+        }
+        return comEstoqueTotal(singleFlight.executar(Arrays.asList("findByCategoria", categoria),
+                () -> dynamoDbRepository.findByCategoriasContainingAndAtivoTrue(categoria)));
+    }
+
+    @Override
+    public Pagina<Peca> findByCategoria(String categoria, int limite, String cursor) {
+        if (replica.pronta()) {
+            return replica.paginaCategoria(categoria, item -> temCategoria(item, categoria), limite, cursor)
+                    .map(this::comEstoqueTotal);
+        }
+        return singleFlight.executar(Arrays.asList("findByCategoria", categoria, limite, cursor),
+                () -> dynamoDbRepository.findByCategoriasContainingAndAtivoTrue(categoria, limite, cursor))
+                .map(this::comEstoqueTotal);
     }
 
     @Override
     public List<Peca> findByMarca(String marca) {
-        return dynamoDbRepository.findByMarcaAndAtivoTrue(marca);
+        if (replica.pronta()) {
+            return comEstoqueTotal(replica.ativos(peca -> marca.equals(peca.getMarca())));
+        }
+        return comEstoqueTotal(singleFlight.executar(Arrays.asList("findByMarca", marca),
+                () -> dynamoDbRepository.findByMarcaAndAtivoTrue(marca)));
+    }
+
+    @Override
+    public Pagina<Peca> findByMarca(String marca, int limite, String cursor) {
+        if (replica.pronta()) {
+            return replica.paginaAtivos(peca -> marca.equals(peca.getMarca()), limite, cursor)
+                    .map(this::comEstoqueTotal);
+        }
+        return singleFlight.executar(Arrays.asList("findByMarca", marca, limite, cursor),
+                () -> dynamoDbRepository.findByMarcaAndAtivoTrue(marca, limite, cursor))
+                .map(this::comEstoqueTotal);
+    }
+
+    /**
+     * Peça fragmentada: devolve uma cópia com a quantidade somada de todos os fragmentos
+     * e registra a fragmentação para o roteamento das escritas.
+     * As demais saem como estão (itens da réplica e do cache nunca são alterados aqui).
+     */
+    private Peca comEstoqueTotal(Peca peca) {
+        int fragmentos = DynamoDbEstoqueFragmentado.fragmentosDe(peca);
+        if (fragmentos <= 1 || peca.getQuantidade() == null) {
+            return peca;
+        }
+        // Leitura de graça: as próximas escritas já seguem direto pelos fragmentos.
+        estoqueFragmentado.registrarFragmentos(peca.getId(), fragmentos);
+        Peca total = dynamoDbRepository.copiar(peca);
+        total.setQuantidade(peca.getQuantidade() + estoqueFragmentado.soma(peca.getId(), fragmentos));
+        return total;
+    }
+
+    private List<Peca> comEstoqueTotal(List<Peca> pecas) {
+        return pecas.stream().map(this::comEstoqueTotal).collect(Collectors.toList());
+    }
+
+    /**
+     * Projeção com quantidade precisa de fragmentosEstoque para somar os fragmentos.
+     */
+    private static Set<String> comFragmentos(Set<String> atributos) {
+        if (atributos == null || !atributos.contains("quantidade") || atributos.contains("fragmentosEstoque")) {
+            return atributos;
+        }
+        Set<String> projecao = new HashSet<>(atributos);
+        projecao.add("fragmentosEstoque");
+        return projecao;
+    }
+
+    private static boolean temCategoria(Peca peca, String categoria) {
+        return peca.getCategorias() != null && peca.getCategorias().contains(categoria);
     }
 }
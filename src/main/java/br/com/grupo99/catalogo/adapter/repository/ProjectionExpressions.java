@@ -0,0 +1,26 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Monta ProjectionExpression com placeholders (#p0, #p1...) para chamadas do
+ * client de baixo nível, evitando conflito com palavras reservadas do DynamoDB.
+ */
+final class ProjectionExpressions {
+
+    private ProjectionExpressions() {
+    }
+
+    static String expressao(Collection<String> atributos, Map<String, String> nomes) {
+        StringJoiner expressao = new StringJoiner(", ");
+        int indice = 0;
+        for (String atributo : atributos) {
+            String placeholder = "#p" + indice++;
+            nomes.put(placeholder, atributo);
+            expressao.add(placeholder);
+        }
+        return expressao.toString();
+    }
+}
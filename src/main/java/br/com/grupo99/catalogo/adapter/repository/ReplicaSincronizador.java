@@ -0,0 +1,94 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mantém as réplicas em memória de peças e serviços quando catalogo.replica.enabled=true:
+ * carga completa no startup e periódica (captura remoções de outras instâncias) e,
+ * entre elas, polling do GSI atualizacao-index pelos itens alterados.
+ * Enquanto a carga inicial não termina, as leituras seguem indo ao DynamoDB.
+ */
+@Component
+public class ReplicaSincronizador {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaSincronizador.class);
+
+    private final PecaRepositoryAdapter pecaRepository;
+    private final ServicoRepositoryAdapter servicoRepository;
+    private final boolean habilitado;
+    private final Duration intervalo;
+    private final Duration margem;
+    private final Duration recargaCompleta;
+    private ScheduledExecutorService executor;
+
+    public ReplicaSincronizador(PecaRepositoryAdapter pecaRepository,
+            ServicoRepositoryAdapter servicoRepository,
+            @Value("${catalogo.replica.enabled:false}") boolean habilitado,
+            @Value("${catalogo.replica.intervalo:5s}") Duration intervalo,
+            @Value("${catalogo.replica.margem:1m}") Duration margem,
+            @Value("${catalogo.replica.recarga-completa:15m}") Duration recargaCompleta) {
+        this.pecaRepository = pecaRepository;
+        this.servicoRepository = servicoRepository;
+        this.habilitado = habilitado;
+        this.intervalo = intervalo;
+        this.margem = margem;
+        this.recargaCompleta = recargaCompleta;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void iniciar() {
+        if (!habilitado || executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalogo-replica");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Mesma thread para carga e polling: nunca rodam em paralelo.
+        executor.execute(this::carregar);
+        executor.scheduleWithFixedDelay(this::sincronizar, intervalo.toMillis(), intervalo.toMillis(),
+                TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::carregar, recargaCompleta.toMillis(), recargaCompleta.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    void carregar() {
+        try {
+            int pecas = pecaRepository.carregarReplica();
+            int servicos = servicoRepository.carregarReplica();
+            log.info("✅ Réplica do catálogo carregada: {} peças, {} serviços", pecas, servicos);
+        } catch (RuntimeException e) {
+            log.warn("Falha ao carregar a réplica do catálogo: {}", e.getMessage());
+        }
+    }
+
+    void sincronizar() {
+        try {
+            int pecas = pecaRepository.sincronizarReplica(margem);
+            int servicos = servicoRepository.sincronizarReplica(margem);
+            log.debug("Réplica do catálogo sincronizada: {} peças, {} serviços aplicados", pecas, servicos);
+        } catch (RuntimeException e) {
+            // Uma exceção cancelaria o agendamento; a próxima rodada tenta de novo.
+            log.warn("Falha ao sincronizar a réplica do catálogo: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void encerrar() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
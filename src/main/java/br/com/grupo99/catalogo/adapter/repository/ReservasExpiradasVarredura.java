@@ -0,0 +1,74 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import br.com.grupo99.catalogo.application.service.PecaApplicationService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Devolve ao disponível o estoque das reservas vencidas (GSI expiracao-index).
+ *
+ * O TTL do DynamoDB só apaga a reserva um dia depois do prazo e não mexe na peça;
+ * é esta varredura que libera a quantidade. Todas as instâncias podem rodá-la: a
+ * liberação é condicional e só uma vence por reserva.
+ */
+@Component
+public class ReservasExpiradasVarredura {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservasExpiradasVarredura.class);
+
+    private final PecaApplicationService pecaService;
+    private final boolean habilitada;
+    private final Duration intervalo;
+    private ScheduledExecutorService executor;
+
+    public ReservasExpiradasVarredura(PecaApplicationService pecaService,
+            @Value("${catalogo.reservas.varredura.enabled:true}") boolean habilitada,
+            @Value("${catalogo.reservas.varredura.intervalo:30s}") Duration intervalo) {
+        this.pecaService = pecaService;
+        this.habilitada = habilitada;
+        this.intervalo = intervalo;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void iniciar() {
+        if (!habilitada || executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalogo-reservas");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::varrer, intervalo.toMillis(), intervalo.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    void varrer() {
+        try {
+            int liberadas = pecaService.liberarReservasExpiradas();
+            if (liberadas > 0) {
+                log.info("Reservas expiradas liberadas: {}", liberadas);
+            }
+        } catch (RuntimeException e) {
+            // Uma exceção cancelaria o agendamento; a próxima rodada tenta de novo.
+            log.warn("Falha ao liberar reservas expiradas: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void encerrar() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,11 +1,23 @@
 package br.com.grupo99.catalogo.adapter.repository;
 
+import br.com.grupo99.catalogo.application.service.GeracaoCatalogo;
+import br.com.grupo99.catalogo.domain.model.Pagina;
 import br.com.grupo99.catalogo.domain.model.Servico;
 import br.com.grupo99.catalogo.domain.repository.ServicoRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Adapter que implementa ServicoRepository (domínio) usando DynamoDB.
@@ -14,6 +26,11 @@ import java.util.Optional;
  * - Implementa interface de domínio: ServicoRepository
  * - Delega para DynamoDB: DynamoDbServicoRepository
  * - Isolamento de framework em adapter layer
+ * - Cache read-through de findById, invalidado em toda escrita
+ * - Leituras idênticas concorrentes compartilham uma única chamada (SingleFlight)
+ * - IDs ausentes: cache negativo e filtro de Bloom opcional (IdsConhecidos)
+ * - Listas e buscas servidas pela réplica em memória quando habilitada (CatalogoReplica)
+ * - Toda escrita avança a GeracaoCatalogo (ETag das coleções)
  * 
  * Migrado de MongoDB/DocumentDB para DynamoDB
  */
@@ -21,48 +38,238 @@ import java.util.Optional;
 public class ServicoRepositoryAdapter implements ServicoRepository {
 
     private final DynamoDbServicoRepository dynamoDbRepository;
+    private final EntidadeCache<Servico> cache;
+    private final IdsConhecidos idsConhecidos;
+    private final CatalogoReplica<Servico> replica;
+    private final GeracaoCatalogo geracao;
+    private final SingleFlight singleFlight = new SingleFlight();
 
-    public ServicoRepositoryAdapter(DynamoDbServicoRepository dynamoDbRepository) {
+    public ServicoRepositoryAdapter(
+            DynamoDbServicoRepository dynamoDbRepository,
+            GeracaoCatalogo geracao,
+            MeterRegistry meterRegistry,
+            @Value("${catalogo.cache.ttl:60s}") Duration cacheTtl,
+            @Value("${catalogo.cache.max-entries:10000}") long cacheMaxEntries,
+            @Value("${catalogo.cache.negative-ttl:10s}") Duration cacheTtlAusentes,
+            @Value("${catalogo.ids-conhecidos.esperados:100000}") long idsEsperados,
+            @Value("${catalogo.ids-conhecidos.taxa-falso-positivo:0.01}") double taxaFalsoPositivo) {
         this.dynamoDbRepository = dynamoDbRepository;
+        this.geracao = geracao;
+        this.cache = new EntidadeCache<>("servicos", cacheTtl, cacheMaxEntries, cacheTtlAusentes,
+                dynamoDbRepository::copiar, meterRegistry);
+        this.idsConhecidos = new IdsConhecidos(idsEsperados, taxaFalsoPositivo);
+        this.replica = new CatalogoReplica<>(Servico::getId, Servico::getNome,
+                servico -> Boolean.TRUE.equals(servico.getAtivo()), Servico::getUpdatedAt, Servico::getVersion,
+                dynamoDbRepository::copiar, Servico.PARTICAO_ATIVO);
+    }
+
+    /**
+     * Carrega o filtro de IDs conhecidos a partir de um scan; ver {@link IdsConhecidosStartup}.
+     */
+    public void reconstruirIdsConhecidos() {
+        idsConhecidos.reconstruir(dynamoDbRepository::percorrerIds);
+    }
+
+    /**
+     * Carga completa da réplica em memória (scan paralelo); ver {@link ReplicaSincronizador}.
+     *
+     * @return quantidade de itens carregados
+     */
+    public int carregarReplica() {
+        List<Servico> servicos = dynamoDbRepository.findAll();
+        replica.carregar(servicos);
+        if (idsConhecidos.ativo()) {
+            // A carga completa já percorre todos os IDs: reconstrói o filtro sem outro scan.
+            idsConhecidos.reconstruir(consumer -> servicos.forEach(item -> consumer.accept(item.getId())));
+        }
+        geracao.avancar();
+        return replica.tamanho();
+    }
+
+    /**
+     * Aplica na réplica os itens alterados desde a marca d'água, recuando {@code margem}
+     * para cobrir a consistência eventual do GSI e escritas lentas.
+     *
+     * @return quantidade de itens aplicados (alterações ainda não vistas por esta instância)
+     */
+    public int sincronizarReplica(Duration margem) {
+        if (!replica.pronta()) {
+            return 0;
+        }
+        LocalDateTime desde = replica.marcaDagua().orElse(LocalDateTime.of(1970, 1, 1, 0, 0)).minus(margem);
+        List<Servico> alterados = dynamoDbRepository.findAlteradosDesde(desde);
+        // IDs criados em outras instâncias chegam ao filtro por aqui.
+        alterados.forEach(item -> idsConhecidos.registrar(item.getId()));
+        int aplicados = replica.aplicar(alterados);
+        if (aplicados > 0) {
+            geracao.avancar();
+        }
+        return aplicados;
     }
 
     @Override
     public Servico save(Servico servico) {
-        return dynamoDbRepository.save(servico);
+        try {
+            Servico salvo = dynamoDbRepository.save(servico);
+            idsConhecidos.registrar(salvo.getId());
+            replica.registrar(salvo);
+            return salvo;
+        } finally {
+            cache.invalidar(servico.getId());
+            geracao.avancar();
+        }
     }
 
     @Override
     public Optional<Servico> findById(String id) {
-        return dynamoDbRepository.findById(id);
+        if (idsConhecidos.certamenteAusente(id)) {
+            return Optional.empty();
+        }
+        return cache.get(id, dynamoDbRepository::findById);
+    }
+
+    @Override
+    public Optional<Servico> findById(String id, Set<String> atributos) {
+        if (idsConhecidos.certamenteAusente(id) || cache.ausente(id)) {
+            return Optional.empty();
+        }
+        // O item completo em cache atende qualquer projeção.
+        return cache.getIfPresent(id).or(() -> singleFlight.executar(Arrays.asList("findById", id, atributos),
+                () -> dynamoDbRepository.findById(id, atributos)));
     }
 
     @Override
     public List<Servico> findByAtivoTrue() {
-        return dynamoDbRepository.findByAtivoTrue();
+        if (replica.pronta()) {
+            return replica.ativos(item -> true);
+        }
+        return singleFlight.executar(Arrays.asList("findByAtivoTrue"),
+                () -> dynamoDbRepository.findByAtivoTrue());
     }
 
     @Override
     public List<Servico> findByAtivoTrueOrderByNomeAsc() {
-        return dynamoDbRepository.findByAtivoTrueOrderByNomeAsc();
+        if (replica.pronta()) {
+            return replica.ativos(item -> true);
+        }
+        return singleFlight.executar(Arrays.asList("findByAtivoTrueOrderByNomeAsc"),
+                () -> dynamoDbRepository.findByAtivoTrueOrderByNomeAsc());
+    }
+
+    @Override
+    public Pagina<Servico> findByAtivoTrueOrderByNomeAsc(int limite, String cursor) {
+        if (replica.pronta()) {
+            return replica.paginaAtivos(item -> true, limite, cursor);
+        }
+        return singleFlight.executar(Arrays.asList("findByAtivoTrueOrderByNomeAsc", limite, cursor),
+                () -> dynamoDbRepository.findByAtivoTrueOrderByNomeAsc(limite, cursor));
+    }
+
+    @Override
+    public Pagina<Servico> findByAtivoTrueOrderByNomeAsc(int limite, String cursor, Set<String> atributos) {
+        if (replica.pronta()) {
+            return replica.paginaAtivos(item -> true, limite, cursor);
+        }
+        return singleFlight.executar(Arrays.asList("findByAtivoTrueOrderByNomeAsc", limite, cursor, atributos),
+                () -> dynamoDbRepository.findByAtivoTrueOrderByNomeAsc(limite, cursor, atributos));
+    }
+
+    @Override
+    public List<Servico> findAllById(Collection<String> ids) {
+        return dynamoDbRepository.findAllById(ids);
     }
 
     @Override
     public List<Servico> findAll() {
-        return dynamoDbRepository.findAll();
+        if (replica.pronta()) {
+            return new ArrayList<>(replica.todos());
+        }
+        return singleFlight.executar(Arrays.asList("findAll"),
+                () -> dynamoDbRepository.findAll());
+    }
+
+    @Override
+    public Pagina<Servico> findAll(int limite, String cursor) {
+        return singleFlight.executar(Arrays.asList("findAll", limite, cursor),
+                () -> dynamoDbRepository.findAll(limite, cursor));
+    }
+
+    @Override
+    public Pagina<Servico> findAll(int limite, String cursor, Set<String> atributos) {
+        return singleFlight.executar(Arrays.asList("findAll", limite, cursor, atributos),
+                () -> dynamoDbRepository.findAll(limite, cursor, atributos));
     }
 
     @Override
-    public void deleteById(String id) {
-        dynamoDbRepository.deleteById(id);
+    public Stream<Servico> streamAll() {
+        return dynamoDbRepository.streamAll();
+    }
+
+    @Override
+    public Optional<Servico> atualizarCampos(String id, Map<String, Object> alteracoes) {
+        try {
+            Optional<Servico> atualizado = dynamoDbRepository.atualizarCampos(id, alteracoes);
+            atualizado.ifPresent(replica::registrar);
+            return atualizado;
+        } finally {
+            cache.invalidar(id);
+            geracao.avancar();
+        }
+    }
+
+    @Override
+    public boolean desativar(String id) {
+        try {
+            Optional<Servico> desativado = dynamoDbRepository.desativar(id);
+            desativado.ifPresent(replica::registrar);
+            return desativado.isPresent();
+        } finally {
+            cache.invalidar(id);
+            geracao.avancar();
+        }
+    }
+
+    @Override
+    public boolean deleteById(String id) {
+        boolean removido;
+        try {
+            removido = dynamoDbRepository.deleteById(id);
+        } catch (RuntimeException e) {
+            cache.invalidar(id);
+            geracao.avancar();
+            throw e;
+        }
+        // Removido agora ou inexistente: em ambos os casos o ID está ausente.
+        cache.marcarAusente(id);
+        geracao.avancar();
+        replica.remover(id);
+        return removido;
     }
 
     @Override
     public boolean existsById(String id) {
-        return dynamoDbRepository.existsById(id);
+        return findById(id).isPresent();
     }
 
     @Override
     public List<Servico> findByCategoria(String categoria) {
-        return dynamoDbRepository.findByCategoriasContainingAndAtivoTrue(categoria);
+        if (replica.pronta()) {
+            return replica.ativos(item -> temCategoria(item, categoria));
+        }
+        return singleFlight.executar(Arrays.asList("findByCategoria", categoria),
+                () -> dynamoDbRepository.findByCategoriasContainingAndAtivoTrue(categoria));
+    }
+
+    @Override
+    public Pagina<Servico> findByCategoria(String categoria, int limite, String cursor) {
+        if (replica.pronta()) {
+            return replica.paginaCategoria(categoria, item -> temCategoria(item, categoria), limite, cursor);
+        }
+        return singleFlight.executar(Arrays.asList("findByCategoria", categoria, limite, cursor),
+                () -> dynamoDbRepository.findByCategoriasContainingAndAtivoTrue(categoria, limite, cursor));
+    }
+
+    private static boolean temCategoria(Servico servico, String categoria) {
+        return servico.getCategorias() != null && servico.getCategorias().contains(categoria);
     }
 }
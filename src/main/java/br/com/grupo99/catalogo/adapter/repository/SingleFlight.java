@@ -0,0 +1,54 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalescência de leituras idênticas concorrentes: enquanto uma chamada ao DynamoDB
+ * para a mesma chave está em andamento, as demais aguardam e recebem o mesmo resultado
+ * (ou a mesma exceção). Nada é guardado depois que a chamada termina.
+ *
+ * O resultado é compartilhado entre as threads e deve ser tratado como somente leitura.
+ */
+final class SingleFlight {
+
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> emAndamento = new ConcurrentHashMap<>();
+
+    /**
+     * @param chave identifica a operação e seus parâmetros (ex.: List com nome e argumentos)
+     */
+    @SuppressWarnings("unchecked")
+    <V> V executar(Object chave, Supplier<V> chamada) {
+        CompletableFuture<Object> nova = new CompletableFuture<>();
+        CompletableFuture<Object> existente = emAndamento.putIfAbsent(chave, nova);
+        if (existente != null) {
+            return (V) aguardar(existente);
+        }
+        try {
+            V valor = chamada.get();
+            nova.complete(valor);
+            return valor;
+        } catch (RuntimeException | Error e) {
+            nova.completeExceptionally(e);
+            throw e;
+        } finally {
+            emAndamento.remove(chave, nova);
+        }
+    }
+
+    private static Object aguardar(CompletableFuture<Object> emAndamento) {
+        try {
+            return emAndamento.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import br.com.grupo99.catalogo.domain.model.Peca;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Traduz um conjunto de atributos alterados em UpdateExpression (SET/REMOVE) com
+ * placeholders (#u0, :u0...). Sempre grava updatedAt e incrementa version, mantendo
+ * o lock otimista coerente com os saves do Enhanced Client.
+ */
+final class UpdateExpressions {
+
+    private UpdateExpressions() {
+    }
+
+    record Atualizacao(String expressao, Map<String, String> nomes, Map<String, AttributeValue> valores) {
+    }
+
+    /**
+     * Trecho de SET comum a toda escrita parcial: updatedAt e, com a réplica habilitada,
+     * a partição do item no GSI de alterações (itens gravados antes do índice passam a
+     * fazer parte dele na primeira alteração). Os valores vêm de {@link #valoresCarimbo}.
+     *
+     * @param indexarAlteracao catalogo.replica.enabled
+     */
+    static String carimbo(boolean indexarAlteracao) {
+        return indexarAlteracao ? "updatedAt = :agora, atualizacaoParticao = :particao" : "updatedAt = :agora";
+    }
+
+    /**
+     * @param alteracoes atributo -> novo valor; null remove o atributo
+     */
+    static Atualizacao atualizacao(String id, Map<String, Object> alteracoes, boolean indexarAlteracao) {
+        StringJoiner set = new StringJoiner(", ", "SET ", "");
+        StringJoiner remove = new StringJoiner(", ", " REMOVE ", "").setEmptyValue("");
+        Map<String, String> nomes = new HashMap<>();
+        Map<String, AttributeValue> valores = new HashMap<>();
+        int indice = 0;
+        for (Map.Entry<String, Object> alteracao : alteracoes.entrySet()) {
+            String nome = "#u" + indice;
+            nomes.put(nome, alteracao.getKey());
+            if (alteracao.getValue() == null) {
+                remove.add(nome);
+            } else {
+                String valor = ":u" + indice;
+                valores.put(valor, valor(alteracao.getValue()));
+                set.add(nome + " = " + valor);
+            }
+            indice++;
+        }
+        set.add(carimbo(indexarAlteracao));
+        valores.putAll(valoresCarimbo(id, indexarAlteracao));
+        return new Atualizacao(set + remove.toString() + " ADD version :um", nomes, valores);
+    }
+
+    /**
+     * Valores de {@link #carimbo} e de ":um" (para ADD version :um).
+     */
+    static Map<String, AttributeValue> valoresCarimbo(String id, boolean indexarAlteracao) {
+        Map<String, AttributeValue> valores = new HashMap<>();
+        valores.put(":agora", agora());
+        if (indexarAlteracao) {
+            // Mesma fórmula em Peca e Servico.
+            valores.put(":particao", AttributeValue.builder().s(Peca.particaoAtualizacao(id)).build());
+        }
+        valores.put(":um", AttributeValue.builder().n("1").build());
+        return valores;
+    }
+
+    /**
+     * updatedAt no mesmo formato ISO-8601 gravado pelo Enhanced Client para LocalDateTime.
+     */
+    static AttributeValue agora() {
+        return AttributeValue.builder().s(LocalDateTime.now().toString()).build();
+    }
+
+    static Map<String, AttributeValue> chave(String id) {
+        return Map.of("id", AttributeValue.builder().s(id).build());
+    }
+
+    private static AttributeValue valor(Object valor) {
+        if (valor instanceof String texto) {
+            return AttributeValue.builder().s(texto).build();
+        }
+        if (valor instanceof BigDecimal decimal) {
+            return AttributeValue.builder().n(decimal.toPlainString()).build();
+        }
+        if (valor instanceof Number numero) {
+            return AttributeValue.builder().n(numero.toString()).build();
+        }
+        if (valor instanceof Boolean booleano) {
+            return AttributeValue.builder().bool(booleano).build();
+        }
+        throw new IllegalArgumentException("Tipo não suportado em UpdateExpression: " + valor.getClass());
+    }
+}
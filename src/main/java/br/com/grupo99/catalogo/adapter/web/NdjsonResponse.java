@@ -0,0 +1,44 @@
+package br.com.grupo99.catalogo.adapter.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Resposta NDJSON (um objeto JSON por linha) escrita direto no output stream.
+ *
+ * Os itens são serializados à medida que o Stream os produz: a memória fica
+ * limitada a uma página do DynamoDB e, quando o cliente lê devagar, a escrita
+ * no socket bloqueia e a leitura das próximas páginas espera.
+ */
+final class NdjsonResponse {
+
+    static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private NdjsonResponse() {
+    }
+
+    static <T> ResponseEntity<StreamingResponseBody> ok(ObjectMapper objectMapper, Supplier<Stream<T>> itens) {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<T> stream = itens.get();
+                    JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+                            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                var iterator = stream.iterator();
+                while (iterator.hasNext()) {
+                    writer.writeValue(generator, iterator.next());
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+}
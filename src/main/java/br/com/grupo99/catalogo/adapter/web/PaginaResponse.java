@@ -0,0 +1,27 @@
+package br.com.grupo99.catalogo.adapter.web;
+
+import br.com.grupo99.catalogo.domain.model.Pagina;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * Resposta de listagens paginadas: o corpo continua sendo um array JSON e o
+ * cursor da próxima página vai no header {@value #HEADER_PROXIMO_CURSOR}
+ * (ausente na última página).
+ */
+final class PaginaResponse {
+
+    static final String HEADER_PROXIMO_CURSOR = "X-Next-Cursor";
+
+    private PaginaResponse() {
+    }
+
+    static <T> ResponseEntity<List<T>> ok(Pagina<T> pagina) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (pagina.getProximoCursor() != null) {
+            response.header(HEADER_PROXIMO_CURSOR, pagina.getProximoCursor());
+        }
+        return response.body(pagina.getItens());
+    }
+}
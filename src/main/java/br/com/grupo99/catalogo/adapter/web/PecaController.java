@@ -1,27 +1,57 @@
 package br.com.grupo99.catalogo.adapter.web;
 
+import br.com.grupo99.catalogo.application.dto.AjusteEstoqueRequestDTO;
+import br.com.grupo99.catalogo.application.dto.AjusteEstoqueResponseDTO;
+import br.com.grupo99.catalogo.application.dto.BuscaEmLoteRequestDTO;
+import br.com.grupo99.catalogo.application.dto.BuscaEmLoteResponseDTO;
 import br.com.grupo99.catalogo.application.dto.PecaRequestDTO;
 import br.com.grupo99.catalogo.application.dto.PecaResponseDTO;
+import br.com.grupo99.catalogo.application.dto.ReservaResponseDTO;
+import br.com.grupo99.catalogo.application.service.GeracaoCatalogo;
 import br.com.grupo99.catalogo.application.service.PecaApplicationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * REST Controller para Peça.
  * Migrado para MongoDB/DocumentDB - ID agora é String.
+ * Listagens são paginadas por limit/cursor (ver {@link PaginaResponse}).
+ * Leituras aceitam fields=campo1,campo2 para projetar só os campos pedidos.
+ * PATCH /{id} aceita JSON Merge Patch dos campos escalares.
+ * GETs de item e de listas respondem 304 a If-None-Match (ver {@link RespostaCondicional}).
+ * A listagem de ativos sai de bytes pré-serializados (ver {@link RespostasSerializadas}).
+ * Reservas de estoque: POST /{id}/reservas, POST /reservas/{reservaId}/confirmar e
+ * DELETE /reservas/{reservaId}.
+ * POST /estoque/ajustes aplica ajustes de inventário em lote, com falhas por peça.
+ * PUT /{id}/fragmentos-estoque liga o contador de estoque fragmentado de peças muito disputadas.
  */
 @RestController
 @RequestMapping("/api/v1/pecas")
 public class PecaController {
+    private static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+
     private final PecaApplicationService pecaService;
+    private final ObjectMapper objectMapper;
+    private final GeracaoCatalogo geracaoCatalogo;
+    private final RespostasSerializadas respostasSerializadas;
 
-    public PecaController(PecaApplicationService pecaService) {
+    public PecaController(PecaApplicationService pecaService, ObjectMapper objectMapper,
+            GeracaoCatalogo geracaoCatalogo, RespostasSerializadas respostasSerializadas) {
         this.pecaService = pecaService;
+        this.objectMapper = objectMapper;
+        this.geracaoCatalogo = geracaoCatalogo;
+        this.respostasSerializadas = respostasSerializadas;
     }
 
     @PostMapping
@@ -33,20 +63,72 @@ public class PecaController {
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'MECANICO', 'CLIENTE')")
-    public ResponseEntity<List<PecaResponseDTO>> listarTodas() {
-        return ResponseEntity.ok(pecaService.listarTodas());
+    public ResponseEntity<?> listarTodas(
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        if (RespostaCondicional.colecaoNaoModificada(webRequest, geracaoCatalogo)) {
+            return null;
+        }
+        if (fields != null) {
+            return PaginaResponse.ok(pecaService.listarTodas(limit, cursor, fields));
+        }
+        return PaginaResponse.ok(pecaService.listarTodas(limit, cursor));
+    }
+
+    /**
+     * Exportação do catálogo completo em NDJSON, com memória constante.
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MECANICO', 'CLIENTE')")
+    public ResponseEntity<StreamingResponseBody> exportar() {
+        return NdjsonResponse.ok(objectMapper, pecaService::exportarTodas);
     }
 
     @GetMapping("/ativas")
     @PreAuthorize("hasAnyRole('ADMIN', 'MECANICO', 'CLIENTE')")
-    public ResponseEntity<List<PecaResponseDTO>> listarAtivas() {
-        return ResponseEntity.ok(pecaService.listarAtivas());
+    public ResponseEntity<?> listarAtivas(
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest) {
+        if (RespostaCondicional.colecaoNaoModificada(webRequest, geracaoCatalogo)) {
+            return null;
+        }
+        if (fields != null) {
+            return PaginaResponse.ok(pecaService.listarAtivas(limit, cursor, fields));
+        }
+        return respostasSerializadas.ok("pecas-ativas", limit, cursor, RespostasSerializadas.aceitaGzip(acceptEncoding),
+                () -> pecaService.listarAtivas(limit, cursor));
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'MECANICO', 'CLIENTE')")
-    public ResponseEntity<PecaResponseDTO> buscarPorId(@PathVariable String id) {
-        return ResponseEntity.ok(pecaService.buscarPorId(id));
+    public ResponseEntity<?> buscarPorId(
+            @PathVariable String id,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        if (fields != null) {
+            return ResponseEntity.ok(pecaService.buscarPorId(id, fields));
+        }
+        PecaResponseDTO peca = pecaService.buscarPorId(id);
+        boolean naoModificado = peca.getFragmentosEstoque() != null && peca.getFragmentosEstoque() > 1
+                ? RespostaCondicional.itemFragmentadoNaoModificado(webRequest, peca.getId(), peca.getUpdatedAt(),
+                        peca.getQuantidade())
+                : RespostaCondicional.itemNaoModificado(webRequest, peca.getId(), peca.getUpdatedAt());
+        if (naoModificado) {
+            return null;
+        }
+        return ResponseEntity.ok(peca);
+    }
+
+    @PostMapping("/batch-get")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MECANICO', 'CLIENTE')")
+    public ResponseEntity<BuscaEmLoteResponseDTO<PecaResponseDTO>> buscarEmLote(
+            @Valid @RequestBody BuscaEmLoteRequestDTO request) {
+        return ResponseEntity.ok(pecaService.buscarEmLote(request.getIds()));
     }
 
     @PutMapping("/{id}")
@@ -57,6 +139,14 @@ public class PecaController {
         return ResponseEntity.ok(pecaService.atualizar(id, request));
     }
 
+    @PatchMapping(value = "/{id}", consumes = { MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE })
+    @PreAuthorize("hasAnyRole('ADMIN', 'MECANICO')")
+    public ResponseEntity<PecaResponseDTO> atualizarParcial(
+            @PathVariable String id,
+            @RequestBody Map<String, Object> patch) {
+        return ResponseEntity.ok(pecaService.atualizarParcial(id, patch));
+    }
+
     @PatchMapping("/{id}/desativar")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Void> desativar(@PathVariable String id) {
@@ -89,15 +179,69 @@ public class PecaController {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/estoque/ajustes")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MECANICO')")
+    public ResponseEntity<AjusteEstoqueResponseDTO> ajustarEstoque(
+            @Valid @RequestBody AjusteEstoqueRequestDTO request) {
+        return ResponseEntity.ok(pecaService.ajustarEstoque(request.getAjustes()));
+    }
+
+    @PutMapping("/{id}/fragmentos-estoque")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> fragmentarEstoque(
+            @PathVariable String id,
+            @RequestParam Integer fragmentos) {
+        pecaService.fragmentarEstoque(id, fragmentos);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/{id}/reservas")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MECANICO')")
+    public ResponseEntity<ReservaResponseDTO> reservarEstoque(
+            @PathVariable String id,
+            @RequestParam Integer quantidade,
+            @RequestParam(required = false) Integer validadeMinutos) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(pecaService.reservarEstoque(id, quantidade, validadeMinutos));
+    }
+
+    @PostMapping("/reservas/{reservaId}/confirmar")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MECANICO')")
+    public ResponseEntity<Void> confirmarReserva(@PathVariable String reservaId) {
+        pecaService.confirmarReserva(reservaId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/reservas/{reservaId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MECANICO')")
+    public ResponseEntity<Void> liberarReserva(@PathVariable String reservaId) {
+        pecaService.liberarReserva(reservaId);
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/categoria/{categoria}")
     @PreAuthorize("hasAnyRole('ADMIN', 'MECANICO', 'CLIENTE')")
-    public ResponseEntity<List<PecaResponseDTO>> buscarPorCategoria(@PathVariable String categoria) {
-        return ResponseEntity.ok(pecaService.buscarPorCategoria(categoria));
+    public ResponseEntity<List<PecaResponseDTO>> buscarPorCategoria(
+            @PathVariable String categoria,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor,
+            WebRequest webRequest) {
+        if (RespostaCondicional.colecaoNaoModificada(webRequest, geracaoCatalogo)) {
+            return null;
+        }
+        return PaginaResponse.ok(pecaService.buscarPorCategoria(categoria, limit, cursor));
     }
 
     @GetMapping("/marca/{marca}")
     @PreAuthorize("hasAnyRole('ADMIN', 'MECANICO', 'CLIENTE')")
-    public ResponseEntity<List<PecaResponseDTO>> buscarPorMarca(@PathVariable String marca) {
-        return ResponseEntity.ok(pecaService.buscarPorMarca(marca));
+    public ResponseEntity<List<PecaResponseDTO>> buscarPorMarca(
+            @PathVariable String marca,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor,
+            WebRequest webRequest) {
+        if (RespostaCondicional.colecaoNaoModificada(webRequest, geracaoCatalogo)) {
+            return null;
+        }
+        return PaginaResponse.ok(pecaService.buscarPorMarca(marca, limit, cursor));
     }
 }
@@ -0,0 +1,47 @@
+package br.com.grupo99.catalogo.adapter.web;
+
+import br.com.grupo99.catalogo.application.service.GeracaoCatalogo;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * GET condicional (If-None-Match / If-Modified-Since). Itens usam ETag forte de
+ * id + updatedAt e Last-Modified; coleções usam a {@link GeracaoCatalogo}. Peças
+ * com estoque fragmentado acrescentam a quantidade ao ETag e não usam Last-Modified,
+ * porque as escritas nos fragmentos não mudam updatedAt.
+ * Quando retorna true a resposta já é 304 e o handler deve retornar null.
+ */
+final class RespostaCondicional {
+
+    private RespostaCondicional() {
+    }
+
+    static boolean itemNaoModificado(WebRequest request, String id, LocalDateTime atualizadoEm) {
+        if (atualizadoEm == null) {
+            return false;
+        }
+        long nanos = atualizadoEm.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + atualizadoEm.getNano();
+        String etag = "\"" + id + "-" + Long.toHexString(nanos) + "\"";
+        long ultimaModificacao = atualizadoEm.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return request.checkNotModified(etag, ultimaModificacao);
+    }
+
+    static boolean itemFragmentadoNaoModificado(WebRequest request, String id, LocalDateTime atualizadoEm,
+            Integer quantidade) {
+        if (atualizadoEm == null || quantidade == null) {
+            return false;
+        }
+        long nanos = atualizadoEm.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + atualizadoEm.getNano();
+        return request.checkNotModified("\"" + id + "-" + Long.toHexString(nanos) + "-q" + quantidade + "\"");
+    }
+
+    /**
+     * Verificado antes da consulta: um 304 não lê nada do DynamoDB.
+     */
+    static boolean colecaoNaoModificada(WebRequest request, GeracaoCatalogo geracao) {
+        return request.checkNotModified("\"c-" + geracao.validador() + "\"");
+    }
+}
@@ -0,0 +1,112 @@
+package br.com.grupo99.catalogo.adapter.web;
+
+import br.com.grupo99.catalogo.application.service.GeracaoCatalogo;
+import br.com.grupo99.catalogo.domain.model.Pagina;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache dos bytes JSON (e gzip) das listagens de ativos, o grosso do tráfego.
+ *
+ * A chave inclui o validador da {@link GeracaoCatalogo}: qualquer escrita local muda a
+ * geração e a próxima requisição serializa de novo, e a janela de tempo do validador
+ * limita o atraso em relação a escritas de outras instâncias; entradas antigas saem por
+ * despejo. Um acerto escreve o byte[] direto na resposta, sem DTOs nem Jackson.
+ * Requisições concorrentes da mesma página esperam uma única serialização.
+ */
+@Component
+class RespostasSerializadas {
+
+    /** Abaixo disso o gzip não compensa o custo e o header extra. */
+    private static final int TAMANHO_MINIMO_GZIP = 1024;
+
+    record Chave(String recurso, int limite, String cursor, String geracao) {
+    }
+
+    record Corpo(byte[] json, byte[] gzip, String proximoCursor) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final GeracaoCatalogo geracao;
+    private final boolean gzipHabilitado;
+    private final Cache<Chave, Corpo> cache;
+
+    RespostasSerializadas(ObjectMapper objectMapper, GeracaoCatalogo geracao, MeterRegistry meterRegistry,
+            @Value("${catalogo.respostas.max-bytes:33554432}") long maxBytes,
+            @Value("${catalogo.respostas.ttl:10m}") Duration ttl,
+            @Value("${catalogo.respostas.gzip:true}") boolean gzipHabilitado) {
+        this.objectMapper = objectMapper;
+        this.geracao = geracao;
+        this.gzipHabilitado = gzipHabilitado;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Chave chave, Corpo corpo) -> corpo.json().length
+                        + (corpo.gzip() != null ? corpo.gzip().length : 0))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "respostas-ativas");
+    }
+
+    /**
+     * Página serializada do cache ou de {@code carregar}; com {@code aceitaGzip} envia
+     * os bytes já comprimidos e Content-Encoding: gzip.
+     */
+    ResponseEntity<byte[]> ok(String recurso, int limite, String cursor, boolean aceitaGzip,
+            Supplier<? extends Pagina<?>> carregar) {
+        // Geração lida antes da consulta: o corpo nunca é mais antigo que a chave.
+        Chave chave = new Chave(recurso, limite, cursor, geracao.validador());
+        Corpo corpo = cache.get(chave, ignorada -> serializar(carregar.get()));
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (corpo.proximoCursor() != null) {
+            response.header(PaginaResponse.HEADER_PROXIMO_CURSOR, corpo.proximoCursor());
+        }
+        if (aceitaGzip && corpo.gzip() != null) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(corpo.gzip());
+        }
+        return response.body(corpo.json());
+    }
+
+    static boolean aceitaGzip(String acceptEncoding) {
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    private Corpo serializar(Pagina<?> pagina) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(pagina.getItens());
+            byte[] gzip = gzipHabilitado && json.length >= TAMANHO_MINIMO_GZIP ? gzip(json) : null;
+            return new Corpo(json, gzip, pagina.getProximoCursor());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar listagem", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return saida.toByteArray();
+    }
+}
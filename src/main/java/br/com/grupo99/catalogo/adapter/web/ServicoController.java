@@ -1,27 +1,50 @@
 package br.com.grupo99.catalogo.adapter.web;
 
+import br.com.grupo99.catalogo.application.dto.BuscaEmLoteRequestDTO;
+import br.com.grupo99.catalogo.application.dto.BuscaEmLoteResponseDTO;
 import br.com.grupo99.catalogo.application.dto.ServicoRequestDTO;
 import br.com.grupo99.catalogo.application.dto.ServicoResponseDTO;
+import br.com.grupo99.catalogo.application.service.GeracaoCatalogo;
 import br.com.grupo99.catalogo.application.service.ServicoApplicationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * REST Controller para Serviço.
  * Migrado para MongoDB/DocumentDB - ID agora é String.
+ * Listagens são paginadas por limit/cursor (ver {@link PaginaResponse}).
+ * Leituras aceitam fields=campo1,campo2 para projetar só os campos pedidos.
+ * PATCH /{id} aceita JSON Merge Patch dos campos escalares.
+ * GETs de item e de listas respondem 304 a If-None-Match (ver {@link RespostaCondicional}).
+ * A listagem de ativos sai de bytes pré-serializados (ver {@link RespostasSerializadas}).
  */
 @RestController
 @RequestMapping("/api/v1/servicos")
 public class ServicoController {
+    private static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+
     private final ServicoApplicationService servicoService;
+    private final ObjectMapper objectMapper;
+    private final GeracaoCatalogo geracaoCatalogo;
+    private final RespostasSerializadas respostasSerializadas;
 
-    public ServicoController(ServicoApplicationService servicoService) {
+    public ServicoController(ServicoApplicationService servicoService, ObjectMapper objectMapper,
+            GeracaoCatalogo geracaoCatalogo, RespostasSerializadas respostasSerializadas) {
         this.servicoService = servicoService;
+        this.objectMapper = objectMapper;
+        this.geracaoCatalogo = geracaoCatalogo;
+        this.respostasSerializadas = respostasSerializadas;
     }
 
     @PostMapping
@@ -33,20 +56,68 @@ public class ServicoController {
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'MECANICO', 'CLIENTE')")
-    public ResponseEntity<List<ServicoResponseDTO>> listarTodos() {
-        return ResponseEntity.ok(servicoService.listarTodos());
+    public ResponseEntity<?> listarTodos(
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        if (RespostaCondicional.colecaoNaoModificada(webRequest, geracaoCatalogo)) {
+            return null;
+        }
+        if (fields != null) {
+            return PaginaResponse.ok(servicoService.listarTodos(limit, cursor, fields));
+        }
+        return PaginaResponse.ok(servicoService.listarTodos(limit, cursor));
+    }
+
+    /**
+     * Exportação do catálogo completo em NDJSON, com memória constante.
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MECANICO', 'CLIENTE')")
+    public ResponseEntity<StreamingResponseBody> exportar() {
+        return NdjsonResponse.ok(objectMapper, servicoService::exportarTodos);
     }
 
     @GetMapping("/ativos")
     @PreAuthorize("hasAnyRole('ADMIN', 'MECANICO', 'CLIENTE')")
-    public ResponseEntity<List<ServicoResponseDTO>> listarAtivos() {
-        return ResponseEntity.ok(servicoService.listarAtivos());
+    public ResponseEntity<?> listarAtivos(
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest) {
+        if (RespostaCondicional.colecaoNaoModificada(webRequest, geracaoCatalogo)) {
+            return null;
+        }
+        if (fields != null) {
+            return PaginaResponse.ok(servicoService.listarAtivos(limit, cursor, fields));
+        }
+        return respostasSerializadas.ok("servicos-ativos", limit, cursor, RespostasSerializadas.aceitaGzip(acceptEncoding),
+                () -> servicoService.listarAtivos(limit, cursor));
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'MECANICO', 'CLIENTE')")
-    public ResponseEntity<ServicoResponseDTO> buscarPorId(@PathVariable String id) {
-        return ResponseEntity.ok(servicoService.buscarPorId(id));
+    public ResponseEntity<?> buscarPorId(
+            @PathVariable String id,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        if (fields != null) {
+            return ResponseEntity.ok(servicoService.buscarPorId(id, fields));
+        }
+        ServicoResponseDTO servico = servicoService.buscarPorId(id);
+        if (RespostaCondicional.itemNaoModificado(webRequest, servico.getId(), servico.getUpdatedAt())) {
+            return null;
+        }
+        return ResponseEntity.ok(servico);
+    }
+
+    @PostMapping("/batch-get")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MECANICO', 'CLIENTE')")
+    public ResponseEntity<BuscaEmLoteResponseDTO<ServicoResponseDTO>> buscarEmLote(
+            @Valid @RequestBody BuscaEmLoteRequestDTO request) {
+        return ResponseEntity.ok(servicoService.buscarEmLote(request.getIds()));
     }
 
     @PutMapping("/{id}")
@@ -57,6 +128,14 @@ public class ServicoController {
         return ResponseEntity.ok(servicoService.atualizar(id, request));
     }
 
+    @PatchMapping(value = "/{id}", consumes = { MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE })
+    @PreAuthorize("hasAnyRole('ADMIN', 'MECANICO')")
+    public ResponseEntity<ServicoResponseDTO> atualizarParcial(
+            @PathVariable String id,
+            @RequestBody Map<String, Object> patch) {
+        return ResponseEntity.ok(servicoService.atualizarParcial(id, patch));
+    }
+
     @PatchMapping("/{id}/desativar")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Void> desativar(@PathVariable String id) {
@@ -73,7 +152,14 @@ public class ServicoController {
 
     @GetMapping("/categoria/{categoria}")
     @PreAuthorize("hasAnyRole('ADMIN', 'MECANICO', 'CLIENTE')")
-    public ResponseEntity<List<ServicoResponseDTO>> buscarPorCategoria(@PathVariable String categoria) {
-        return ResponseEntity.ok(servicoService.buscarPorCategoria(categoria));
+    public ResponseEntity<List<ServicoResponseDTO>> buscarPorCategoria(
+            @PathVariable String categoria,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor,
+            WebRequest webRequest) {
+        if (RespostaCondicional.colecaoNaoModificada(webRequest, geracaoCatalogo)) {
+            return null;
+        }
+        return PaginaResponse.ok(servicoService.buscarPorCategoria(categoria, limit, cursor));
     }
 }
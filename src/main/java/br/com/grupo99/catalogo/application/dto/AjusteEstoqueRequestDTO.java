@@ -0,0 +1,68 @@
+package br.com.grupo99.catalogo.application.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Ajuste de estoque em massa (inventário): pares {id, delta}; delta positivo soma,
+ * negativo baixa. Pares repetidos para o mesmo ID são somados.
+ */
+public class AjusteEstoqueRequestDTO {
+    public static final int MAX_AJUSTES = 1000;
+
+    @NotEmpty(message = "Lista de ajustes é obrigatória")
+    @Size(max = MAX_AJUSTES, message = "Máximo de " + MAX_AJUSTES + " ajustes por requisição")
+    private List<@Valid Ajuste> ajustes;
+
+    public AjusteEstoqueRequestDTO() {
+    }
+
+    public AjusteEstoqueRequestDTO(List<Ajuste> ajustes) {
+        this.ajustes = ajustes;
+    }
+
+    public List<Ajuste> getAjustes() {
+        return ajustes;
+    }
+
+    public void setAjustes(List<Ajuste> ajustes) {
+        this.ajustes = ajustes;
+    }
+
+    public static class Ajuste {
+        @NotBlank(message = "ID da peça é obrigatório")
+        private String id;
+
+        @NotNull(message = "Delta é obrigatório")
+        private Integer delta;
+
+        public Ajuste() {
+        }
+
+        public Ajuste(String id, Integer delta) {
+            this.id = id;
+            this.delta = delta;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public Integer getDelta() {
+            return delta;
+        }
+
+        public void setDelta(Integer delta) {
+            this.delta = delta;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package br.com.grupo99.catalogo.application.dto;
+
+import java.util.List;
+
+/**
+ * Resultado do ajuste de estoque em massa: quantas peças foram ajustadas e, para as
+ * demais, o motivo da falha (peça inexistente, estoque insuficiente, conflito).
+ */
+public class AjusteEstoqueResponseDTO {
+    private int aplicados;
+    private List<Falha> falhas;
+
+    public AjusteEstoqueResponseDTO() {
+    }
+
+    public AjusteEstoqueResponseDTO(int aplicados, List<Falha> falhas) {
+        this.aplicados = aplicados;
+        this.falhas = falhas;
+    }
+
+    public int getAplicados() {
+        return aplicados;
+    }
+
+    public List<Falha> getFalhas() {
+        return falhas;
+    }
+
+    public static class Falha {
+        private String id;
+        private String motivo;
+
+        public Falha() {
+        }
+
+        public Falha(String id, String motivo) {
+            this.id = id;
+            this.motivo = motivo;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getMotivo() {
+            return motivo;
+        }
+    }
+}
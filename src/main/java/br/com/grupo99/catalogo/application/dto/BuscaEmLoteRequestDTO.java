@@ -0,0 +1,30 @@
+package br.com.grupo99.catalogo.application.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BuscaEmLoteRequestDTO {
+    public static final int MAX_IDS = 1000;
+
+    @NotEmpty(message = "Lista de IDs é obrigatória")
+    @Size(max = MAX_IDS, message = "Máximo de " + MAX_IDS + " IDs por requisição")
+    private List<@NotBlank(message = "ID não pode ser vazio") String> ids;
+
+    public BuscaEmLoteRequestDTO() {
+    }
+
+    public BuscaEmLoteRequestDTO(List<String> ids) {
+        this.ids = ids;
+    }
+
+    public List<String> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<String> ids) {
+        this.ids = ids;
+    }
+}
@@ -0,0 +1,54 @@
+package br.com.grupo99.catalogo.application.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * DTO de resposta da busca em lote: itens encontrados na ordem pedida e IDs
+ * inexistentes listados à parte.
+ */
+public class BuscaEmLoteResponseDTO<T> {
+    private List<T> itens;
+    private List<String> naoEncontrados;
+
+    public BuscaEmLoteResponseDTO() {
+    }
+
+    public BuscaEmLoteResponseDTO(List<T> itens, List<String> naoEncontrados) {
+        this.itens = itens;
+        this.naoEncontrados = naoEncontrados;
+    }
+
+    /**
+     * Monta a resposta a partir dos itens encontrados, preservando a ordem dos IDs pedidos.
+     */
+    public static <D, T> BuscaEmLoteResponseDTO<T> of(List<String> idsPedidos, List<D> encontrados,
+            Function<D, String> id, Function<D, T> mapper) {
+        Map<String, D> porId = new LinkedHashMap<>();
+        encontrados.forEach(item -> porId.put(id.apply(item), item));
+
+        List<T> itens = new ArrayList<>();
+        List<String> naoEncontrados = new ArrayList<>();
+        for (String pedido : new LinkedHashSet<>(idsPedidos)) {
+            D item = porId.get(pedido);
+            if (item != null) {
+                itens.add(mapper.apply(item));
+            } else {
+                naoEncontrados.add(pedido);
+            }
+        }
+        return new BuscaEmLoteResponseDTO<>(itens, naoEncontrados);
+    }
+
+    public List<T> getItens() {
+        return itens;
+    }
+
+    public List<String> getNaoEncontrados() {
+        return naoEncontrados;
+    }
+}
@@ -0,0 +1,63 @@
+package br.com.grupo99.catalogo.application.dto;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Serializador enxuto para o parâmetro {@code fields=}: gera um Map apenas com
+ * os campos pedidos, na ordem do DTO completo.
+ *
+ * Os nomes dos campos são os mesmos dos atributos no DynamoDB, então o mesmo
+ * conjunto vira a ProjectionExpression da leitura. O ID é sempre incluído.
+ */
+public final class CamposParciais<T> {
+
+    private static final DateTimeFormatter DATA_HORA = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private final Map<String, Function<T, Object>> extratores;
+
+    CamposParciais(Map<String, Function<T, Object>> extratores) {
+        this.extratores = extratores;
+    }
+
+    /**
+     * Converte "id,nome,preco" no conjunto de campos, validando cada nome.
+     */
+    public Set<String> parse(String fields) {
+        Set<String> campos = new LinkedHashSet<>();
+        campos.add("id");
+        Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(campo -> !campo.isEmpty())
+                .forEach(campo -> {
+                    if (!extratores.containsKey(campo)) {
+                        throw new IllegalArgumentException("Campo inválido em fields: " + campo);
+                    }
+                    campos.add(campo);
+                });
+        return campos;
+    }
+
+    public Map<String, Object> serializar(T item, Set<String> campos) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        extratores.forEach((campo, extrator) -> {
+            if (campos.contains(campo)) {
+                Object valor = extrator.apply(item);
+                if (valor != null) {
+                    result.put(campo, valor);
+                }
+            }
+        });
+        return result;
+    }
+
+    static String dataHora(LocalDateTime valor) {
+        return valor != null ? valor.format(DATA_HORA) : null;
+    }
+}
@@ -0,0 +1,90 @@
+package br.com.grupo99.catalogo.application.dto;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Validação de JSON Merge Patch (RFC 7396) restrita aos campos escalares editáveis.
+ *
+ * O resultado mapeia nome do atributo no DynamoDB para o valor já convertido;
+ * valor null significa remover o atributo (só permitido em campos opcionais).
+ */
+public final class MergePatch {
+
+    private final Map<String, Campo> campos;
+
+    MergePatch(Map<String, Campo> campos) {
+        this.campos = campos;
+    }
+
+    public Map<String, Object> parse(Map<String, Object> patch) {
+        if (patch == null || patch.isEmpty()) {
+            throw new IllegalArgumentException("Patch vazio");
+        }
+        Map<String, Object> alteracoes = new LinkedHashMap<>();
+        patch.forEach((nome, valor) -> {
+            Campo campo = campos.get(nome);
+            if (campo == null) {
+                throw new IllegalArgumentException("Campo não pode ser alterado via PATCH: " + nome);
+            }
+            if (valor == null && campo.obrigatorio()) {
+                throw new IllegalArgumentException("Campo obrigatório não pode ser removido: " + nome);
+            }
+            alteracoes.put(nome, valor != null ? campo.conversor().apply(nome, valor) : null);
+        });
+        return alteracoes;
+    }
+
+    record Campo(BiFunction<String, Object, Object> conversor, boolean obrigatorio) {
+    }
+
+    static Campo texto() {
+        return new Campo(MergePatch::texto, false);
+    }
+
+    static Campo textoObrigatorio() {
+        return new Campo((nome, valor) -> {
+            String texto = texto(nome, valor);
+            if (texto.isBlank()) {
+                throw new IllegalArgumentException("Campo não pode ser vazio: " + nome);
+            }
+            return texto;
+        }, true);
+    }
+
+    static Campo decimalPositivo(boolean obrigatorio) {
+        return new Campo((nome, valor) -> {
+            BigDecimal numero = new BigDecimal(numero(nome, valor).toString());
+            if (numero.signum() <= 0) {
+                throw new IllegalArgumentException("Campo deve ser positivo: " + nome);
+            }
+            return numero;
+        }, obrigatorio);
+    }
+
+    static Campo inteiroPositivo(boolean obrigatorio) {
+        return new Campo((nome, valor) -> {
+            Number numero = numero(nome, valor);
+            if (!(numero instanceof Integer) || numero.intValue() <= 0) {
+                throw new IllegalArgumentException("Campo deve ser um inteiro positivo: " + nome);
+            }
+            return numero;
+        }, obrigatorio);
+    }
+
+    private static String texto(String nome, Object valor) {
+        if (!(valor instanceof String texto)) {
+            throw new IllegalArgumentException("Campo deve ser texto: " + nome);
+        }
+        return texto;
+    }
+
+    private static Number numero(String nome, Object valor) {
+        if (!(valor instanceof Number numero)) {
+            throw new IllegalArgumentException("Campo deve ser numérico: " + nome);
+        }
+        return numero;
+    }
+}
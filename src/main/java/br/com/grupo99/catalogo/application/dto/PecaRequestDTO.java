@@ -4,8 +4,14 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class PecaRequestDTO {
+
+    /** Campos escalares aceitos no PATCH (merge patch), com as mesmas regras do PUT. */
+    public static final MergePatch MERGE_PATCH = new MergePatch(camposMergePatch());
+
     @NotBlank(message = "Nome da peça é obrigatório")
     private String nome;
 
@@ -84,4 +90,16 @@ public class PecaRequestDTO {
     public void setQuantidadeMinima(Integer quantidadeMinima) {
         this.quantidadeMinima = quantidadeMinima;
     }
+
+    private static Map<String, MergePatch.Campo> camposMergePatch() {
+        Map<String, MergePatch.Campo> campos = new LinkedHashMap<>();
+        campos.put("nome", MergePatch.textoObrigatorio());
+        campos.put("descricao", MergePatch.texto());
+        campos.put("codigoFabricante", MergePatch.textoObrigatorio());
+        campos.put("preco", MergePatch.decimalPositivo(true));
+        campos.put("quantidade", MergePatch.inteiroPositivo(true));
+        campos.put("quantidadeMinima", MergePatch.inteiroPositivo(false));
+        campos.put("marca", MergePatch.texto());
+        return campos;
+    }
 }
@@ -5,8 +5,10 @@ import br.com.grupo99.catalogo.domain.model.Peca;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * DTO de resposta para Peça.
@@ -14,6 +16,10 @@ import java.util.Map;
  * Inclui novos campos flexíveis do MongoDB.
  */
 public class PecaResponseDTO {
+
+    /** Campos aceitos em {@code fields=} e como extraí-los da peça. */
+    public static final CamposParciais<Peca> CAMPOS = new CamposParciais<>(camposParciais());
+
     private String id;
     private String nome;
     private String descricao;
@@ -21,6 +27,8 @@ public class PecaResponseDTO {
     private BigDecimal preco;
     private Integer quantidade;
     private Integer quantidadeMinima;
+    private Integer quantidadeReservada;
+    private Integer fragmentosEstoque;
     private Boolean ativo;
     private List<String> categorias;
     private Map<String, Object> especificacoes;
@@ -65,9 +73,32 @@ public class PecaResponseDTO {
         dto.setEspecificacoes(peca.getEspecificacoes());
         dto.setCompatibilidade(peca.getCompatibilidade());
         dto.setMarca(peca.getMarca());
+        dto.setQuantidadeReservada(peca.getQuantidadeReservada());
+        dto.setFragmentosEstoque(peca.getFragmentosEstoque());
         return dto;
     }
 
+    private static Map<String, Function<Peca, Object>> camposParciais() {
+        Map<String, Function<Peca, Object>> campos = new LinkedHashMap<>();
+        campos.put("id", Peca::getId);
+        campos.put("nome", Peca::getNome);
+        campos.put("descricao", Peca::getDescricao);
+        campos.put("codigoFabricante", Peca::getCodigoFabricante);
+        campos.put("preco", Peca::getPreco);
+        campos.put("quantidade", Peca::getQuantidade);
+        campos.put("quantidadeMinima", Peca::getQuantidadeMinima);
+        campos.put("quantidadeReservada", Peca::getQuantidadeReservada);
+        campos.put("fragmentosEstoque", Peca::getFragmentosEstoque);
+        campos.put("ativo", Peca::getAtivo);
+        campos.put("categorias", Peca::getCategorias);
+        campos.put("especificacoes", Peca::getEspecificacoes);
+        campos.put("compatibilidade", Peca::getCompatibilidade);
+        campos.put("marca", Peca::getMarca);
+        campos.put("createdAt", peca -> CamposParciais.dataHora(peca.getCreatedAt()));
+        campos.put("updatedAt", peca -> CamposParciais.dataHora(peca.getUpdatedAt()));
+        return campos;
+    }
+
     public String getId() {
         return id;
     }
@@ -96,6 +127,22 @@ public class PecaResponseDTO {
         return quantidadeMinima;
     }
 
+    public Integer getQuantidadeReservada() {
+        return quantidadeReservada;
+    }
+
+    public void setQuantidadeReservada(Integer quantidadeReservada) {
+        this.quantidadeReservada = quantidadeReservada;
+    }
+
+    public Integer getFragmentosEstoque() {
+        return fragmentosEstoque;
+    }
+
+    public void setFragmentosEstoque(Integer fragmentosEstoque) {
+        this.fragmentosEstoque = fragmentosEstoque;
+    }
+
     public Boolean getAtivo() {
         return ativo;
     }
@@ -0,0 +1,60 @@
+package br.com.grupo99.catalogo.application.dto;
+
+import br.com.grupo99.catalogo.domain.model.Reserva;
+
+/**
+ * DTO de resposta de uma reserva de estoque; expiraEm é um instante ISO-8601 (UTC).
+ */
+public class ReservaResponseDTO {
+    private String id;
+    private String pecaId;
+    private Integer quantidade;
+    private String expiraEm;
+
+    public ReservaResponseDTO() {
+    }
+
+    public ReservaResponseDTO(String id, String pecaId, Integer quantidade, String expiraEm) {
+        this.id = id;
+        this.pecaId = pecaId;
+        this.quantidade = quantidade;
+        this.expiraEm = expiraEm;
+    }
+
+    public static ReservaResponseDTO fromDomain(Reserva reserva) {
+        return new ReservaResponseDTO(reserva.getId(), reserva.getPecaId(), reserva.getQuantidade(),
+                reserva.getExpiraEm());
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getPecaId() {
+        return pecaId;
+    }
+
+    public void setPecaId(String pecaId) {
+        this.pecaId = pecaId;
+    }
+
+    public Integer getQuantidade() {
+        return quantidade;
+    }
+
+    public void setQuantidade(Integer quantidade) {
+        this.quantidade = quantidade;
+    }
+
+    public String getExpiraEm() {
+        return expiraEm;
+    }
+
+    public void setExpiraEm(String expiraEm) {
+        this.expiraEm = expiraEm;
+    }
+}
@@ -4,8 +4,14 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class ServicoRequestDTO {
+
+    /** Campos escalares aceitos no PATCH (merge patch), com as mesmas regras do PUT. */
+    public static final MergePatch MERGE_PATCH = new MergePatch(camposMergePatch());
+
     @NotBlank(message = "Nome do serviço é obrigatório")
     private String nome;
 
@@ -60,4 +66,13 @@ public class ServicoRequestDTO {
     public void setTempoEstimadoMinutos(Integer tempoEstimadoMinutos) {
         this.tempoEstimadoMinutos = tempoEstimadoMinutos;
     }
+
+    private static Map<String, MergePatch.Campo> camposMergePatch() {
+        Map<String, MergePatch.Campo> campos = new LinkedHashMap<>();
+        campos.put("nome", MergePatch.textoObrigatorio());
+        campos.put("descricao", MergePatch.texto());
+        campos.put("preco", MergePatch.decimalPositivo(true));
+        campos.put("tempoEstimadoMinutos", MergePatch.inteiroPositivo(true));
+        return campos;
+    }
 }
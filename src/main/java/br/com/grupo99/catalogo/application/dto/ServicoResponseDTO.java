@@ -5,7 +5,10 @@ import br.com.grupo99.catalogo.domain.model.Servico;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
  * DTO de resposta para Serviço.
@@ -13,6 +16,10 @@ import java.util.List;
  * Inclui novos campos flexíveis do MongoDB.
  */
 public class ServicoResponseDTO {
+
+    /** Campos aceitos em {@code fields=} e como extraí-los do serviço. */
+    public static final CamposParciais<Servico> CAMPOS = new CamposParciais<>(camposParciais());
+
     private String id;
     private String nome;
     private String descricao;
@@ -58,6 +65,22 @@ public class ServicoResponseDTO {
         return dto;
     }
 
+    private static Map<String, Function<Servico, Object>> camposParciais() {
+        Map<String, Function<Servico, Object>> campos = new LinkedHashMap<>();
+        campos.put("id", Servico::getId);
+        campos.put("nome", Servico::getNome);
+        campos.put("descricao", Servico::getDescricao);
+        campos.put("preco", Servico::getPreco);
+        campos.put("tempoEstimadoMinutos", Servico::getTempoEstimadoMinutos);
+        campos.put("ativo", Servico::getAtivo);
+        campos.put("categorias", Servico::getCategorias);
+        campos.put("pecasNecessarias", Servico::getPecasNecessarias);
+        campos.put("requisitos", Servico::getRequisitos);
+        campos.put("createdAt", servico -> CamposParciais.dataHora(servico.getCreatedAt()));
+        campos.put("updatedAt", servico -> CamposParciais.dataHora(servico.getUpdatedAt()));
+        return campos;
+    }
+
     public String getId() {
         return id;
     }
@@ -0,0 +1,49 @@
+package br.com.grupo99.catalogo.application.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Geração do catálogo (peças e serviços) vista por esta instância: avança a cada
+ * escrita local feita pelos adapters de repositório e a cada alteração trazida pela
+ * réplica. Base dos ETags das coleções.
+ *
+ * O contador é local; o identificador da instância entra no ETag para que duas
+ * instâncias na mesma geração nunca respondam 304 uma pela outra. Uma escrita feita
+ * por outra instância só avança esta geração via réplica (catalogo.replica.enabled);
+ * para que um 304 nunca esconda essa escrita por mais que catalogo.etag.janela, o
+ * validador também muda a cada janela.
+ */
+@Component
+public class GeracaoCatalogo {
+
+    private final String instancia = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong geracao = new AtomicLong();
+    private final long janelaMillis;
+
+    public GeracaoCatalogo(@Value("${catalogo.etag.janela:5s}") Duration janela) {
+        if (janela.isNegative() || janela.isZero()) {
+            throw new IllegalArgumentException("catalogo.etag.janela deve ser positiva");
+        }
+        this.janelaMillis = janela.toMillis();
+    }
+
+    public long atual() {
+        return geracao.get();
+    }
+
+    public void avancar() {
+        geracao.incrementAndGet();
+    }
+
+    /**
+     * Validador das coleções: instância, geração e janela de tempo corrente.
+     */
+    public String validador() {
+        return instancia + "-" + geracao.get() + "-" + System.currentTimeMillis() / janelaMillis;
+    }
+}
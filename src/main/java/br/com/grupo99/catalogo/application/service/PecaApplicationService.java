@@ -1,13 +1,25 @@
 package br.com.grupo99.catalogo.application.service;
 
+import br.com.grupo99.catalogo.application.dto.AjusteEstoqueRequestDTO;
+import br.com.grupo99.catalogo.application.dto.AjusteEstoqueResponseDTO;
+import br.com.grupo99.catalogo.application.dto.BuscaEmLoteResponseDTO;
 import br.com.grupo99.catalogo.application.dto.PecaRequestDTO;
 import br.com.grupo99.catalogo.application.dto.PecaResponseDTO;
+import br.com.grupo99.catalogo.application.dto.ReservaResponseDTO;
+import br.com.grupo99.catalogo.domain.model.Pagina;
 import br.com.grupo99.catalogo.domain.model.Peca;
+import br.com.grupo99.catalogo.domain.model.Reserva;
 import br.com.grupo99.catalogo.domain.repository.PecaRepository;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Application Service para Peça.
@@ -15,6 +27,10 @@ import java.util.stream.Collectors;
  */
 @Service
 public class PecaApplicationService {
+    static final Duration VALIDADE_PADRAO_RESERVA = Duration.ofMinutes(30);
+    static final Duration VALIDADE_MAXIMA_RESERVA = Duration.ofDays(7);
+    private static final int LOTE_RESERVAS_EXPIRADAS = 100;
+
     private final PecaRepository pecaRepository;
 
     public PecaApplicationService(PecaRepository pecaRepository) {
@@ -35,82 +51,245 @@ public class PecaApplicationService {
         return PecaResponseDTO.fromDomain(peca);
     }
 
+    /**
+     * Busca vários IDs com BatchGetItem; IDs inexistentes são reportados em naoEncontrados.
+     */
+    public BuscaEmLoteResponseDTO<PecaResponseDTO> buscarEmLote(List<String> ids) {
+        return BuscaEmLoteResponseDTO.of(ids, pecaRepository.findAllById(ids), Peca::getId,
+                PecaResponseDTO::fromDomain);
+    }
+
+    /**
+     * Busca com sparse fieldset: projeta só os campos de {@code fields} no DynamoDB.
+     */
+    public Map<String, Object> buscarPorId(String id, String fields) {
+        Set<String> campos = PecaResponseDTO.CAMPOS.parse(fields);
+        Peca peca = pecaRepository.findById(id, campos)
+                .orElseThrow(() -> new RuntimeException("Peça não encontrada com ID: " + id));
+        return PecaResponseDTO.CAMPOS.serializar(peca, campos);
+    }
+
     public PecaResponseDTO buscarPorId(String id) {
         Peca peca = pecaRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Peça não encontrada com ID: " + id));
         return PecaResponseDTO.fromDomain(peca);
     }
 
-    public List<PecaResponseDTO> listarTodas() {
-        return pecaRepository.findAll()
-                .stream()
-                .map(PecaResponseDTO::fromDomain)
-                .collect(Collectors.toList());
+    public Pagina<PecaResponseDTO> listarTodas(int limite, String cursor) {
+        return pecaRepository.findAll(Pagina.limitar(limite), cursor)
+                .map(PecaResponseDTO::fromDomain);
     }
 
-    public List<PecaResponseDTO> listarAtivas() {
-        return pecaRepository.findByAtivoTrueOrderByNomeAsc()
-                .stream()
-                .map(PecaResponseDTO::fromDomain)
-                .collect(Collectors.toList());
+    public Pagina<Map<String, Object>> listarTodas(int limite, String cursor, String fields) {
+        Set<String> campos = PecaResponseDTO.CAMPOS.parse(fields);
+        return pecaRepository.findAll(Pagina.limitar(limite), cursor, campos)
+                .map(peca -> PecaResponseDTO.CAMPOS.serializar(peca, campos));
+    }
+
+    /**
+     * Catálogo completo para exportação em streaming; fechar o Stream ao final.
+     */
+    public Stream<PecaResponseDTO> exportarTodas() {
+        return pecaRepository.streamAll().map(PecaResponseDTO::fromDomain);
+    }
+
+    public Pagina<PecaResponseDTO> listarAtivas(int limite, String cursor) {
+        return pecaRepository.findByAtivoTrueOrderByNomeAsc(Pagina.limitar(limite), cursor)
+                .map(PecaResponseDTO::fromDomain);
+    }
+
+    public Pagina<Map<String, Object>> listarAtivas(int limite, String cursor, String fields) {
+        Set<String> campos = PecaResponseDTO.CAMPOS.parse(fields);
+        return pecaRepository.findByAtivoTrueOrderByNomeAsc(Pagina.limitar(limite), cursor, campos)
+                .map(peca -> PecaResponseDTO.CAMPOS.serializar(peca, campos));
     }
 
+    /**
+     * Leitura-alteração-escrita com lock otimista; em conflito de versão relê e reaplica.
+     */
     public PecaResponseDTO atualizar(String id, PecaRequestDTO request) {
-        Peca peca = pecaRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Peça não encontrada com ID: " + id));
+        return RetentativaOtimista.executar(() -> {
+            Peca peca = pecaRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Peça não encontrada com ID: " + id));
 
-        peca.setNome(request.getNome());
-        peca.setDescricao(request.getDescricao());
-        peca.setCodigoFabricante(request.getCodigoFabricante());
-        peca.setPreco(request.getPreco());
-        peca.setQuantidade(request.getQuantidade());
-        if (request.getQuantidadeMinima() != null) {
-            peca.setQuantidadeMinima(request.getQuantidadeMinima());
-        }
+            peca.setNome(request.getNome());
+            peca.setDescricao(request.getDescricao());
+            peca.setCodigoFabricante(request.getCodigoFabricante());
+            peca.setPreco(request.getPreco());
+            peca.setQuantidade(request.getQuantidade());
+            if (request.getQuantidadeMinima() != null) {
+                peca.setQuantidadeMinima(request.getQuantidadeMinima());
+            }
 
-        peca = pecaRepository.save(peca);
-        return PecaResponseDTO.fromDomain(peca);
+            return PecaResponseDTO.fromDomain(pecaRepository.save(peca));
+        });
     }
 
-    public void desativar(String id) {
-        Peca peca = pecaRepository.findById(id)
+    /**
+     * JSON Merge Patch: grava só os campos enviados em um UpdateItem, sem reescrever o item.
+     * A quantidade de uma peça fragmentada vai numa transação condicionada ao saldo lido
+     * dos fragmentos, refeita se eles mudarem no meio.
+     */
+    public PecaResponseDTO atualizarParcial(String id, Map<String, Object> patch) {
+        Map<String, Object> alteracoes = PecaRequestDTO.MERGE_PATCH.parse(patch);
+        return RetentativaOtimista.executar(() -> pecaRepository.atualizarCampos(id, alteracoes))
+                .map(PecaResponseDTO::fromDomain)
                 .orElseThrow(() -> new RuntimeException("Peça não encontrada com ID: " + id));
-        peca.setAtivo(false);
-        pecaRepository.save(peca);
     }
 
+    /**
+     * Uma única escrita condicional: ativo = false e saída do índice de ativos.
+     */
+    public void desativar(String id) {
+        if (!pecaRepository.desativar(id)) {
+            throw new RuntimeException("Peça não encontrada com ID: " + id);
+        }
+    }
+
+    /**
+     * DeleteItem condicional; a inexistência vem da própria escrita, sem leitura prévia.
+     */
     public void deletar(String id) {
-        if (!pecaRepository.existsById(id)) {
+        if (!pecaRepository.deleteById(id)) {
             throw new RuntimeException("Peça não encontrada com ID: " + id);
         }
-        pecaRepository.deleteById(id);
     }
 
+    /**
+     * Baixa de estoque em um único UpdateItem condicional (sem read-modify-write).
+     * Numa peça fragmentada a baixa pode precisar consolidar os fragmentos; um conflito
+     * aí acontece antes de qualquer baixa, então a retentativa é segura.
+     */
     public void decrementarEstoque(String id, Integer quantidade) {
-        Peca peca = pecaRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Peça não encontrada com ID: " + id));
-        peca.decrementarQuantidade(quantidade);
-        pecaRepository.save(peca);
+        int baixa = validarQuantidade(quantidade);
+        RetentativaOtimista.executar(() -> {
+            pecaRepository.decrementarQuantidade(id, baixa);
+            return null;
+        });
     }
 
     public void incrementarEstoque(String id, Integer quantidade) {
-        Peca peca = pecaRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Peça não encontrada com ID: " + id));
-        peca.incrementarQuantidade(quantidade);
-        pecaRepository.save(peca);
+        pecaRepository.incrementarQuantidade(id, validarQuantidade(quantidade));
     }
 
-    public List<PecaResponseDTO> buscarPorCategoria(String categoria) {
-        return pecaRepository.findByCategoria(categoria)
-                .stream()
-                .map(PecaResponseDTO::fromDomain)
-                .collect(Collectors.toList());
+    /**
+     * Contador fragmentado para peças muito disputadas: o estoque se divide em N
+     * contadores e cada baixa/entrada cai num deles, multiplicando a vazão de escrita.
+     * 1 volta ao contador único.
+     */
+    public void fragmentarEstoque(String id, Integer fragmentos) {
+        if (fragmentos == null || fragmentos < 1 || fragmentos > Peca.MAX_FRAGMENTOS_ESTOQUE) {
+            throw new IllegalArgumentException("Fragmentos de estoque devem ficar entre 1 e "
+                    + Peca.MAX_FRAGMENTOS_ESTOQUE);
+        }
+        RetentativaOtimista.executar(() -> {
+            pecaRepository.definirFragmentosEstoque(id, fragmentos);
+            return null;
+        });
     }
 
-    public List<PecaResponseDTO> buscarPorMarca(String marca) {
-        return pecaRepository.findByMarca(marca)
-                .stream()
-                .map(PecaResponseDTO::fromDomain)
+    /**
+     * Ajuste de inventário: aplica todos os deltas em transações em lote e devolve as
+     * falhas por peça em vez de parar na primeira. Deltas do mesmo ID são somados.
+     */
+    public AjusteEstoqueResponseDTO ajustarEstoque(List<AjusteEstoqueRequestDTO.Ajuste> ajustes) {
+        Map<String, Integer> porId = new LinkedHashMap<>();
+        ajustes.forEach(ajuste -> porId.merge(ajuste.getId(), ajuste.getDelta(), Integer::sum));
+        Map<String, String> falhas = pecaRepository.ajustarQuantidades(porId);
+        List<AjusteEstoqueResponseDTO.Falha> detalhes = porId.keySet().stream()
+                .filter(falhas::containsKey)
+                .map(id -> new AjusteEstoqueResponseDTO.Falha(id, falhas.get(id)))
                 .collect(Collectors.toList());
+        return new AjusteEstoqueResponseDTO(porId.size() - detalhes.size(), detalhes);
+    }
+
+    /**
+     * Reserva estoque entre o orçamento e o fechamento da OS: a quantidade sai do
+     * disponível na hora e volta sozinha se a reserva não for confirmada no prazo.
+     *
+     * Reservas simultâneas da mesma peça disputam o item no DynamoDB e se cancelam
+     * (TransactionConflict); cada uma é repetida até
+     * {@link RetentativaOtimista#MAX_TENTATIVAS_RESERVA} vezes e só então vira
+     * {@link ConflitoDeVersaoException} (409), nunca estoque vendido duas vezes.
+     */
+    public ReservaResponseDTO reservarEstoque(String pecaId, Integer quantidade, Integer validadeMinutos) {
+        int reservada = validarQuantidade(quantidade);
+        Duration validade = validarValidade(validadeMinutos);
+        return ReservaResponseDTO.fromDomain(RetentativaOtimista.executar(RetentativaOtimista.MAX_TENTATIVAS_RESERVA,
+                () -> pecaRepository.reservar(new Reserva(pecaId, reservada, validade))));
+    }
+
+    /**
+     * Fecha a reserva: a quantidade reservada sai de vez do estoque.
+     */
+    public void confirmarReserva(String reservaId) {
+        Reserva reserva = buscarReserva(reservaId);
+        if (reserva.expiradaEm(Instant.now())) {
+            throw new IllegalArgumentException("Reserva expirada");
+        }
+        if (!RetentativaOtimista.executar(RetentativaOtimista.MAX_TENTATIVAS_RESERVA,
+                () -> pecaRepository.confirmarReserva(reserva))) {
+            throw new RuntimeException("Reserva não encontrada com ID: " + reservaId);
+        }
+    }
+
+    /**
+     * Cancela a reserva e devolve a quantidade ao disponível.
+     */
+    public void liberarReserva(String reservaId) {
+        Reserva reserva = buscarReserva(reservaId);
+        if (!RetentativaOtimista.executar(RetentativaOtimista.MAX_TENTATIVAS_RESERVA,
+                () -> pecaRepository.liberarReserva(reserva))) {
+            throw new RuntimeException("Reserva não encontrada com ID: " + reservaId);
+        }
+    }
+
+    /**
+     * Devolve ao disponível o estoque das reservas vencidas; chamado pela varredura periódica.
+     *
+     * @return quantidade de reservas liberadas
+     */
+    public int liberarReservasExpiradas() {
+        int total = 0;
+        int liberadas;
+        do {
+            liberadas = pecaRepository.liberarReservasExpiradas(LOTE_RESERVAS_EXPIRADAS);
+            total += liberadas;
+        } while (liberadas == LOTE_RESERVAS_EXPIRADAS);
+        return total;
+    }
+
+    private Reserva buscarReserva(String reservaId) {
+        return pecaRepository.findReservaById(reservaId)
+                .orElseThrow(() -> new RuntimeException("Reserva não encontrada com ID: " + reservaId));
+    }
+
+    private static Duration validarValidade(Integer validadeMinutos) {
+        if (validadeMinutos == null) {
+            return VALIDADE_PADRAO_RESERVA;
+        }
+        Duration validade = Duration.ofMinutes(validadeMinutos);
+        if (validadeMinutos <= 0 || validade.compareTo(VALIDADE_MAXIMA_RESERVA) > 0) {
+            throw new IllegalArgumentException("Validade da reserva deve ficar entre 1 e "
+                    + VALIDADE_MAXIMA_RESERVA.toMinutes() + " minutos");
+        }
+        return validade;
+    }
+
+    private static int validarQuantidade(Integer quantidade) {
+        if (quantidade == null || quantidade <= 0) {
+            throw new IllegalArgumentException("Quantidade deve ser positiva");
+        }
+        return quantidade;
+    }
+
+    public Pagina<PecaResponseDTO> buscarPorCategoria(String categoria, int limite, String cursor) {
+        return pecaRepository.findByCategoria(categoria, Pagina.limitar(limite), cursor)
+                .map(PecaResponseDTO::fromDomain);
+    }
+
+    public Pagina<PecaResponseDTO> buscarPorMarca(String marca, int limite, String cursor) {
+        return pecaRepository.findByMarca(marca, Pagina.limitar(limite), cursor)
+                .map(PecaResponseDTO::fromDomain);
     }
 }
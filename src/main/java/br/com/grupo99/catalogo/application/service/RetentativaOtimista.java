@@ -0,0 +1,53 @@
+package br.com.grupo99.catalogo.application.service;
+
+import br.com.grupo99.catalogo.domain.exception.ConflitoDeVersaoException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Repete um ciclo leitura-alteração-escrita quando a escrita perde a corrida de versão.
+ * Cada tentativa relê o item; o intervalo entre tentativas tem jitter para que
+ * escritores concorrentes não colidam de novo no mesmo instante.
+ *
+ * Reservas usam {@link #MAX_TENTATIVAS_RESERVA}: numa peça muito disputada as
+ * transações se cancelam umas às outras (TransactionConflict) e várias tentativas
+ * seguidas podem perder a corrida, sem que haja falta de estoque.
+ */
+final class RetentativaOtimista {
+
+    static final int MAX_TENTATIVAS = 3;
+    static final int MAX_TENTATIVAS_RESERVA = 8;
+    private static final long BACKOFF_BASE_MS = 20;
+    private static final long BACKOFF_MAX_MS = 640;
+
+    private RetentativaOtimista() {
+    }
+
+    static <T> T executar(Supplier<T> operacao) {
+        return executar(MAX_TENTATIVAS, operacao);
+    }
+
+    static <T> T executar(int maxTentativas, Supplier<T> operacao) {
+        for (int tentativa = 1;; tentativa++) {
+            try {
+                return operacao.get();
+            } catch (ConflitoDeVersaoException e) {
+                if (tentativa >= maxTentativas) {
+                    throw e;
+                }
+                aguardar(tentativa);
+            }
+        }
+    }
+
+    private static void aguardar(int tentativa) {
+        long teto = Math.min(BACKOFF_BASE_MS << tentativa, BACKOFF_MAX_MS);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(teto / 2, teto + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando nova tentativa", e);
+        }
+    }
+}
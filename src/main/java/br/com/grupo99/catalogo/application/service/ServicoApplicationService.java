@@ -1,13 +1,17 @@
 package br.com.grupo99.catalogo.application.service;
 
+import br.com.grupo99.catalogo.application.dto.BuscaEmLoteResponseDTO;
 import br.com.grupo99.catalogo.application.dto.ServicoRequestDTO;
 import br.com.grupo99.catalogo.application.dto.ServicoResponseDTO;
+import br.com.grupo99.catalogo.domain.model.Pagina;
 import br.com.grupo99.catalogo.domain.model.Servico;
 import br.com.grupo99.catalogo.domain.repository.ServicoRepository;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Application Service para Serviço.
@@ -31,57 +35,106 @@ public class ServicoApplicationService {
         return ServicoResponseDTO.fromDomain(servico);
     }
 
+    /**
+     * Busca vários IDs com BatchGetItem; IDs inexistentes são reportados em naoEncontrados.
+     */
+    public BuscaEmLoteResponseDTO<ServicoResponseDTO> buscarEmLote(List<String> ids) {
+        return BuscaEmLoteResponseDTO.of(ids, servicoRepository.findAllById(ids), Servico::getId,
+                ServicoResponseDTO::fromDomain);
+    }
+
+    /**
+     * Busca com sparse fieldset: projeta só os campos de {@code fields} no DynamoDB.
+     */
+    public Map<String, Object> buscarPorId(String id, String fields) {
+        Set<String> campos = ServicoResponseDTO.CAMPOS.parse(fields);
+        Servico servico = servicoRepository.findById(id, campos)
+                .orElseThrow(() -> new RuntimeException("Serviço não encontrado com ID: " + id));
+        return ServicoResponseDTO.CAMPOS.serializar(servico, campos);
+    }
+
     public ServicoResponseDTO buscarPorId(String id) {
         Servico servico = servicoRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Serviço não encontrado com ID: " + id));
         return ServicoResponseDTO.fromDomain(servico);
     }
 
-    public List<ServicoResponseDTO> listarTodos() {
-        return servicoRepository.findAll()
-                .stream()
-                .map(ServicoResponseDTO::fromDomain)
-                .collect(Collectors.toList());
+    public Pagina<ServicoResponseDTO> listarTodos(int limite, String cursor) {
+        return servicoRepository.findAll(Pagina.limitar(limite), cursor)
+                .map(ServicoResponseDTO::fromDomain);
     }
 
-    public List<ServicoResponseDTO> listarAtivos() {
-        return servicoRepository.findByAtivoTrueOrderByNomeAsc()
-                .stream()
-                .map(ServicoResponseDTO::fromDomain)
-                .collect(Collectors.toList());
+    public Pagina<Map<String, Object>> listarTodos(int limite, String cursor, String fields) {
+        Set<String> campos = ServicoResponseDTO.CAMPOS.parse(fields);
+        return servicoRepository.findAll(Pagina.limitar(limite), cursor, campos)
+                .map(servico -> ServicoResponseDTO.CAMPOS.serializar(servico, campos));
+    }
+
+    /**
+     * Catálogo completo para exportação em streaming; fechar o Stream ao final.
+     */
+    public Stream<ServicoResponseDTO> exportarTodos() {
+        return servicoRepository.streamAll().map(ServicoResponseDTO::fromDomain);
+    }
+
+    public Pagina<ServicoResponseDTO> listarAtivos(int limite, String cursor) {
+        return servicoRepository.findByAtivoTrueOrderByNomeAsc(Pagina.limitar(limite), cursor)
+                .map(ServicoResponseDTO::fromDomain);
+    }
+
+    public Pagina<Map<String, Object>> listarAtivos(int limite, String cursor, String fields) {
+        Set<String> campos = ServicoResponseDTO.CAMPOS.parse(fields);
+        return servicoRepository.findByAtivoTrueOrderByNomeAsc(Pagina.limitar(limite), cursor, campos)
+                .map(servico -> ServicoResponseDTO.CAMPOS.serializar(servico, campos));
     }
 
+    /**
+     * Leitura-alteração-escrita com lock otimista; em conflito de versão relê e reaplica.
+     */
     public ServicoResponseDTO atualizar(String id, ServicoRequestDTO request) {
-        Servico servico = servicoRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Serviço não encontrado com ID: " + id));
+        return RetentativaOtimista.executar(() -> {
+            Servico servico = servicoRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Serviço não encontrado com ID: " + id));
 
-        servico.setNome(request.getNome());
-        servico.setDescricao(request.getDescricao());
-        servico.setPreco(request.getPreco());
-        servico.setTempoEstimadoMinutos(request.getTempoEstimadoMinutos());
+            servico.setNome(request.getNome());
+            servico.setDescricao(request.getDescricao());
+            servico.setPreco(request.getPreco());
+            servico.setTempoEstimadoMinutos(request.getTempoEstimadoMinutos());
 
-        servico = servicoRepository.save(servico);
-        return ServicoResponseDTO.fromDomain(servico);
+            return ServicoResponseDTO.fromDomain(servicoRepository.save(servico));
+        });
     }
 
-    public void desativar(String id) {
-        Servico servico = servicoRepository.findById(id)
+    /**
+     * JSON Merge Patch: grava só os campos enviados em um UpdateItem, sem reescrever o item.
+     */
+    public ServicoResponseDTO atualizarParcial(String id, Map<String, Object> patch) {
+        Map<String, Object> alteracoes = ServicoRequestDTO.MERGE_PATCH.parse(patch);
+        return servicoRepository.atualizarCampos(id, alteracoes)
+                .map(ServicoResponseDTO::fromDomain)
                 .orElseThrow(() -> new RuntimeException("Serviço não encontrado com ID: " + id));
-        servico.setAtivo(false);
-        servicoRepository.save(servico);
     }
 
+    /**
+     * Uma única escrita condicional: ativo = false e saída do índice de ativos.
+     */
+    public void desativar(String id) {
+        if (!servicoRepository.desativar(id)) {
+            throw new RuntimeException("Serviço não encontrado com ID: " + id);
+        }
+    }
+
+    /**
+     * DeleteItem condicional; a inexistência vem da própria escrita, sem leitura prévia.
+     */
     public void deletar(String id) {
-        if (!servicoRepository.existsById(id)) {
+        if (!servicoRepository.deleteById(id)) {
             throw new RuntimeException("Serviço não encontrado com ID: " + id);
         }
-        servicoRepository.deleteById(id);
     }
 
-    public List<ServicoResponseDTO> buscarPorCategoria(String categoria) {
-        return servicoRepository.findByCategoria(categoria)
-                .stream()
-                .map(ServicoResponseDTO::fromDomain)
-                .collect(Collectors.toList());
+    public Pagina<ServicoResponseDTO> buscarPorCategoria(String categoria, int limite, String cursor) {
+        return servicoRepository.findByCategoria(categoria, Pagina.limitar(limite), cursor)
+                .map(ServicoResponseDTO::fromDomain);
     }
 }
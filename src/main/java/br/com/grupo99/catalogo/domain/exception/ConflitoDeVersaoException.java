@@ -0,0 +1,12 @@
+package br.com.grupo99.catalogo.domain.exception;
+
+/**
+ * Escrita rejeitada porque o item foi alterado por outra requisição depois de lido
+ * (lock otimista pelo atributo {@code version}).
+ */
+public class ConflitoDeVersaoException extends RuntimeException {
+
+    public ConflitoDeVersaoException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
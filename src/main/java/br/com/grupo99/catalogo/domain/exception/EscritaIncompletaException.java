@@ -0,0 +1,12 @@
+package br.com.grupo99.catalogo.domain.exception;
+
+/**
+ * Escrita gravada só em parte: o item principal foi salvo, mas uma escrita
+ * derivada (índice de categorias) não foi concluída. A operação pode ser repetida.
+ */
+public class EscritaIncompletaException extends RuntimeException {
+
+    public EscritaIncompletaException(String message) {
+        super(message);
+    }
+}
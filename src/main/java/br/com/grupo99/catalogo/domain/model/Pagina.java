@@ -0,0 +1,50 @@
+package br.com.grupo99.catalogo.domain.model;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Página de resultados com cursor opaco para a próxima página.
+ *
+ * O cursor é gerado e interpretado pela camada adapter; para o domínio ele é
+ * apenas uma String. {@code proximoCursor == null} indica a última página.
+ * Páginas com filtro podem vir com menos itens que o limite e ainda ter cursor.
+ */
+public class Pagina<T> {
+
+    public static final int LIMITE_PADRAO = 50;
+
+    public static final int LIMITE_MAXIMO = 500;
+
+    private final List<T> itens;
+
+    private final String proximoCursor;
+
+    public Pagina(List<T> itens, String proximoCursor) {
+        this.itens = itens;
+        this.proximoCursor = proximoCursor;
+    }
+
+    /**
+     * Valida o limite solicitado e o restringe a {@link #LIMITE_MAXIMO}.
+     */
+    public static int limitar(int limite) {
+        if (limite < 1) {
+            throw new IllegalArgumentException("Limite deve ser positivo");
+        }
+        return Math.min(limite, LIMITE_MAXIMO);
+    }
+
+    public <R> Pagina<R> map(Function<T, R> mapper) {
+        return new Pagina<>(itens.stream().map(mapper).collect(Collectors.toList()), proximoCursor);
+    }
+
+    public List<T> getItens() {
+        return itens;
+    }
+
+    public String getProximoCursor() {
+        return proximoCursor;
+    }
+}
@@ -1,9 +1,12 @@
 package br.com.grupo99.catalogo.domain.model;
 
-import br.com.grupo99.catalogo.adapter.config.JsonMapConverter;
+import br.com.grupo99.catalogo.adapter.config.DynamoDbMapConverter;
+import software.amazon.awssdk.enhanced.dynamodb.extensions.annotations.DynamoDbVersionAttribute;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbConvertedBy;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondaryPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondarySortKey;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -22,6 +25,32 @@ import java.util.UUID;
 @DynamoDbBean
 public class Peca {
 
+    /** GSI para busca por código do fabricante (leitura do código de barras no balcão). */
+    public static final String INDEX_CODIGO_FABRICANTE = "codigoFabricante-index";
+
+    /**
+     * GSI esparso de itens ativos ordenado por nome: só recebe o item enquanto
+     * ativo = true, pois ativoParticao é omitido do item quando inativo.
+     */
+    public static final String INDEX_ATIVO = "ativo-nome-index";
+
+    public static final String PARTICAO_ATIVO = "ATIVO";
+
+    /**
+     * GSI de alterações com updatedAt como sort key, usado pela réplica em memória para
+     * buscar só o que mudou desde a última sincronização. A partição é espalhada em
+     * {@link #PARTICOES_ATUALIZACAO} valores (ITEM#0, ITEM#1...) derivados do ID, para as
+     * escritas não se concentrarem numa única chave do índice; a consulta lê todas.
+     */
+    public static final String INDEX_ATUALIZACAO = "atualizacao-index";
+
+    public static final String PARTICAO_ATUALIZACAO = "ITEM";
+
+    public static final int PARTICOES_ATUALIZACAO = 16;
+
+    /** Teto de {@link #fragmentosEstoque}: a consolidação cabe num TransactWriteItems (100 itens). */
+    public static final int MAX_FRAGMENTOS_ESTOQUE = 32;
+
     private String id;
 
     private String nome;
@@ -32,12 +61,25 @@ public class Peca {
 
     private BigDecimal preco;
 
+    /** Quantidade disponível: já descontadas as reservas em aberto. */
     private Integer quantidade;
 
+    /** Quantidade presa em reservas ainda não confirmadas nem liberadas ({@link Reserva}). */
+    private Integer quantidadeReservada;
+
+    /**
+     * Contador fragmentado para peças muito disputadas: com N > 1, o estoque fica
+     * dividido entre este item (fragmento 0) e N - 1 itens da tabela pecas-estoque,
+     * e {@link #quantidade} lida do repositório já é a soma. Nulo ou 1: contador único.
+     */
+    private Integer fragmentosEstoque;
+
     private Integer quantidadeMinima = 5;
 
     private Boolean ativo = true;
 
+    private String atualizacaoParticao;
+
     // Campos flexíveis - armazenados nativamente no DynamoDB
     private List<String> categorias;
 
@@ -51,6 +93,8 @@ public class Peca {
 
     private LocalDateTime updatedAt;
 
+    private Long version;
+
     public Peca() {
         this.id = UUID.randomUUID().toString();
     }
@@ -86,6 +130,7 @@ public class Peca {
         this.id = id;
     }
 
+    @DynamoDbSecondarySortKey(indexNames = INDEX_ATIVO)
     public String getNome() {
         return nome;
     }
@@ -102,6 +147,7 @@ public class Peca {
         this.descricao = descricao;
     }
 
+    @DynamoDbSecondaryPartitionKey(indexNames = INDEX_CODIGO_FABRICANTE)
     public String getCodigoFabricante() {
         return codigoFabricante;
     }
@@ -126,6 +172,22 @@ public class Peca {
         this.quantidade = quantidade;
     }
 
+    public Integer getQuantidadeReservada() {
+        return quantidadeReservada;
+    }
+
+    public void setQuantidadeReservada(Integer quantidadeReservada) {
+        this.quantidadeReservada = quantidadeReservada;
+    }
+
+    public Integer getFragmentosEstoque() {
+        return fragmentosEstoque;
+    }
+
+    public void setFragmentosEstoque(Integer fragmentosEstoque) {
+        this.fragmentosEstoque = fragmentosEstoque;
+    }
+
     public Integer getQuantidadeMinima() {
         return quantidadeMinima;
     }
@@ -142,6 +204,38 @@ public class Peca {
         this.ativo = ativo;
     }
 
+    /**
+     * Chave do GSI esparso, derivada de {@code ativo}. Null (não gravado) quando inativo.
+     */
+    @DynamoDbSecondaryPartitionKey(indexNames = INDEX_ATIVO)
+    public String getAtivoParticao() {
+        return Boolean.TRUE.equals(ativo) ? PARTICAO_ATIVO : null;
+    }
+
+    public void setAtivoParticao(String ativoParticao) {
+        // Derivado de ativo; o valor lido do DynamoDB é ignorado.
+    }
+
+    /**
+     * Chave do GSI de alterações, gravada pelo repositório só com a réplica habilitada
+     * (catalogo.replica.enabled); null deixa o item fora do índice.
+     */
+    @DynamoDbSecondaryPartitionKey(indexNames = INDEX_ATUALIZACAO)
+    public String getAtualizacaoParticao() {
+        return atualizacaoParticao;
+    }
+
+    public void setAtualizacaoParticao(String atualizacaoParticao) {
+        this.atualizacaoParticao = atualizacaoParticao;
+    }
+
+    /**
+     * Partição do GSI de alterações para o ID: ITEM#0 a ITEM#{PARTICOES_ATUALIZACAO - 1}.
+     */
+    public static String particaoAtualizacao(String id) {
+        return PARTICAO_ATUALIZACAO + "#" + Math.floorMod(id.hashCode(), PARTICOES_ATUALIZACAO);
+    }
+
     public List<String> getCategorias() {
         return categorias;
     }
@@ -150,7 +244,7 @@ public class Peca {
         this.categorias = categorias;
     }
 
-    @DynamoDbConvertedBy(JsonMapConverter.class)
+    @DynamoDbConvertedBy(DynamoDbMapConverter.class)
     public Map<String, Object> getEspecificacoes() {
         return especificacoes;
     }
@@ -183,6 +277,7 @@ public class Peca {
         this.createdAt = createdAt;
     }
 
+    @DynamoDbSecondarySortKey(indexNames = INDEX_ATUALIZACAO)
     public LocalDateTime getUpdatedAt() {
         return updatedAt;
     }
@@ -191,6 +286,19 @@ public class Peca {
         this.updatedAt = updatedAt;
     }
 
+    /**
+     * Lock otimista: o VersionedRecordExtension (padrão do Enhanced Client) incrementa
+     * a versão e condiciona o putItem ao valor lido.
+     */
+    @DynamoDbVersionAttribute
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
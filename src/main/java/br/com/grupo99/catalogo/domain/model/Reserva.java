@@ -0,0 +1,145 @@
+package br.com.grupo99.catalogo.domain.model;
+
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondaryPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondarySortKey;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+/**
+ * Reserva de estoque de uma peça entre o orçamento e o fechamento da OS.
+ *
+ * Criar a reserva tira a quantidade de Peca.quantidade (disponível) e soma em
+ * Peca.quantidadeReservada na mesma transação; confirmar consome a reserva e
+ * liberar (ou expirar) devolve a quantidade ao disponível.
+ *
+ * expiraEm é o prazo lógico, verificado pela aplicação; expiracaoTtl é o atributo
+ * de TTL do DynamoDB, com folga para que a varredura de expiradas devolva o estoque
+ * antes de o DynamoDB apagar o item.
+ */
+@DynamoDbBean
+public class Reserva {
+
+    /**
+     * GSI das reservas em aberto ordenadas por expiraEm, consultado pela varredura.
+     * A partition key é espalhada em {@link #PARTICOES_EXPIRACAO} valores (ABERTA#0,
+     * ABERTA#1...) derivados do ID, para as reservas não se concentrarem numa única
+     * chave do índice; a varredura lê todas.
+     */
+    public static final String INDEX_EXPIRACAO = "expiracao-index";
+
+    /** Prefixo das partições do GSI. */
+    public static final String PARTICAO_EXPIRACAO = "ABERTA";
+
+    public static final int PARTICOES_EXPIRACAO = 16;
+
+    /** Folga entre o prazo lógico e a remoção pelo TTL do DynamoDB. */
+    public static final Duration CARENCIA_TTL = Duration.ofDays(1);
+
+    private String id;
+
+    private String pecaId;
+
+    private Integer quantidade;
+
+    private String expiraEm;
+
+    private Long expiracaoTtl;
+
+    private LocalDateTime createdAt;
+
+    public Reserva() {
+    }
+
+    public Reserva(String pecaId, Integer quantidade, Duration validade) {
+        Instant expiracao = Instant.now().truncatedTo(ChronoUnit.SECONDS).plus(validade);
+        this.id = UUID.randomUUID().toString();
+        this.pecaId = pecaId;
+        this.quantidade = quantidade;
+        this.expiraEm = expiracao.toString();
+        this.expiracaoTtl = expiracao.plus(CARENCIA_TTL).getEpochSecond();
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public boolean expiradaEm(Instant instante) {
+        return !Instant.parse(expiraEm).isAfter(instante);
+    }
+
+    @DynamoDbPartitionKey
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getPecaId() {
+        return pecaId;
+    }
+
+    public void setPecaId(String pecaId) {
+        this.pecaId = pecaId;
+    }
+
+    public Integer getQuantidade() {
+        return quantidade;
+    }
+
+    public void setQuantidade(Integer quantidade) {
+        this.quantidade = quantidade;
+    }
+
+    /**
+     * Instant ISO-8601 truncado em segundos (mesmo formato sempre, então a ordem
+     * textual do GSI é a ordem cronológica).
+     */
+    @DynamoDbSecondarySortKey(indexNames = INDEX_EXPIRACAO)
+    public String getExpiraEm() {
+        return expiraEm;
+    }
+
+    public void setExpiraEm(String expiraEm) {
+        this.expiraEm = expiraEm;
+    }
+
+    public Long getExpiracaoTtl() {
+        return expiracaoTtl;
+    }
+
+    public void setExpiracaoTtl(Long expiracaoTtl) {
+        this.expiracaoTtl = expiracaoTtl;
+    }
+
+    /**
+     * Partição do GSI de expiração, derivada do ID (toda reserva existente está em aberto).
+     */
+    @DynamoDbSecondaryPartitionKey(indexNames = INDEX_EXPIRACAO)
+    public String getExpiracaoParticao() {
+        return id == null ? null : particaoExpiracao(id);
+    }
+
+    public void setExpiracaoParticao(String expiracaoParticao) {
+        // Derivada do ID; o valor lido do DynamoDB é ignorado.
+    }
+
+    /**
+     * Partição do GSI de expiração para o ID: ABERTA#0 a ABERTA#{PARTICOES_EXPIRACAO - 1}.
+     */
+    public static String particaoExpiracao(String id) {
+        return PARTICAO_EXPIRACAO + "#" + Math.floorMod(id.hashCode(), PARTICOES_EXPIRACAO);
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
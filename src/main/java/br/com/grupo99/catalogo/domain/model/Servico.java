@@ -1,7 +1,10 @@
 package br.com.grupo99.catalogo.domain.model;
 
+import software.amazon.awssdk.enhanced.dynamodb.extensions.annotations.DynamoDbVersionAttribute;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondaryPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondarySortKey;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -19,6 +22,26 @@ import java.util.UUID;
 @DynamoDbBean
 public class Servico {
 
+    /**
+     * GSI esparso de itens ativos ordenado por nome: só recebe o item enquanto
+     * ativo = true, pois ativoParticao é omitido do item quando inativo.
+     */
+    public static final String INDEX_ATIVO = "ativo-nome-index";
+
+    public static final String PARTICAO_ATIVO = "ATIVO";
+
+    /**
+     * GSI de alterações com updatedAt como sort key, usado pela réplica em memória para
+     * buscar só o que mudou desde a última sincronização. A partição é espalhada em
+     * {@link #PARTICOES_ATUALIZACAO} valores (ITEM#0, ITEM#1...) derivados do ID, para as
+     * escritas não se concentrarem numa única chave do índice; a consulta lê todas.
+     */
+    public static final String INDEX_ATUALIZACAO = "atualizacao-index";
+
+    public static final String PARTICAO_ATUALIZACAO = "ITEM";
+
+    public static final int PARTICOES_ATUALIZACAO = 16;
+
     private String id;
 
     private String nome;
@@ -31,6 +54,8 @@ public class Servico {
 
     private Boolean ativo = true;
 
+    private String atualizacaoParticao;
+
     // Campos flexíveis - armazenados nativamente no DynamoDB
     private List<String> categorias;
 
@@ -42,6 +67,8 @@ public class Servico {
 
     private LocalDateTime updatedAt;
 
+    private Long version;
+
     public Servico() {
         this.id = UUID.randomUUID().toString();
     }
@@ -65,6 +92,7 @@ public class Servico {
         this.id = id;
     }
 
+    @DynamoDbSecondarySortKey(indexNames = INDEX_ATIVO)
     public String getNome() {
         return nome;
     }
@@ -105,6 +133,38 @@ public class Servico {
         this.ativo = ativo;
     }
 
+    /**
+     * Chave do GSI esparso, derivada de {@code ativo}. Null (não gravado) quando inativo.
+     */
+    @DynamoDbSecondaryPartitionKey(indexNames = INDEX_ATIVO)
+    public String getAtivoParticao() {
+        return Boolean.TRUE.equals(ativo) ? PARTICAO_ATIVO : null;
+    }
+
+    public void setAtivoParticao(String ativoParticao) {
+        // Derivado de ativo; o valor lido do DynamoDB é ignorado.
+    }
+
+    /**
+     * Chave do GSI de alterações, gravada pelo repositório só com a réplica habilitada
+     * (catalogo.replica.enabled); null deixa o item fora do índice.
+     */
+    @DynamoDbSecondaryPartitionKey(indexNames = INDEX_ATUALIZACAO)
+    public String getAtualizacaoParticao() {
+        return atualizacaoParticao;
+    }
+
+    public void setAtualizacaoParticao(String atualizacaoParticao) {
+        this.atualizacaoParticao = atualizacaoParticao;
+    }
+
+    /**
+     * Partição do GSI de alterações para o ID: ITEM#0 a ITEM#{PARTICOES_ATUALIZACAO - 1}.
+     */
+    public static String particaoAtualizacao(String id) {
+        return PARTICAO_ATUALIZACAO + "#" + Math.floorMod(id.hashCode(), PARTICOES_ATUALIZACAO);
+    }
+
     public List<String> getCategorias() {
         return categorias;
     }
@@ -137,6 +197,7 @@ public class Servico {
         this.createdAt = createdAt;
     }
 
+    @DynamoDbSecondarySortKey(indexNames = INDEX_ATUALIZACAO)
     public LocalDateTime getUpdatedAt() {
         return updatedAt;
     }
@@ -145,6 +206,19 @@ public class Servico {
         this.updatedAt = updatedAt;
     }
 
+    /**
+     * Lock otimista: o VersionedRecordExtension (padrão do Enhanced Client) incrementa
+     * a versão e condiciona o putItem ao valor lido.
+     */
+    @DynamoDbVersionAttribute
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
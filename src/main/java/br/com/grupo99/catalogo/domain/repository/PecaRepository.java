@@ -1,9 +1,15 @@
 package br.com.grupo99.catalogo.domain.repository;
 
+import br.com.grupo99.catalogo.domain.model.Pagina;
 import br.com.grupo99.catalogo.domain.model.Peca;
+import br.com.grupo99.catalogo.domain.model.Reserva;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * ✅ CLEAN ARCHITECTURE: Interface pura de domínio
@@ -30,6 +36,16 @@ public interface PecaRepository {
      */
     Optional<Peca> findById(String id);
 
+    /**
+     * Busca peça por ID lendo apenas os atributos informados.
+     * Atributos fora da projeção não devem ser lidos do objeto retornado.
+     *
+     * @param id        ID da peça
+     * @param atributos atributos a projetar
+     * @return Optional com peça parcial se existir
+     */
+    Optional<Peca> findById(String id, Set<String> atributos);
+
     /**
      * Busca todas as peças ativas.
      *
@@ -44,6 +60,25 @@ public interface PecaRepository {
      */
     List<Peca> findByAtivoTrueOrderByNomeAsc();
 
+    /**
+     * Página de peças ativas ordenadas por nome.
+     *
+     * @param limite quantidade máxima de itens lidos
+     * @param cursor cursor retornado pela página anterior (null na primeira)
+     * @return página de peças ativas
+     */
+    Pagina<Peca> findByAtivoTrueOrderByNomeAsc(int limite, String cursor);
+
+    /**
+     * Página de peças ativas ordenadas por nome, lendo apenas os atributos informados.
+     *
+     * @param limite    quantidade máxima de itens lidos
+     * @param cursor    cursor retornado pela página anterior (null na primeira)
+     * @param atributos atributos a projetar
+     * @return página de peças parciais
+     */
+    Pagina<Peca> findByAtivoTrueOrderByNomeAsc(int limite, String cursor, Set<String> atributos);
+
     /**
      * Busca peça por código do fabricante.
      *
@@ -52,6 +87,14 @@ public interface PecaRepository {
      */
     Optional<Peca> findByCodigoFabricante(String codigoFabricante);
 
+    /**
+     * Busca peças por uma lista de IDs em uma única operação.
+     *
+     * @param ids IDs a buscar
+     * @return peças encontradas, sem ordem garantida; IDs inexistentes são omitidos
+     */
+    List<Peca> findAllById(Collection<String> ids);
+
     /**
      * Lista todas as peças.
      *
@@ -59,12 +102,57 @@ public interface PecaRepository {
      */
     List<Peca> findAll();
 
+    /**
+     * Página de todas as peças.
+     *
+     * @param limite quantidade máxima de itens lidos
+     * @param cursor cursor retornado pela página anterior (null na primeira)
+     * @return página de peças
+     */
+    Pagina<Peca> findAll(int limite, String cursor);
+
+    /**
+     * Página de todas as peças, lendo apenas os atributos informados.
+     *
+     * @param limite    quantidade máxima de itens lidos
+     * @param cursor    cursor retornado pela página anterior (null na primeira)
+     * @param atributos atributos a projetar
+     * @return página de peças parciais
+     */
+    Pagina<Peca> findAll(int limite, String cursor, Set<String> atributos);
+
+    /**
+     * Percorre todas as peças página a página, sem materializar a lista.
+     * O Stream deve ser fechado pelo chamador.
+     *
+     * @return Stream preguiçoso de peças
+     */
+    Stream<Peca> streamAll();
+
+    /**
+     * Atualiza apenas os atributos informados, sem reescrever o item inteiro.
+     *
+     * @param id         ID da peça
+     * @param alteracoes atributo -> novo valor; null remove o atributo
+     * @return peça atualizada, ou vazio se não existir
+     */
+    Optional<Peca> atualizarCampos(String id, Map<String, Object> alteracoes);
+
+    /**
+     * Desativa a peça em uma única escrita condicional.
+     *
+     * @param id ID da peça
+     * @return false se a peça não existir
+     */
+    boolean desativar(String id);
+
     /**
      * Deleta peça por ID.
      *
      * @param id ID da peça (String para MongoDB)
+     * @return false se a peça não existir
      */
-    void deleteById(String id);
+    boolean deleteById(String id);
 
     /**
      * Verifica se existe peça com ID.
@@ -74,6 +162,86 @@ public interface PecaRepository {
      */
     boolean existsById(String id);
 
+    /**
+     * Baixa atômica de estoque, sem leitura prévia.
+     *
+     * @param id         ID da peça
+     * @param quantidade quantidade a baixar (positiva)
+     * @throws IllegalArgumentException se o estoque for insuficiente
+     * @throws RuntimeException         se a peça não existir
+     */
+    void decrementarQuantidade(String id, int quantidade);
+
+    /**
+     * Entrada atômica de estoque, sem leitura prévia.
+     *
+     * @param id         ID da peça
+     * @param quantidade quantidade a somar (positiva)
+     * @throws RuntimeException se a peça não existir
+     */
+    void incrementarQuantidade(String id, int quantidade);
+
+    /**
+     * Liga, ajusta ou desliga (1) o contador fragmentado da peça, consolidando antes
+     * no item da peça o saldo dos fragmentos existentes.
+     *
+     * @param id         ID da peça
+     * @param fragmentos quantidade de fragmentos (1 = contador único)
+     * @throws RuntimeException se a peça não existir
+     */
+    void definirFragmentosEstoque(String id, int fragmentos);
+
+    /**
+     * Ajuste de estoque em massa (inventário): aplica cada delta atomicamente, com a
+     * mesma condição de incrementar/decrementar, e segue adiante quando um item falha.
+     *
+     * @param ajustes ID -> delta (positivo soma, negativo baixa)
+     * @return ID -> motivo, só para os ajustes que não foram aplicados
+     */
+    Map<String, String> ajustarQuantidades(Map<String, Integer> ajustes);
+
+    /**
+     * Grava a reserva e tira a quantidade do disponível numa única transação condicional.
+     *
+     * @param reserva reserva nova (ID, peça, quantidade e prazo preenchidos)
+     * @return a reserva gravada
+     * @throws IllegalArgumentException se a quantidade disponível for insuficiente
+     * @throws RuntimeException         se a peça não existir
+     */
+    Reserva reservar(Reserva reserva);
+
+    /**
+     * Busca reserva em aberto por ID.
+     *
+     * @param reservaId ID da reserva
+     * @return reserva, ou vazio se já foi confirmada, liberada ou removida pelo TTL
+     */
+    Optional<Reserva> findReservaById(String reservaId);
+
+    /**
+     * Consome a reserva (a quantidade sai de vez do estoque).
+     *
+     * @param reserva reserva lida por {@link #findReservaById(String)}
+     * @return false se a reserva já foi concluída ou expirou
+     */
+    boolean confirmarReserva(Reserva reserva);
+
+    /**
+     * Desfaz a reserva, devolvendo a quantidade ao disponível.
+     *
+     * @param reserva reserva lida por {@link #findReservaById(String)}
+     * @return false se a reserva já foi concluída
+     */
+    boolean liberarReserva(Reserva reserva);
+
+    /**
+     * Libera as reservas com prazo vencido, mais antigas primeiro.
+     *
+     * @param limite quantidade máxima de reservas processadas
+     * @return quantidade de reservas liberadas
+     */
+    int liberarReservasExpiradas(int limite);
+
     /**
      * Busca peças por categoria.
      *
@@ -82,6 +250,16 @@ public interface PecaRepository {
      */
     List<Peca> findByCategoria(String categoria);
 
+    /**
+     * Página de peças por categoria.
+     *
+     * @param categoria categoria da peça
+     * @param limite    quantidade máxima de itens lidos
+     * @param cursor    cursor retornado pela página anterior (null na primeira)
+     * @return página de peças na categoria
+     */
+    Pagina<Peca> findByCategoria(String categoria, int limite, String cursor);
+
     /**
      * Busca peças por marca.
      *
@@ -89,4 +267,14 @@ public interface PecaRepository {
      * @return List de peças da marca
      */
     List<Peca> findByMarca(String marca);
+
+    /**
+     * Página de peças por marca.
+     *
+     * @param marca  marca da peça
+     * @param limite quantidade máxima de itens lidos
+     * @param cursor cursor retornado pela página anterior (null na primeira)
+     * @return página de peças da marca
+     */
+    Pagina<Peca> findByMarca(String marca, int limite, String cursor);
 }
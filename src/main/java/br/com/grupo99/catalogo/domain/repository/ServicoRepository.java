@@ -1,9 +1,14 @@
 package br.com.grupo99.catalogo.domain.repository;
 
+import br.com.grupo99.catalogo.domain.model.Pagina;
 import br.com.grupo99.catalogo.domain.model.Servico;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * ✅ CLEAN ARCHITECTURE: Interface pura de domínio
@@ -30,6 +35,16 @@ public interface ServicoRepository {
      */
     Optional<Servico> findById(String id);
 
+    /**
+     * Busca serviço por ID lendo apenas os atributos informados.
+     * Atributos fora da projeção não devem ser lidos do objeto retornado.
+     *
+     * @param id        ID do serviço
+     * @param atributos atributos a projetar
+     * @return Optional com serviço parcial se existir
+     */
+    Optional<Servico> findById(String id, Set<String> atributos);
+
     /**
      * Busca todos os serviços ativos.
      *
@@ -44,6 +59,33 @@ public interface ServicoRepository {
      */
     List<Servico> findByAtivoTrueOrderByNomeAsc();
 
+    /**
+     * Página de serviços ativos ordenados por nome.
+     *
+     * @param limite quantidade máxima de itens lidos
+     * @param cursor cursor retornado pela página anterior (null na primeira)
+     * @return página de serviços ativos
+     */
+    Pagina<Servico> findByAtivoTrueOrderByNomeAsc(int limite, String cursor);
+
+    /**
+     * Página de serviços ativos ordenados por nome, lendo apenas os atributos informados.
+     *
+     * @param limite    quantidade máxima de itens lidos
+     * @param cursor    cursor retornado pela página anterior (null na primeira)
+     * @param atributos atributos a projetar
+     * @return página de serviços parciais
+     */
+    Pagina<Servico> findByAtivoTrueOrderByNomeAsc(int limite, String cursor, Set<String> atributos);
+
+    /**
+     * Busca serviços por uma lista de IDs em uma única operação.
+     *
+     * @param ids IDs a buscar
+     * @return serviços encontrados, sem ordem garantida; IDs inexistentes são omitidos
+     */
+    List<Servico> findAllById(Collection<String> ids);
+
     /**
      * Lista todos os serviços.
      *
@@ -51,12 +93,57 @@ public interface ServicoRepository {
      */
     List<Servico> findAll();
 
+    /**
+     * Página de todos os serviços.
+     *
+     * @param limite quantidade máxima de itens lidos
+     * @param cursor cursor retornado pela página anterior (null na primeira)
+     * @return página de serviços
+     */
+    Pagina<Servico> findAll(int limite, String cursor);
+
+    /**
+     * Página de todos os serviços, lendo apenas os atributos informados.
+     *
+     * @param limite    quantidade máxima de itens lidos
+     * @param cursor    cursor retornado pela página anterior (null na primeira)
+     * @param atributos atributos a projetar
+     * @return página de serviços parciais
+     */
+    Pagina<Servico> findAll(int limite, String cursor, Set<String> atributos);
+
+    /**
+     * Percorre todos os serviços página a página, sem materializar a lista.
+     * O Stream deve ser fechado pelo chamador.
+     *
+     * @return Stream preguiçoso de serviços
+     */
+    Stream<Servico> streamAll();
+
+    /**
+     * Atualiza apenas os atributos informados, sem reescrever o item inteiro.
+     *
+     * @param id         ID da serviço
+     * @param alteracoes atributo -> novo valor; null remove o atributo
+     * @return serviço atualizado, ou vazio se não existir
+     */
+    Optional<Servico> atualizarCampos(String id, Map<String, Object> alteracoes);
+
+    /**
+     * Desativa o serviço em uma única escrita condicional.
+     *
+     * @param id ID do serviço
+     * @return false se o serviço não existir
+     */
+    boolean desativar(String id);
+
     /**
      * Deleta serviço por ID.
      *
      * @param id ID do serviço (String para MongoDB)
+     * @return false se o serviço não existir
      */
-    void deleteById(String id);
+    boolean deleteById(String id);
 
     /**
      * Verifica se existe serviço com ID.
@@ -73,4 +160,14 @@ public interface ServicoRepository {
      * @return List de serviços na categoria
      */
     List<Servico> findByCategoria(String categoria);
+
+    /**
+     * Página de serviços por categoria.
+     *
+     * @param categoria categoria do serviço
+     * @param limite    quantidade máxima de itens lidos
+     * @param cursor    cursor retornado pela página anterior (null na primeira)
+     * @return página de serviços na categoria
+     */
+    Pagina<Servico> findByCategoria(String categoria, int limite, String cursor);
 }
@@ -0,0 +1,104 @@
+package br.com.grupo99.catalogo.adapter.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DynamoDbMapConverterTest {
+
+    private final DynamoDbMapConverter converter = new DynamoDbMapConverter();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void mapaNativo_IdaEVoltaPreservaTipos() {
+        Map<String, Object> especificacoes = especificacoes();
+
+        AttributeValue atributo = converter.transformFrom(especificacoes);
+        Map<String, Object> lido = converter.transformTo(atributo);
+
+        assertTrue(atributo.hasM());
+        assertInstanceOf(MapaLazy.class, lido);
+        assertEquals(especificacoes, lido);
+    }
+
+    @Test
+    void mapaNativo_IntactoRegravaMesmoAtributo() {
+        AttributeValue atributo = converter.transformFrom(especificacoes());
+
+        assertSame(atributo, converter.transformFrom(converter.transformTo(atributo)));
+    }
+
+    @Test
+    void mapaNativo_AlteradoRegravaConteudoNovo() {
+        Map<String, Object> lido = converter.transformTo(converter.transformFrom(especificacoes()));
+
+        lido.put("voltagem", 24);
+
+        Map<String, Object> relido = converter.transformTo(converter.transformFrom(lido));
+        assertEquals(24, relido.get("voltagem"));
+    }
+
+    @Test
+    void mapaNativo_SerializaSemMaterializarIgualAoMapa() throws Exception {
+        Map<String, Object> especificacoes = especificacoes();
+        Map<String, Object> lido = converter.transformTo(converter.transformFrom(especificacoes));
+
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsString(especificacoes)),
+                objectMapper.readTree(objectMapper.writeValueAsString(lido)));
+    }
+
+    @Test
+    void formatoAntigo_LeJsonEmString() throws Exception {
+        AttributeValue legado = AttributeValue.builder().s("{\"voltagem\":12,\"marca\":\"Bosch\"}").build();
+
+        Map<String, Object> lido = converter.transformTo(legado);
+
+        assertEquals("{\"voltagem\":12,\"marca\":\"Bosch\"}", objectMapper.writeValueAsString(lido));
+        assertEquals(Map.of("voltagem", 12, "marca", "Bosch"), lido);
+        assertFalse(((MapaLazy) lido).invalido());
+        assertTrue(converter.transformFrom(lido).hasM());
+    }
+
+    @Test
+    void formatoAntigo_InvalidoNaoCorrompeOJson() throws Exception {
+        for (String invalido : List.of("{\"voltagem\":", "[1,2]", "12}, \"injetado\": {")) {
+            Map<String, Object> lido = converter.transformTo(AttributeValue.builder().s(invalido).build());
+
+            String json = objectMapper.writeValueAsString(Map.of("especificacoes", lido));
+
+            assertEquals("{\"especificacoes\":{}}", json);
+            assertTrue(((MapaLazy) lido).invalido());
+        }
+    }
+
+    @Test
+    void nulo_IdaEVolta() {
+        assertTrue(converter.transformFrom(null).nul());
+        assertNull(converter.transformTo(null));
+        assertNull(converter.transformTo(AttributeValue.builder().nul(true).build()));
+        assertNull(converter.transformTo(AttributeValue.builder().n("1").build()));
+    }
+
+    private static Map<String, Object> especificacoes() {
+        Map<String, Object> dimensoes = new LinkedHashMap<>();
+        dimensoes.put("altura", new BigDecimal("10.5"));
+        dimensoes.put("largura", 20);
+        Map<String, Object> especificacoes = new LinkedHashMap<>();
+        especificacoes.put("voltagem", 12);
+        especificacoes.put("marca", "Bosch");
+        especificacoes.put("importado", true);
+        especificacoes.put("serie", 9_000_000_000L);
+        especificacoes.put("dimensoes", dimensoes);
+        especificacoes.put("compatibilidade", Arrays.asList("Gol", "Palio", null));
+        especificacoes.put("observacao", null);
+        return especificacoes;
+    }
+}
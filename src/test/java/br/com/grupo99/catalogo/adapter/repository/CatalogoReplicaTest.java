@@ -0,0 +1,144 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import br.com.grupo99.catalogo.domain.model.Pagina;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogoReplicaTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    record Item(String id, String nome, boolean ativo, LocalDateTime atualizadoEm, Long versao, String codigo) {
+    }
+
+    private CatalogoReplica<Item> replica;
+
+    @BeforeEach
+    void setUp() {
+        replica = new CatalogoReplica<>(Item::id, Item::nome, Item::ativo, Item::atualizadoEm, Item::versao,
+                item -> item, "ATIVO", Item::codigo);
+    }
+
+    @Test
+    void aplicar_AntesDaCargaNaoFazNada() {
+        assertFalse(replica.pronta());
+        assertEquals(0, replica.aplicar(List.of(item("p1", "Filtro", 1, T0, "C1"))));
+        assertTrue(replica.marcaDagua().isEmpty());
+    }
+
+    @Test
+    void carregar_DefineMarcaDaguaPeloMaisRecente() {
+        replica.carregar(List.of(
+                item("p1", "Filtro", 1, T0, "C1"),
+                item("p2", "Pastilha", 1, T0.plusMinutes(5), "C2")));
+
+        assertTrue(replica.pronta());
+        assertEquals(2, replica.tamanho());
+        assertEquals(Optional.of(T0.plusMinutes(5)), replica.marcaDagua());
+    }
+
+    @Test
+    void aplicar_IgnoraVersaoIgualOuAntigaEAvancaMarcaDagua() {
+        replica.carregar(List.of(item("p1", "Filtro", 3, T0, "C1")));
+
+        int aplicados = replica.aplicar(List.of(
+                item("p1", "Filtro antigo", 2, T0.plusMinutes(1), "C1"),
+                item("p1", "Filtro mesmo", 3, T0.plusMinutes(1), "C1"),
+                item("p2", "Pastilha", 1, T0.plusMinutes(2), "C2")));
+
+        assertEquals(1, aplicados);
+        assertEquals("Filtro", replica.porChaveUnica("C1").orElseThrow().nome());
+        assertEquals(Optional.of(T0.plusMinutes(2)), replica.marcaDagua());
+
+        assertEquals(1, replica.aplicar(List.of(item("p1", "Filtro novo", 4, T0.plusMinutes(1), "C1"))));
+        assertEquals("Filtro novo", replica.porChaveUnica("C1").orElseThrow().nome());
+        // A marca d'água nunca volta.
+        assertEquals(Optional.of(T0.plusMinutes(2)), replica.marcaDagua());
+    }
+
+    @Test
+    void remover_TiraDeTodosOsIndices() {
+        replica.carregar(List.of(item("p1", "Filtro", 1, T0, "C1"), item("p2", "Pastilha", 1, T0, "C2")));
+
+        replica.remover("p1");
+
+        assertEquals(1, replica.tamanho());
+        assertTrue(replica.porChaveUnica("C1").isEmpty());
+        assertEquals(List.of("p2"), replica.ativos(item -> true).stream().map(Item::id).toList());
+    }
+
+    @Test
+    void carregar_DescartaItensRemovidosPorOutraInstancia() {
+        replica.carregar(List.of(item("p1", "Filtro", 1, T0, "C1"), item("p2", "Pastilha", 1, T0, "C2")));
+
+        // O polling não vê remoções: só a carga completa seguinte.
+        replica.aplicar(List.of(item("p2", "Pastilha", 2, T0.plusMinutes(1), "C2")));
+        assertEquals(2, replica.tamanho());
+
+        replica.carregar(List.of(item("p2", "Pastilha", 2, T0.plusMinutes(1), "C2")));
+
+        assertEquals(1, replica.tamanho());
+        assertTrue(replica.porChaveUnica("C1").isEmpty());
+        assertTrue(replica.ativos(item -> true).stream().noneMatch(item -> item.id().equals("p1")));
+    }
+
+    @Test
+    void porChaveUnica_AcompanhaMudancaDeCodigo() {
+        replica.carregar(List.of(item("p1", "Filtro", 1, T0, "C1")));
+
+        replica.registrar(item("p1", "Filtro", 2, T0.plusMinutes(1), "C9"));
+
+        assertTrue(replica.porChaveUnica("C1").isEmpty());
+        assertEquals("p1", replica.porChaveUnica("C9").orElseThrow().id());
+    }
+
+    @Test
+    void registrar_ReposicionaAtivosPorNome() {
+        replica.carregar(List.of(item("p1", "Amortecedor", 1, T0, "C1"), item("p2", "Bateria", 1, T0, "C2")));
+
+        replica.registrar(item("p1", "Correia", 2, T0, "C1"));
+
+        assertEquals(List.of("p2", "p1"), replica.ativos(item -> true).stream().map(Item::id).toList());
+    }
+
+    @Test
+    void registrar_EscritaJaTrazidaPelaSincronizacao_NaoReaplica() {
+        replica.carregar(List.of(item("p1", "Filtro", 1, T0, "C1")));
+        // O polling trouxe a versão 2 antes de a escrita local registrar a sua imagem.
+        replica.aplicar(List.of(item("p1", "Filtro v2", 2, T0.plusMinutes(1), "C1")));
+
+        assertFalse(replica.registrar(item("p1", "Filtro local", 2, T0.plusMinutes(1), "C1")));
+        assertFalse(replica.registrar(item("p1", "Filtro velho", 1, T0, "C1")));
+        assertEquals("Filtro v2", replica.porChaveUnica("C1").orElseThrow().nome());
+
+        assertTrue(replica.registrar(item("p1", "Filtro v3", 3, T0.plusMinutes(2), "C1")));
+        assertEquals("Filtro v3", replica.porChaveUnica("C1").orElseThrow().nome());
+    }
+
+    @Test
+    void paginaAtivos_ContinuaPeloCursor() {
+        replica.carregar(List.of(
+                item("p1", "Amortecedor", 1, T0, "C1"),
+                item("p2", "Bateria", 1, T0, "C2"),
+                new Item("p3", "Cabo", false, T0, 1L, "C3"),
+                item("p4", "Disco", 1, T0, "C4")));
+
+        Pagina<Item> primeira = replica.paginaAtivos(item -> true, 2, null);
+        Pagina<Item> segunda = replica.paginaAtivos(item -> true, 2, primeira.getProximoCursor());
+
+        assertEquals(List.of("p1", "p2"), primeira.getItens().stream().map(Item::id).toList());
+        assertNotNull(primeira.getProximoCursor());
+        assertEquals(List.of("p4"), segunda.getItens().stream().map(Item::id).toList());
+        assertNull(segunda.getProximoCursor());
+    }
+
+    private static Item item(String id, String nome, long versao, LocalDateTime atualizadoEm, String codigo) {
+        return new Item(id, nome, true, atualizadoEm, versao, codigo);
+    }
+}
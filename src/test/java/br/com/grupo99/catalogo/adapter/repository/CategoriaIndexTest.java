@@ -0,0 +1,110 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import br.com.grupo99.catalogo.domain.exception.EscritaIncompletaException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class CategoriaIndexTest {
+    private static final String TABELA = "pecas-categorias";
+
+    @Mock
+    private DynamoDbClient dynamoDbClient;
+
+    private CategoriaIndex categoriaIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        categoriaIndex = new CategoriaIndex(
+                DynamoDbEnhancedClient.builder().dynamoDbClient(dynamoDbClient).build(), TABELA);
+    }
+
+    @Test
+    void sincronizar_GravaSoAsQueEntraramERemoveAsQueSairam() {
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenReturn(BatchWriteItemResponse.builder().build());
+
+        categoriaIndex.sincronizar("p1", List.of("freio", "motor"), List.of("motor", "suspensao"));
+
+        ArgumentCaptor<BatchWriteItemRequest> captor = ArgumentCaptor.forClass(BatchWriteItemRequest.class);
+        verify(dynamoDbClient).batchWriteItem(captor.capture());
+        List<WriteRequest> escritas = captor.getValue().requestItems().get(TABELA);
+        assertEquals(1, escritas.stream().filter(escrita -> escrita.putRequest() != null).count());
+        assertEquals(1, escritas.stream().filter(escrita -> escrita.deleteRequest() != null).count());
+    }
+
+    @Test
+    void sincronizar_CategoriasIguais_NaoGrava() {
+        categoriaIndex.sincronizar("p1", List.of("freio", "motor"), List.of("motor", "freio"));
+
+        verify(dynamoDbClient, never()).batchWriteItem(any(BatchWriteItemRequest.class));
+    }
+
+    @Test
+    void sincronizar_ReenviaEscritasNaoProcessadas() {
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenReturn(naoProcessado("motor", "p1"))
+                .thenReturn(BatchWriteItemResponse.builder().build());
+
+        categoriaIndex.sincronizar("p1", null, List.of("motor"));
+
+        verify(dynamoDbClient, times(2)).batchWriteItem(any(BatchWriteItemRequest.class));
+    }
+
+    @Test
+    void sincronizar_FalhaQuandoEscritasSeguemNaoProcessadas() {
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenReturn(naoProcessado("motor", "p1"));
+
+        assertThrows(EscritaIncompletaException.class,
+                () -> categoriaIndex.sincronizar("p1", null, List.of("motor")));
+        verify(dynamoDbClient, times(CategoriaIndex.MAX_TENTATIVAS + 1))
+                .batchWriteItem(any(BatchWriteItemRequest.class));
+    }
+
+    @Test
+    void sincronizar_Interrompido_ParaDeTentar() {
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenReturn(naoProcessado("motor", "p1"));
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(EscritaIncompletaException.class,
+                    () -> categoriaIndex.sincronizar("p1", null, List.of("motor")));
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+        verify(dynamoDbClient, times(1)).batchWriteItem(any(BatchWriteItemRequest.class));
+    }
+
+    private static BatchWriteItemResponse naoProcessado(String categoria, String itemId) {
+        WriteRequest put = WriteRequest.builder()
+                .putRequest(PutRequest.builder()
+                        .item(Map.of(
+                                "categoria", AttributeValue.builder().s(categoria).build(),
+                                "itemId", AttributeValue.builder().s(itemId).build()))
+                        .build())
+                .build();
+        return BatchWriteItemResponse.builder()
+                .unprocessedItems(Map.of(TABELA, List.of(put)))
+                .build();
+    }
+}
@@ -0,0 +1,63 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CursorCodecTest {
+
+    @Test
+    void encodeDecode_PreservaChavesStringENumber() {
+        Map<String, AttributeValue> chave = new LinkedHashMap<>();
+        chave.put("id", AttributeValue.builder().s("peca-1").build());
+        chave.put("categoria", AttributeValue.builder().s("freios").build());
+        chave.put("preco", AttributeValue.builder().n("129.90").build());
+
+        String cursor = CursorCodec.encode(chave);
+
+        assertNotNull(cursor);
+        assertFalse(cursor.contains("+") || cursor.contains("/") || cursor.contains("="));
+        assertEquals(chave, CursorCodec.decode(cursor));
+    }
+
+    @Test
+    void encode_SemChaveDevolveNulo() {
+        assertNull(CursorCodec.encode(null));
+        assertNull(CursorCodec.encode(Map.of()));
+    }
+
+    @Test
+    void decode_SemCursorDevolveNulo() {
+        assertNull(CursorCodec.decode(null));
+        assertNull(CursorCodec.decode(" "));
+    }
+
+    @Test
+    void encode_RejeitaTipoDeChaveNaoSuportado() {
+        Map<String, AttributeValue> chave = Map.of("ativo", AttributeValue.builder().bool(true).build());
+
+        assertThrows(IllegalStateException.class, () -> CursorCodec.encode(chave));
+    }
+
+    @Test
+    void decode_RejeitaCursorAdulterado() {
+        String valido = CursorCodec.encode(Map.of("id", AttributeValue.builder().s("peca-1").build()));
+
+        assertThrows(IllegalArgumentException.class, () -> CursorCodec.decode("%%%"));
+        assertThrows(IllegalArgumentException.class, () -> CursorCodec.decode(valido.substring(1)));
+        assertThrows(IllegalArgumentException.class, () -> CursorCodec.decode(base64("nao e json")));
+        assertThrows(IllegalArgumentException.class, () -> CursorCodec.decode(base64("{\"id\":\"peca-1\"}")));
+        assertThrows(IllegalArgumentException.class, () -> CursorCodec.decode(base64("{\"id\":{\"B\":\"AA==\"}}")));
+        assertThrows(IllegalArgumentException.class, () -> CursorCodec.decode(base64("{\"id\":null}")));
+    }
+
+    private static String base64(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
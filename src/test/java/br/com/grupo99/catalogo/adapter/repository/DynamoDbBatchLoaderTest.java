@@ -0,0 +1,110 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import br.com.grupo99.catalogo.domain.model.Peca;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class DynamoDbBatchLoaderTest {
+    private static final String TABELA = "pecas";
+
+    @Mock
+    private DynamoDbClient dynamoDbClient;
+
+    private DynamoDbBatchLoader<Peca> loader;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        DynamoDbEnhancedClient enhancedClient = DynamoDbEnhancedClient.builder()
+                .dynamoDbClient(dynamoDbClient)
+                .build();
+        loader = new DynamoDbBatchLoader<>(dynamoDbClient,
+                enhancedClient.table(TABELA, TableSchema.fromBean(Peca.class)));
+    }
+
+    @Test
+    void carregar_ReenviaChavesNaoProcessadas() {
+        when(dynamoDbClient.batchGetItem(any(BatchGetItemRequest.class)))
+                .thenReturn(BatchGetItemResponse.builder()
+                        .responses(Map.of(TABELA, List.of(item("p1"))))
+                        .unprocessedKeys(Map.of(TABELA, KeysAndAttributes.builder()
+                                .keys(List.of(chave("p2")))
+                                .build()))
+                        .build())
+                .thenReturn(BatchGetItemResponse.builder()
+                        .responses(Map.of(TABELA, List.of(item("p2"))))
+                        .build());
+
+        List<Peca> pecas = loader.carregar(List.of("p1", "p2", "p3"));
+
+        assertEquals(List.of("p1", "p2"), pecas.stream().map(Peca::getId).toList());
+        ArgumentCaptor<BatchGetItemRequest> captor = ArgumentCaptor.forClass(BatchGetItemRequest.class);
+        verify(dynamoDbClient, times(2)).batchGetItem(captor.capture());
+        assertEquals(List.of(chave("p2")), captor.getAllValues().get(1).requestItems().get(TABELA).keys());
+    }
+
+    @Test
+    void carregar_FalhaQuandoChavesSeguemNaoProcessadas() {
+        when(dynamoDbClient.batchGetItem(any(BatchGetItemRequest.class)))
+                .thenReturn(BatchGetItemResponse.builder()
+                        .unprocessedKeys(Map.of(TABELA, KeysAndAttributes.builder()
+                                .keys(List.of(chave("p1")))
+                                .build()))
+                        .build());
+
+        assertThrows(IllegalStateException.class, () -> loader.carregar(List.of("p1")));
+    }
+
+    @Test
+    void carregar_DivideEmLotesSemRepetirIds() {
+        when(dynamoDbClient.batchGetItem(any(BatchGetItemRequest.class)))
+                .thenReturn(BatchGetItemResponse.builder().build());
+        List<String> ids = IntStream.range(0, DynamoDbBatchLoader.BATCH_GET_LIMIT + 1)
+                .mapToObj(i -> "p" + i)
+                .collect(Collectors.toList());
+        ids.add("p0");
+
+        loader.carregar(ids);
+
+        ArgumentCaptor<BatchGetItemRequest> captor = ArgumentCaptor.forClass(BatchGetItemRequest.class);
+        verify(dynamoDbClient, times(2)).batchGetItem(captor.capture());
+        assertEquals(DynamoDbBatchLoader.BATCH_GET_LIMIT + 1, captor.getAllValues().stream()
+                .mapToInt(request -> request.requestItems().get(TABELA).keys().size())
+                .sum());
+    }
+
+    @Test
+    void carregar_SemIdsNaoChamaDynamo() {
+        assertTrue(loader.carregar(List.of()).isEmpty());
+        verifyNoInteractions(dynamoDbClient);
+    }
+
+    private static Map<String, AttributeValue> chave(String id) {
+        return Map.of("id", AttributeValue.builder().s(id).build());
+    }
+
+    private static Map<String, AttributeValue> item(String id) {
+        return Map.of(
+                "id", AttributeValue.builder().s(id).build(),
+                "nome", AttributeValue.builder().s("Peça " + id).build());
+    }
+}
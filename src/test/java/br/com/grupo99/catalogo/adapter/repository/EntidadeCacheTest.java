@@ -0,0 +1,116 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntidadeCacheTest {
+
+    private EntidadeCache<StringBuilder> cache;
+    private AtomicInteger cargas;
+
+    @BeforeEach
+    void setUp() {
+        cache = new EntidadeCache<>("teste", Duration.ofMinutes(1), 100, Duration.ofMinutes(1),
+                StringBuilder::new, new SimpleMeterRegistry());
+        cargas = new AtomicInteger();
+    }
+
+    @Test
+    void get_CarregaUmaVezEServeDoCache() {
+        assertEquals("peca", cache.get("p1", this::carregar).orElseThrow().toString());
+        assertEquals("peca", cache.get("p1", this::carregar).orElseThrow().toString());
+
+        assertEquals(1, cargas.get());
+    }
+
+    @Test
+    void get_DevolveCopiaDaEntidade() {
+        cache.get("p1", this::carregar).orElseThrow().append("-alterada");
+
+        assertEquals("peca", cache.get("p1", this::carregar).orElseThrow().toString());
+        assertEquals("peca", cache.getIfPresent("p1").orElseThrow().toString());
+    }
+
+    @Test
+    void invalidar_ForcaNovaCarga() {
+        cache.get("p1", this::carregar);
+
+        cache.invalidar("p1");
+
+        assertTrue(cache.getIfPresent("p1").isEmpty());
+        cache.get("p1", this::carregar);
+        assertEquals(2, cargas.get());
+    }
+
+    @Test
+    void get_IdInexistenteFicaComoAusente() {
+        assertTrue(cache.get("p9", this::naoEncontrar).isEmpty());
+
+        assertTrue(cache.ausente("p9"));
+        assertTrue(cache.get("p9", this::carregar).isEmpty());
+        assertEquals(0, cargas.get());
+    }
+
+    @Test
+    void marcarAusente_SubstituiItemEInvalidarLibera() {
+        cache.get("p1", this::carregar);
+
+        cache.marcarAusente("p1");
+
+        assertTrue(cache.ausente("p1"));
+        assertTrue(cache.getIfPresent("p1").isEmpty());
+        cache.invalidar("p1");
+        assertFalse(cache.ausente("p1"));
+        assertTrue(cache.get("p1", this::carregar).isPresent());
+    }
+
+    @Test
+    void invalidar_DuranteCargaDeAusenteNaoEscondeItemCriado() throws Exception {
+        CountDownLatch carregando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CompletableFuture<Optional<StringBuilder>> leitura = CompletableFuture.supplyAsync(
+                () -> cache.get("p1", id -> {
+                    carregando.countDown();
+                    aguardar(liberar);
+                    return Optional.empty();
+                }));
+        assertTrue(carregando.await(5, TimeUnit.SECONDS));
+
+        // Item criado enquanto a leitura ainda via o ID como inexistente.
+        CompletableFuture<Void> invalidacao = CompletableFuture.runAsync(() -> cache.invalidar("p1"));
+        Thread.sleep(50);
+        liberar.countDown();
+
+        assertTrue(leitura.get(5, TimeUnit.SECONDS).isEmpty());
+        invalidacao.get(5, TimeUnit.SECONDS);
+        assertFalse(cache.ausente("p1"));
+        assertTrue(cache.get("p1", this::carregar).isPresent());
+    }
+
+    private Optional<StringBuilder> carregar(String id) {
+        cargas.incrementAndGet();
+        return Optional.of(new StringBuilder("peca"));
+    }
+
+    private Optional<StringBuilder> naoEncontrar(String id) {
+        return Optional.empty();
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
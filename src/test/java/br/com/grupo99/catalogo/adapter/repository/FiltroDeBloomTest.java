@@ -0,0 +1,58 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FiltroDeBloomTest {
+
+    @Test
+    void podeConter_SemFalsoNegativo() {
+        FiltroDeBloom filtro = new FiltroDeBloom(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filtro.adicionar("peca-" + i));
+
+        assertTrue(IntStream.range(0, 10_000).allMatch(i -> filtro.podeConter("peca-" + i)));
+    }
+
+    @Test
+    void podeConter_FalsosPositivosPertoDaTaxaConfigurada() {
+        FiltroDeBloom filtro = new FiltroDeBloom(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filtro.adicionar("peca-" + i));
+
+        long falsosPositivos = IntStream.range(0, 100_000)
+                .filter(i -> filtro.podeConter("outra-" + i))
+                .count();
+
+        assertTrue(falsosPositivos < 2_000, "falsos positivos: " + falsosPositivos);
+    }
+
+    @Test
+    void adicionar_ConcorrenteNaoPerdeBits() throws Exception {
+        FiltroDeBloom filtro = new FiltroDeBloom(20_000, 0.01);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int t = 0; t < 4; t++) {
+                int inicio = t * 5_000;
+                executor.submit(() -> IntStream.range(inicio, inicio + 5_000)
+                        .forEach(i -> filtro.adicionar("peca-" + i)));
+            }
+        }
+
+        assertTrue(IntStream.range(0, 20_000).allMatch(i -> filtro.podeConter("peca-" + i)));
+    }
+
+    @Test
+    void construtor_RejeitaParametrosInvalidos() {
+        for (Runnable invalido : List.<Runnable>of(
+                () -> new FiltroDeBloom(0, 0.01),
+                () -> new FiltroDeBloom(100, 0),
+                () -> new FiltroDeBloom(100, 1))) {
+            assertThrows(IllegalArgumentException.class, invalido::run);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdsConhecidosTest {
+
+    @Test
+    void certamenteAusente_AntesDaReconstrucaoNaoRejeita() {
+        IdsConhecidos ids = new IdsConhecidos(1_000, 0.01);
+
+        assertFalse(ids.certamenteAusente("p1"));
+    }
+
+    @Test
+    void ativo_SoDepoisDaReconstrucao() {
+        IdsConhecidos ids = new IdsConhecidos(1_000, 0.01);
+        ids.registrar("p1");
+        assertFalse(ids.ativo());
+
+        ids.reconstruir(consumer -> consumer.accept("p1"));
+
+        assertTrue(ids.ativo());
+    }
+
+    @Test
+    void reconstruir_NovaCargaDescartaIdsRemovidos() {
+        IdsConhecidos ids = new IdsConhecidos(1_000, 0.001);
+        ids.reconstruir(consumer -> List.of("p1", "p2").forEach(consumer));
+
+        ids.reconstruir(consumer -> consumer.accept("p1"));
+
+        assertFalse(ids.certamenteAusente("p1"));
+        assertTrue(ids.certamenteAusente("p2"));
+    }
+
+    @Test
+    void reconstruir_RejeitaIdsForaDoScan() {
+        IdsConhecidos ids = new IdsConhecidos(1_000, 0.001);
+
+        ids.reconstruir(consumer -> List.of("p1", "p2").forEach(consumer));
+
+        assertFalse(ids.certamenteAusente("p1"));
+        assertFalse(ids.certamenteAusente("p2"));
+        assertTrue(ids.certamenteAusente("p9"));
+    }
+
+    @Test
+    void registrar_AposReconstrucaoIncluiNovoId() {
+        IdsConhecidos ids = new IdsConhecidos(1_000, 0.001);
+        ids.reconstruir(consumer -> consumer.accept("p1"));
+
+        ids.registrar("p9");
+
+        assertFalse(ids.certamenteAusente("p9"));
+    }
+
+    @Test
+    void registrar_DuranteReconstrucaoEntraNoNovoFiltro() {
+        IdsConhecidos ids = new IdsConhecidos(1_000, 0.001);
+
+        ids.reconstruir(consumer -> {
+            consumer.accept("p1");
+            ids.registrar("p9");
+        });
+
+        assertFalse(ids.certamenteAusente("p9"));
+    }
+}
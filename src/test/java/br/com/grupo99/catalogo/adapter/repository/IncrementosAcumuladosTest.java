@@ -0,0 +1,190 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IncrementosAcumuladosTest {
+
+    /** Longo o bastante para a descarga periódica nunca rodar durante o teste. */
+    private static final Duration SEM_AGENDAMENTO = Duration.ofHours(1);
+
+    private final List<String> escritas = Collections.synchronizedList(new ArrayList<>());
+    private final Map<String, Integer> gravados = new ConcurrentHashMap<>();
+
+    private final BiConsumer<String, Integer> gravar = (id, delta) -> {
+        escritas.add(id);
+        gravados.merge(id, delta, Integer::sum);
+    };
+
+    private IncrementosAcumulados novo(int maxPendentes, BiConsumer<String, Integer> gravar) {
+        return new IncrementosAcumulados(SEM_AGENDAMENTO, maxPendentes, gravar, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void descarregar_MesmoId_SomaNumaUnicaEscrita() {
+        IncrementosAcumulados incrementos = novo(100, gravar);
+        incrementos.acumular("p1", 2);
+        incrementos.acumular("p1", 3);
+        incrementos.acumular("p2", 1);
+
+        assertEquals(2, incrementos.descarregar());
+
+        assertEquals(Map.of("p1", 5, "p2", 1), gravados);
+        assertEquals(2, escritas.size());
+        assertEquals(0, incrementos.descarregar());
+    }
+
+    @Test
+    void acumular_LimiteDePendentes_DescarregaSemEsperarOIntervalo() throws InterruptedException {
+        CountDownLatch descarregados = new CountDownLatch(2);
+        IncrementosAcumulados incrementos = novo(2, (id, delta) -> {
+            gravar.accept(id, delta);
+            descarregados.countDown();
+        });
+
+        incrementos.acumular("p1", 1);
+        assertTrue(escritas.isEmpty());
+        incrementos.acumular("p2", 1);
+
+        assertTrue(descarregados.await(5, TimeUnit.SECONDS));
+        assertEquals(Map.of("p1", 1, "p2", 1), gravados);
+    }
+
+    @Test
+    void descarregar_FalhaDoDynamoDb_DevolveDeltaParaAProxima() {
+        AtomicInteger tentativas = new AtomicInteger();
+        IncrementosAcumulados incrementos = novo(100, (id, delta) -> {
+            if (tentativas.incrementAndGet() == 1) {
+                throw SdkClientException.create("throttling");
+            }
+            gravar.accept(id, delta);
+        });
+        incrementos.acumular("p1", 2);
+
+        assertEquals(0, incrementos.descarregar());
+        incrementos.acumular("p1", 1);
+        assertEquals(1, incrementos.descarregar());
+
+        assertEquals(Map.of("p1", 3), gravados);
+    }
+
+    @Test
+    void descarregar_ThrottlingDoDynamoDb_DevolveDelta() {
+        AtomicInteger tentativas = new AtomicInteger();
+        IncrementosAcumulados incrementos = novo(100, (id, delta) -> {
+            if (tentativas.incrementAndGet() == 1) {
+                throw erroDoServico(400, "ProvisionedThroughputExceededException");
+            }
+            gravar.accept(id, delta);
+        });
+        incrementos.acumular("p1", 2);
+
+        assertEquals(0, incrementos.descarregar());
+        assertEquals(1, incrementos.descarregar());
+
+        assertEquals(Map.of("p1", 2), gravados);
+    }
+
+    @Test
+    void descarregar_ErroNaoTransitorioDoDynamoDb_DescartaDelta() {
+        AtomicInteger tentativas = new AtomicInteger();
+        IncrementosAcumulados incrementos = novo(100, (id, delta) -> {
+            tentativas.incrementAndGet();
+            throw erroDoServico(400, "ValidationException");
+        });
+        incrementos.acumular("p1", 2);
+
+        assertEquals(0, incrementos.descarregar());
+        assertEquals(0, incrementos.descarregar());
+        assertEquals(1, tentativas.get());
+    }
+
+    @Test
+    void descarregar_OutraFalha_DescartaDelta() {
+        IncrementosAcumulados incrementos = novo(100, (id, delta) -> {
+            throw new RuntimeException("Peça não encontrada com ID: " + id);
+        });
+        incrementos.acumular("p1", 2);
+
+        assertEquals(0, incrementos.descarregar());
+        assertEquals(0, incrementos.descarregar());
+    }
+
+    @Test
+    void transitoria_SoThrottling5xxERede() {
+        assertTrue(IncrementosAcumulados.transitoria(erroDoServico(500, "InternalServerError")));
+        assertTrue(IncrementosAcumulados.transitoria(erroDoServico(400, "ThrottlingException")));
+        assertTrue(IncrementosAcumulados.transitoria(SdkClientException.create("timeout")));
+        assertFalse(IncrementosAcumulados.transitoria(erroDoServico(400, "ValidationException")));
+        assertFalse(IncrementosAcumulados.transitoria(new RuntimeException("Peça não encontrada com ID: p1")));
+    }
+
+    @Test
+    void encerrar_DescarregaPendentesEGravaDiretoDepois() {
+        IncrementosAcumulados incrementos = novo(100, gravar);
+        incrementos.acumular("p1", 4);
+
+        incrementos.encerrar();
+        assertEquals(Map.of("p1", 4), gravados);
+
+        incrementos.acumular("p1", 1);
+        assertEquals(Map.of("p1", 5), gravados);
+        assertEquals(2, escritas.size());
+    }
+
+    @Test
+    void encerrar_ConcorrenteComAcumular_NaoPerdeDelta() throws Exception {
+        IncrementosAcumulados incrementos = novo(Integer.MAX_VALUE, gravar);
+        int threads = 8;
+        int porThread = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String id = "p" + (t % 3);
+            tarefas.add(executor.submit(() -> {
+                largada.await();
+                for (int i = 0; i < porThread; i++) {
+                    incrementos.acumular(id, 1);
+                }
+                return null;
+            }));
+        }
+
+        largada.countDown();
+        incrementos.encerrar();
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        int total = gravados.values().stream().mapToInt(Integer::intValue).sum();
+        assertEquals(threads * porThread, total);
+    }
+
+    private static AwsServiceException erroDoServico(int status, String codigo) {
+        return AwsServiceException.builder()
+                .statusCode(status)
+                .awsErrorDetails(AwsErrorDetails.builder().errorCode(codigo).build())
+                .build();
+    }
+}
@@ -0,0 +1,56 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.mockito.Mockito.*;
+
+public class IndexBackfillTest {
+
+    @Mock
+    private DynamoDbPecaRepository pecaRepository;
+
+    @Mock
+    private DynamoDbServicoRepository servicoRepository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void executar_DesabilitadoNaoFazNada() {
+        new IndexBackfill(pecaRepository, servicoRepository, false, false, false).executar();
+
+        verifyNoInteractions(pecaRepository, servicoRepository);
+    }
+
+    @Test
+    void executar_ReindexaAtivos() {
+        new IndexBackfill(pecaRepository, servicoRepository, true, false, false).executar();
+
+        verify(pecaRepository).reindexarAtivos();
+        verify(servicoRepository).reindexarAtivos();
+        verify(pecaRepository, never()).reindexarCategorias();
+        verify(pecaRepository, never()).migrarEspecificacoes();
+    }
+
+    @Test
+    void executar_ReindexaCategorias() {
+        new IndexBackfill(pecaRepository, servicoRepository, false, true, false).executar();
+
+        verify(pecaRepository).reindexarCategorias();
+        verify(servicoRepository).reindexarCategorias();
+        verify(pecaRepository, never()).reindexarAtivos();
+    }
+
+    @Test
+    void executar_MigraEspecificacoesSoDePecas() {
+        new IndexBackfill(pecaRepository, servicoRepository, false, false, true).executar();
+
+        verify(pecaRepository).migrarEspecificacoes();
+        verifyNoInteractions(servicoRepository);
+    }
+}
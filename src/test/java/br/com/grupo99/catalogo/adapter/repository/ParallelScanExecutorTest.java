@@ -0,0 +1,119 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.PageIterable;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class ParallelScanExecutorTest {
+
+    @Mock
+    private DynamoDbTable<String> table;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void scan_DevolveItensNaOrdemDosSegmentos() {
+        when(table.scan(any(ScanEnhancedRequest.class))).thenAnswer(invocation -> {
+            ScanEnhancedRequest request = invocation.getArgument(0);
+            int segmento = request.segment();
+            return paginas(List.of("s" + segmento + "-a"), List.of("s" + segmento + "-b"));
+        });
+
+        List<String> itens = new ParallelScanExecutor(3, 3).scan(table);
+
+        assertEquals(List.of("s0-a", "s0-b", "s1-a", "s1-b", "s2-a", "s2-b"), itens);
+    }
+
+    @Test
+    void scan_AplicaCustomizerEmTodosOsSegmentos() {
+        when(table.scan(any(ScanEnhancedRequest.class))).thenReturn(paginas(List.of()));
+
+        new ParallelScanExecutor(4, 2).scan(table, request -> request.consistentRead(true));
+
+        ArgumentCaptor<ScanEnhancedRequest> captor = ArgumentCaptor.forClass(ScanEnhancedRequest.class);
+        verify(table, times(4)).scan(captor.capture());
+        assertEquals(List.of(0, 1, 2, 3), captor.getAllValues().stream()
+                .map(ScanEnhancedRequest::segment)
+                .sorted()
+                .toList());
+        assertTrue(captor.getAllValues().stream().allMatch(request -> request.totalSegments() == 4
+                && Boolean.TRUE.equals(request.consistentRead())));
+    }
+
+    @Test
+    void scan_LimitaSegmentosEmAndamento() {
+        AtomicInteger emAndamento = new AtomicInteger();
+        AtomicInteger maximo = new AtomicInteger();
+        when(table.scan(any(ScanEnhancedRequest.class))).thenAnswer(invocation -> {
+            maximo.accumulateAndGet(emAndamento.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            emAndamento.decrementAndGet();
+            return paginas(List.of("item"));
+        });
+
+        List<String> itens = new ParallelScanExecutor(8, 2).scan(table);
+
+        assertEquals(8, itens.size());
+        assertTrue(maximo.get() <= 2);
+    }
+
+    @Test
+    void forEach_EntregaTodosOsItens() {
+        when(table.scan(any(ScanEnhancedRequest.class))).thenAnswer(invocation -> {
+            ScanEnhancedRequest request = invocation.getArgument(0);
+            return paginas(List.of("s" + request.segment()));
+        });
+        ConcurrentLinkedQueue<String> recebidos = new ConcurrentLinkedQueue<>();
+
+        new ParallelScanExecutor(4, 4).forEach(table, request -> {
+        }, recebidos::add);
+
+        assertEquals(4, recebidos.size());
+        assertTrue(recebidos.containsAll(List.of("s0", "s1", "s2", "s3")));
+    }
+
+    @Test
+    void scan_PropagaFalhaDeUmSegmento() {
+        when(table.scan(any(ScanEnhancedRequest.class))).thenAnswer(invocation -> {
+            ScanEnhancedRequest request = invocation.getArgument(0);
+            if (request.segment() == 1) {
+                throw new IllegalArgumentException("falha no segmento");
+            }
+            return paginas(List.of("item"));
+        });
+
+        IllegalArgumentException erro = assertThrows(IllegalArgumentException.class,
+                () -> new ParallelScanExecutor(3, 3).scan(table));
+        assertEquals("falha no segmento", erro.getMessage());
+    }
+
+    @Test
+    void construtor_RejeitaValoresNaoPositivos() {
+        assertThrows(IllegalArgumentException.class, () -> new ParallelScanExecutor(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ParallelScanExecutor(1, 0));
+    }
+
+    @SafeVarargs
+    private static PageIterable<String> paginas(List<String>... paginas) {
+        List<Page<String>> lista = Arrays.stream(paginas).map(Page::create).toList();
+        return PageIterable.create(lista::iterator);
+    }
+}
@@ -0,0 +1,39 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProjectionExpressionsTest {
+
+    @Test
+    void expressao_UsaPlaceholderPorAtributo() {
+        Map<String, String> nomes = new HashMap<>();
+
+        String expressao = ProjectionExpressions.expressao(List.of("id", "nome", "status"), nomes);
+
+        assertEquals("#p0, #p1, #p2", expressao);
+        assertEquals(Map.of("#p0", "id", "#p1", "nome", "#p2", "status"), nomes);
+    }
+
+    @Test
+    void expressao_PreservaNomesJaRegistrados() {
+        Map<String, String> nomes = new HashMap<>(Map.of("#id", "id"));
+
+        ProjectionExpressions.expressao(List.of("quantidade"), nomes);
+
+        assertEquals(Map.of("#id", "id", "#p0", "quantidade"), nomes);
+    }
+
+    @Test
+    void expressao_SemAtributosDevolveVazio() {
+        Map<String, String> nomes = new HashMap<>();
+
+        assertEquals("", ProjectionExpressions.expressao(List.of(), nomes));
+        assertTrue(nomes.isEmpty());
+    }
+}
@@ -0,0 +1,61 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ReplicaSincronizadorTest {
+    private static final Duration MARGEM = Duration.ofMinutes(1);
+
+    @Mock
+    private PecaRepositoryAdapter pecaRepository;
+
+    @Mock
+    private ServicoRepositoryAdapter servicoRepository;
+
+    private ReplicaSincronizador sincronizador;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        sincronizador = new ReplicaSincronizador(pecaRepository, servicoRepository, true,
+                Duration.ofSeconds(5), MARGEM, Duration.ofMinutes(15));
+    }
+
+    @Test
+    void sincronizar_AplicaAlteracoesDePecasEServicosComMargem() {
+        sincronizador.sincronizar();
+
+        verify(pecaRepository).sincronizarReplica(MARGEM);
+        verify(servicoRepository).sincronizarReplica(MARGEM);
+    }
+
+    @Test
+    void sincronizar_FalhaNaoInterrompeOAgendamento() {
+        when(pecaRepository.sincronizarReplica(MARGEM)).thenThrow(new IllegalStateException("throttling"));
+
+        assertDoesNotThrow(() -> sincronizador.sincronizar());
+    }
+
+    @Test
+    void carregar_FalhaNaoInterrompeOAgendamento() {
+        when(pecaRepository.carregarReplica()).thenThrow(new IllegalStateException("throttling"));
+
+        assertDoesNotThrow(() -> sincronizador.carregar());
+        verify(servicoRepository, never()).carregarReplica();
+    }
+
+    @Test
+    void iniciar_DesabilitadoNaoAgenda() {
+        new ReplicaSincronizador(pecaRepository, servicoRepository, false,
+                Duration.ofSeconds(5), MARGEM, Duration.ofMinutes(15)).iniciar();
+
+        verifyNoInteractions(pecaRepository, servicoRepository);
+    }
+}
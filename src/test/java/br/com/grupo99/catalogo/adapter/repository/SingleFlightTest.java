@@ -0,0 +1,102 @@
+package br.com.grupo99.catalogo.adapter.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+
+    private static final int LEITORES = 8;
+
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final AtomicInteger chamadas = new AtomicInteger();
+
+    @Test
+    void executar_CoalesceChamadasConcorrentes() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        Object resultado = new Object();
+
+        List<Object> recebidos = new ArrayList<>();
+        for (Future<Object> leitura : concorrentes(() -> {
+            chamadas.incrementAndGet();
+            aguardar(liberar);
+            return resultado;
+        }, liberar)) {
+            recebidos.add(leitura.get(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(1, chamadas.get());
+        assertTrue(recebidos.stream().allMatch(recebido -> recebido == resultado));
+    }
+
+    @Test
+    void executar_PropagaMesmaExcecaoParaTodos() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        IllegalStateException falha = new IllegalStateException("DynamoDB indisponível");
+
+        for (Future<Object> leitura : concorrentes(() -> {
+            chamadas.incrementAndGet();
+            aguardar(liberar);
+            throw falha;
+        }, liberar)) {
+            ExecutionException erro = assertThrows(ExecutionException.class,
+                    () -> leitura.get(5, TimeUnit.SECONDS));
+            assertSame(falha, erro.getCause());
+        }
+        assertEquals(1, chamadas.get());
+    }
+
+    @Test
+    void executar_NaoGuardaResultadoAposTerminar() {
+        singleFlight.executar("chave", chamadas::incrementAndGet);
+        singleFlight.executar("chave", chamadas::incrementAndGet);
+
+        assertEquals(2, chamadas.get());
+    }
+
+    @Test
+    void executar_ChavesDiferentesNaoSeMisturam() {
+        assertEquals("a", singleFlight.executar(List.of("buscar", "a"), () -> "a"));
+        assertEquals("b", singleFlight.executar(List.of("buscar", "b"), () -> "b"));
+    }
+
+    /**
+     * Dispara as leituras da mesma chave e só libera a chamada depois que todas começaram.
+     */
+    private List<Future<Object>> concorrentes(Supplier<Object> chamada,
+            CountDownLatch liberar) throws InterruptedException {
+        CountDownLatch iniciadas = new CountDownLatch(LEITORES);
+        List<Future<Object>> leituras = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < LEITORES; i++) {
+                leituras.add(executor.submit(() -> {
+                    iniciadas.countDown();
+                    return singleFlight.executar("chave", chamada);
+                }));
+            }
+            assertTrue(iniciadas.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            liberar.countDown();
+        }
+        return leituras;
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
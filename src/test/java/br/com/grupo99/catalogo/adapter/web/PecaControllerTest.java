@@ -1,9 +1,14 @@
 package br.com.grupo99.catalogo.adapter.web;
 
 import br.com.grupo99.catalogo.adapter.config.TestConfig;
+import br.com.grupo99.catalogo.application.dto.AjusteEstoqueRequestDTO;
+import br.com.grupo99.catalogo.application.dto.AjusteEstoqueResponseDTO;
+import br.com.grupo99.catalogo.application.dto.BuscaEmLoteRequestDTO;
+import br.com.grupo99.catalogo.application.dto.BuscaEmLoteResponseDTO;
 import br.com.grupo99.catalogo.application.dto.PecaRequestDTO;
 import br.com.grupo99.catalogo.application.dto.PecaResponseDTO;
 import br.com.grupo99.catalogo.application.service.PecaApplicationService;
+import br.com.grupo99.catalogo.domain.model.Pagina;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,6 +22,7 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
 import java.util.UUID;
@@ -24,6 +30,9 @@ import java.util.UUID;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -73,11 +82,45 @@ public class PecaControllerTest {
         @Test
         @WithMockUser(roles = "ADMIN")
         void listarTodas_Success() throws Exception {
-                when(pecaService.listarTodas()).thenReturn(java.util.List.of());
+                when(pecaService.listarTodas(50, null)).thenReturn(new Pagina<>(java.util.List.of(), null));
 
                 mockMvc.perform(get("/api/v1/pecas"))
                                 .andExpect(status().isOk())
-                                .andExpect(jsonPath("$").isArray());
+                                .andExpect(jsonPath("$").isArray())
+                                .andExpect(header().doesNotExist("X-Next-Cursor"));
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void listarAtivas_ComCursor() throws Exception {
+                when(pecaService.listarAtivas(10, "abc")).thenReturn(new Pagina<>(java.util.List.of(), "def"));
+
+                mockMvc.perform(get("/api/v1/pecas/ativas?limit=10&cursor=abc"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$").isArray())
+                                .andExpect(header().string("X-Next-Cursor", "def"));
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void exportar_Ndjson() throws Exception {
+                var primeira = new PecaResponseDTO(
+                                "p1", "Filtro", "Desc", "FO-001", new BigDecimal("50.00"), 20, 5, true,
+                                java.time.LocalDateTime.now(), java.time.LocalDateTime.now());
+                var segunda = new PecaResponseDTO(
+                                "p2", "Pastilha", "Desc", "PF-002", new BigDecimal("80.00"), 10, 5, true,
+                                java.time.LocalDateTime.now(), java.time.LocalDateTime.now());
+                when(pecaService.exportarTodas()).thenReturn(java.util.stream.Stream.of(primeira, segunda));
+
+                MvcResult result = mockMvc.perform(get("/api/v1/pecas/export"))
+                                .andExpect(request().asyncStarted())
+                                .andReturn();
+
+                mockMvc.perform(asyncDispatch(result))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                                .andExpect(content().string(org.hamcrest.Matchers.startsWith("{\"id\":\"p1\"")))
+                                .andExpect(content().string(org.hamcrest.Matchers.containsString("}\n{\"id\":\"p2\"")));
         }
 
         @Test
@@ -94,6 +137,89 @@ public class PecaControllerTest {
                                 .andExpect(jsonPath("$.id", notNullValue()));
         }
 
+        @Test
+        @WithMockUser(roles = "CLIENTE")
+        void buscarPorId_IfNoneMatch_NaoModificado() throws Exception {
+                String id = UUID.randomUUID().toString();
+                var responseDTO = new PecaResponseDTO(
+                                id, "Filtro", "Desc", "FO-001", new BigDecimal("50.00"), 20, 5, true,
+                                java.time.LocalDateTime.now(), java.time.LocalDateTime.now());
+                when(pecaService.buscarPorId(id)).thenReturn(responseDTO);
+
+                MvcResult primeira = mockMvc.perform(get("/api/v1/pecas/" + id))
+                                .andExpect(status().isOk())
+                                .andExpect(header().exists("ETag"))
+                                .andExpect(header().exists("Last-Modified"))
+                                .andReturn();
+
+                mockMvc.perform(get("/api/v1/pecas/" + id)
+                                .header("If-None-Match", primeira.getResponse().getHeader("ETag")))
+                                .andExpect(status().isNotModified())
+                                .andExpect(content().string(""));
+        }
+
+        @Test
+        @WithMockUser(roles = "CLIENTE")
+        void buscarPorId_Fragmentada_EstoqueMudaSemUpdatedAt() throws Exception {
+                String id = UUID.randomUUID().toString();
+                java.time.LocalDateTime atualizadoEm = java.time.LocalDateTime.now();
+                var antes = new PecaResponseDTO(
+                                id, "Filtro", "Desc", "FO-001", new BigDecimal("50.00"), 20, 5, true,
+                                atualizadoEm, atualizadoEm);
+                antes.setFragmentosEstoque(4);
+                var depois = new PecaResponseDTO(
+                                id, "Filtro", "Desc", "FO-001", new BigDecimal("50.00"), 17, 5, true,
+                                atualizadoEm, atualizadoEm);
+                depois.setFragmentosEstoque(4);
+                when(pecaService.buscarPorId(id)).thenReturn(antes, depois);
+
+                MvcResult primeira = mockMvc.perform(get("/api/v1/pecas/" + id))
+                                .andExpect(status().isOk())
+                                .andExpect(header().exists("ETag"))
+                                .andExpect(header().doesNotExist("Last-Modified"))
+                                .andReturn();
+
+                mockMvc.perform(get("/api/v1/pecas/" + id)
+                                .header("If-None-Match", primeira.getResponse().getHeader("ETag")))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.quantidade").value(17));
+        }
+
+        @Test
+        @WithMockUser(roles = "CLIENTE")
+        void listarAtivas_IfNoneMatch_NaoConsultaORepositorio() throws Exception {
+                when(pecaService.listarAtivas(50, null)).thenReturn(new Pagina<>(java.util.List.of(), null));
+
+                MvcResult primeira = mockMvc.perform(get("/api/v1/pecas/ativas"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().exists("ETag"))
+                                .andReturn();
+
+                mockMvc.perform(get("/api/v1/pecas/ativas")
+                                .header("If-None-Match", primeira.getResponse().getHeader("ETag")))
+                                .andExpect(status().isNotModified());
+                verify(pecaService, times(1)).listarAtivas(50, null);
+        }
+
+        @Test
+        @WithMockUser(roles = "CLIENTE")
+        void listarAtivas_BytesEmCacheComGzip() throws Exception {
+                var itens = java.util.stream.IntStream.range(0, 20)
+                                .mapToObj(i -> new PecaResponseDTO("p" + i, "Filtro " + i, "Desc", "FO-" + i,
+                                                new BigDecimal("50.00"), 20, 5, true, null, null))
+                                .toList();
+                when(pecaService.listarAtivas(20, null)).thenReturn(new Pagina<>(itens, null));
+
+                mockMvc.perform(get("/api/v1/pecas/ativas?limit=20"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[0].id").value("p0"));
+                mockMvc.perform(get("/api/v1/pecas/ativas?limit=20").header("Accept-Encoding", "gzip"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("Content-Encoding", "gzip"))
+                                .andExpect(header().string("Vary", org.hamcrest.Matchers.containsString("Accept-Encoding")));
+                verify(pecaService, times(1)).listarAtivas(20, null);
+        }
+
         @Test
         @WithMockUser(roles = "ADMIN")
         void atualizar_Success() throws Exception {
@@ -110,6 +236,23 @@ public class PecaControllerTest {
                                 .andExpect(status().isOk());
         }
 
+        @Test
+        @WithMockUser(roles = "MECANICO")
+        void atualizarParcial_MergePatch() throws Exception {
+                String id = UUID.randomUUID().toString();
+                var responseDTO = new PecaResponseDTO(
+                                id, "Filtro de Óleo", "Desc", "FO-001", new BigDecimal("55.90"), 20, 5, true,
+                                java.time.LocalDateTime.now(), java.time.LocalDateTime.now());
+                when(pecaService.atualizarParcial(any(), any())).thenReturn(responseDTO);
+
+                mockMvc.perform(patch("/api/v1/pecas/" + id)
+                                .with(csrf())
+                                .contentType("application/merge-patch+json")
+                                .content("{\"preco\": 55.90}"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.preco").value(55.90));
+        }
+
         @Test
         @WithMockUser(roles = "ADMIN")
         void desativar_Success() throws Exception {
@@ -150,6 +293,66 @@ public class PecaControllerTest {
                                 .andExpect(status().isNoContent());
         }
 
+        @Test
+        @WithMockUser(roles = "MECANICO")
+        void buscarEmLote_Success() throws Exception {
+                var responseDTO = new PecaResponseDTO(
+                                "p1", "Filtro", "Desc", "FO-001", new BigDecimal("50.00"), 20, 5, true,
+                                java.time.LocalDateTime.now(), java.time.LocalDateTime.now());
+                when(pecaService.buscarEmLote(java.util.List.of("p1", "p9"))).thenReturn(
+                                new BuscaEmLoteResponseDTO<>(java.util.List.of(responseDTO), java.util.List.of("p9")));
+
+                mockMvc.perform(post("/api/v1/pecas/batch-get")
+                                .with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                                new BuscaEmLoteRequestDTO(java.util.List.of("p1", "p9")))))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.itens[0].id").value("p1"))
+                                .andExpect(jsonPath("$.naoEncontrados[0]").value("p9"));
+        }
+
+        @Test
+        @WithMockUser(roles = "MECANICO")
+        void buscarEmLote_IdEmBranco() throws Exception {
+                mockMvc.perform(post("/api/v1/pecas/batch-get")
+                                .with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                                new BuscaEmLoteRequestDTO(java.util.List.of("p1", " ")))))
+                                .andExpect(status().isBadRequest());
+
+                verify(pecaService, never()).buscarEmLote(any());
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void ajustarEstoque_FalhasPorPeca() throws Exception {
+                when(pecaService.ajustarEstoque(any())).thenReturn(new AjusteEstoqueResponseDTO(1,
+                                java.util.List.of(new AjusteEstoqueResponseDTO.Falha("p9",
+                                                "Peça não encontrada com ID: p9"))));
+
+                mockMvc.perform(post("/api/v1/pecas/estoque/ajustes")
+                                .with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new AjusteEstoqueRequestDTO(java.util.List.of(
+                                                new AjusteEstoqueRequestDTO.Ajuste("p1", -2),
+                                                new AjusteEstoqueRequestDTO.Ajuste("p9", 5))))))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.aplicados").value(1))
+                                .andExpect(jsonPath("$.falhas[0].id").value("p9"));
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void ajustarEstoque_SemDelta() throws Exception {
+                mockMvc.perform(post("/api/v1/pecas/estoque/ajustes")
+                                .with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"ajustes\":[{\"id\":\"p1\"}]}"))
+                                .andExpect(status().isBadRequest());
+        }
+
         @Test
         void criarPeca_Unauthorized() throws Exception {
                 mockMvc.perform(post("/api/v1/pecas")
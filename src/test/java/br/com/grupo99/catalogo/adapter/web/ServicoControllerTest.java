@@ -4,6 +4,7 @@ import br.com.grupo99.catalogo.adapter.config.TestConfig;
 import br.com.grupo99.catalogo.application.dto.ServicoRequestDTO;
 import br.com.grupo99.catalogo.application.dto.ServicoResponseDTO;
 import br.com.grupo99.catalogo.application.service.ServicoApplicationService;
+import br.com.grupo99.catalogo.domain.model.Pagina;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -72,7 +73,7 @@ public class ServicoControllerTest {
         @Test
         @WithMockUser(roles = "ADMIN")
         void listarTodos_Success() throws Exception {
-                when(servicoService.listarTodos()).thenReturn(java.util.List.of());
+                when(servicoService.listarTodos(50, null)).thenReturn(new Pagina<>(java.util.List.of(), null));
 
                 mockMvc.perform(get("/api/v1/servicos"))
                                 .andExpect(status().isOk())
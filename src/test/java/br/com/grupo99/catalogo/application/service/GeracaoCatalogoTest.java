@@ -0,0 +1,42 @@
+package br.com.grupo99.catalogo.application.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GeracaoCatalogoTest {
+
+    @Test
+    void validador_MudaACadaEscrita() {
+        GeracaoCatalogo geracao = new GeracaoCatalogo(Duration.ofHours(1));
+        String antes = geracao.validador();
+
+        geracao.avancar();
+
+        assertNotEquals(antes, geracao.validador());
+        assertEquals(1, geracao.atual());
+    }
+
+    @Test
+    void validador_MudaACadaJanelaSemEscrita() throws InterruptedException {
+        GeracaoCatalogo geracao = new GeracaoCatalogo(Duration.ofMillis(20));
+        String antes = geracao.validador();
+
+        Thread.sleep(50);
+
+        assertNotEquals(antes, geracao.validador());
+    }
+
+    @Test
+    void validador_DifereEntreInstancias() {
+        assertNotEquals(new GeracaoCatalogo(Duration.ofHours(1)).validador(),
+                new GeracaoCatalogo(Duration.ofHours(1)).validador());
+    }
+
+    @Test
+    void construtor_RejeitaJanelaNaoPositiva() {
+        assertThrows(IllegalArgumentException.class, () -> new GeracaoCatalogo(Duration.ZERO));
+    }
+}
@@ -1,8 +1,14 @@
 package br.com.grupo99.catalogo.application.service;
 
+import br.com.grupo99.catalogo.application.dto.AjusteEstoqueRequestDTO;
+import br.com.grupo99.catalogo.application.dto.AjusteEstoqueResponseDTO;
 import br.com.grupo99.catalogo.application.dto.PecaRequestDTO;
 import br.com.grupo99.catalogo.application.dto.PecaResponseDTO;
+import br.com.grupo99.catalogo.application.dto.ReservaResponseDTO;
+import br.com.grupo99.catalogo.domain.exception.ConflitoDeVersaoException;
+import br.com.grupo99.catalogo.domain.model.Pagina;
 import br.com.grupo99.catalogo.domain.model.Peca;
+import br.com.grupo99.catalogo.domain.model.Reserva;
 import br.com.grupo99.catalogo.domain.repository.PecaRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,11 +17,24 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 /**
@@ -76,16 +95,54 @@ public class PecaApplicationServiceTest {
         verify(pecaRepository, times(1)).findById(id);
     }
 
+    @Test
+    void buscarPorId_ComFields() {
+        String id = UUID.randomUUID().toString();
+        Peca peca = new Peca("Filtro de Óleo", "Desc", "FO-001", new BigDecimal("50.00"), 20);
+        peca.setId(id);
+        Set<String> campos = Set.of("id", "nome", "preco");
+
+        when(pecaRepository.findById(id, campos)).thenReturn(Optional.of(peca));
+
+        Map<String, Object> response = pecaService.buscarPorId(id, "nome,preco");
+
+        assertEquals(List.of("id", "nome", "preco"), List.copyOf(response.keySet()));
+        assertEquals("Filtro de Óleo", response.get("nome"));
+        verify(pecaRepository, never()).findById(id);
+    }
+
+    @Test
+    void buscarPorId_CampoInvalido() {
+        assertThrows(IllegalArgumentException.class, () -> pecaService.buscarPorId("x", "nome,senha"));
+        verify(pecaRepository, never()).findById(any(), any());
+    }
+
     @Test
     void listarTodas_Success() {
         Peca peca = new Peca("Filtro", "Desc", "FO-001", new BigDecimal("50.00"), 20);
-        when(pecaRepository.findAll()).thenReturn(java.util.List.of(peca));
+        when(pecaRepository.findAll(50, null)).thenReturn(new Pagina<>(java.util.List.of(peca), "proximo"));
 
-        var result = pecaService.listarTodas();
+        var result = pecaService.listarTodas(50, null);
 
         assertNotNull(result);
-        assertFalse(result.isEmpty());
-        verify(pecaRepository, times(1)).findAll();
+        assertFalse(result.getItens().isEmpty());
+        assertEquals("proximo", result.getProximoCursor());
+        verify(pecaRepository, times(1)).findAll(50, null);
+    }
+
+    @Test
+    void listarTodas_LimiteAcimaDoMaximo() {
+        when(pecaRepository.findAll(Pagina.LIMITE_MAXIMO, null)).thenReturn(new Pagina<>(java.util.List.of(), null));
+
+        pecaService.listarTodas(10_000, null);
+
+        verify(pecaRepository, times(1)).findAll(Pagina.LIMITE_MAXIMO, null);
+    }
+
+    @Test
+    void listarTodas_LimiteInvalido() {
+        assertThrows(IllegalArgumentException.class, () -> pecaService.listarTodas(0, null));
+        verify(pecaRepository, never()).findAll(anyInt(), any());
     }
 
     @Test
@@ -106,29 +163,291 @@ public class PecaApplicationServiceTest {
     }
 
     @Test
-    void desativar_Success() {
+    void atualizar_ConflitoDeVersao_ReleEReaplica() {
         String id = UUID.randomUUID().toString();
         Peca peca = new Peca("Filtro", "Desc", "FO-001", new BigDecimal("50.00"), 20);
         peca.setId(id);
+        PecaRequestDTO request = new PecaRequestDTO("Novo Nome", "Nova Desc", "FO-002", new BigDecimal("60.00"), 25);
 
         when(pecaRepository.findById(id)).thenReturn(Optional.of(peca));
-        when(pecaRepository.save(any(Peca.class))).thenReturn(peca);
+        when(pecaRepository.save(any(Peca.class)))
+                .thenThrow(new ConflitoDeVersaoException("conflito", null))
+                .thenReturn(peca);
+
+        PecaResponseDTO response = pecaService.atualizar(id, request);
+
+        assertEquals("Novo Nome", response.getNome());
+        verify(pecaRepository, times(2)).findById(id);
+        verify(pecaRepository, times(2)).save(any(Peca.class));
+    }
+
+    @Test
+    void atualizar_ConflitoPersistente() {
+        String id = UUID.randomUUID().toString();
+        Peca peca = new Peca("Filtro", "Desc", "FO-001", new BigDecimal("50.00"), 20);
+        peca.setId(id);
+        PecaRequestDTO request = new PecaRequestDTO("Novo Nome", "Nova Desc", "FO-002", new BigDecimal("60.00"), 25);
+
+        when(pecaRepository.findById(id)).thenReturn(Optional.of(peca));
+        when(pecaRepository.save(any(Peca.class))).thenThrow(new ConflitoDeVersaoException("conflito", null));
+
+        assertThrows(ConflitoDeVersaoException.class, () -> pecaService.atualizar(id, request));
+        verify(pecaRepository, times(3)).save(any(Peca.class));
+    }
+
+    @Test
+    void atualizarParcial_SoCamposEnviados() {
+        String id = UUID.randomUUID().toString();
+        Peca peca = new Peca("Filtro", "Desc", "FO-001", new BigDecimal("55.90"), 20);
+        peca.setId(id);
+        Map<String, Object> patch = new java.util.HashMap<>();
+        patch.put("preco", 55.90);
+        patch.put("marca", null);
+
+        when(pecaRepository.atualizarCampos(eq(id), any())).thenReturn(Optional.of(peca));
+
+        PecaResponseDTO response = pecaService.atualizarParcial(id, patch);
+
+        assertEquals(new BigDecimal("55.90"), response.getPreco());
+        Map<String, Object> esperado = new java.util.HashMap<>();
+        esperado.put("preco", new BigDecimal("55.9"));
+        esperado.put("marca", null);
+        verify(pecaRepository).atualizarCampos(id, esperado);
+        verify(pecaRepository, never()).save(any(Peca.class));
+    }
+
+    @Test
+    void atualizarParcial_CampoNaoEditavel() {
+        assertThrows(IllegalArgumentException.class,
+                () -> pecaService.atualizarParcial("x", Map.of("ativo", false)));
+        assertThrows(IllegalArgumentException.class,
+                () -> pecaService.atualizarParcial("x", Map.of("preco", -1)));
+        verify(pecaRepository, never()).atualizarCampos(any(), any());
+    }
+
+    @Test
+    void desativar_Success() {
+        String id = UUID.randomUUID().toString();
+        when(pecaRepository.desativar(id)).thenReturn(true);
 
         pecaService.desativar(id);
 
-        assertFalse(peca.getAtivo());
-        verify(pecaRepository, times(1)).findById(id);
-        verify(pecaRepository, times(1)).save(any(Peca.class));
+        verify(pecaRepository, times(1)).desativar(id);
+        verify(pecaRepository, never()).findById(any());
+        verify(pecaRepository, never()).save(any(Peca.class));
+    }
+
+    @Test
+    void desativar_NaoEncontrado() {
+        String id = UUID.randomUUID().toString();
+        when(pecaRepository.desativar(id)).thenReturn(false);
+
+        assertThrows(RuntimeException.class, () -> pecaService.desativar(id));
     }
 
     @Test
     void deletar_Success() {
         String id = UUID.randomUUID().toString();
-        when(pecaRepository.existsById(id)).thenReturn(true);
+        when(pecaRepository.deleteById(id)).thenReturn(true);
 
         pecaService.deletar(id);
 
-        verify(pecaRepository, times(1)).existsById(id);
         verify(pecaRepository, times(1)).deleteById(id);
+        verify(pecaRepository, never()).existsById(any());
+    }
+
+    @Test
+    void deletar_NaoEncontrado() {
+        String id = UUID.randomUUID().toString();
+        when(pecaRepository.deleteById(id)).thenReturn(false);
+
+        assertThrows(RuntimeException.class, () -> pecaService.deletar(id));
+    }
+
+    @Test
+    void decrementarEstoque_UpdateAtomicoSemLeitura() {
+        String id = UUID.randomUUID().toString();
+
+        pecaService.decrementarEstoque(id, 3);
+
+        verify(pecaRepository, times(1)).decrementarQuantidade(id, 3);
+        verify(pecaRepository, never()).findById(any());
+        verify(pecaRepository, never()).save(any(Peca.class));
+    }
+
+    @Test
+    void decrementarEstoque_Insuficiente() {
+        String id = UUID.randomUUID().toString();
+        doThrow(new IllegalArgumentException("Quantidade insuficiente em estoque"))
+                .when(pecaRepository).decrementarQuantidade(id, 30);
+
+        assertThrows(IllegalArgumentException.class, () -> pecaService.decrementarEstoque(id, 30));
+    }
+
+    @Test
+    void incrementarEstoque_QuantidadeInvalida() {
+        assertThrows(IllegalArgumentException.class, () -> pecaService.incrementarEstoque("x", 0));
+        verify(pecaRepository, never()).incrementarQuantidade(any(), anyInt());
+    }
+
+    @Test
+    void decrementarEstoque_RetentaConsolidacaoEmConflito() {
+        String id = UUID.randomUUID().toString();
+        doThrow(new ConflitoDeVersaoException("conflito", null))
+                .doNothing()
+                .when(pecaRepository).decrementarQuantidade(id, 2);
+
+        pecaService.decrementarEstoque(id, 2);
+
+        verify(pecaRepository, times(2)).decrementarQuantidade(id, 2);
+    }
+
+    @Test
+    void fragmentarEstoque_Success() {
+        String id = UUID.randomUUID().toString();
+
+        pecaService.fragmentarEstoque(id, 8);
+
+        verify(pecaRepository).definirFragmentosEstoque(id, 8);
+    }
+
+    @Test
+    void fragmentarEstoque_ForaDoLimite() {
+        assertThrows(IllegalArgumentException.class, () -> pecaService.fragmentarEstoque("x", 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> pecaService.fragmentarEstoque("x", Peca.MAX_FRAGMENTOS_ESTOQUE + 1));
+        verify(pecaRepository, never()).definirFragmentosEstoque(any(), anyInt());
+    }
+
+    @Test
+    void ajustarEstoque_SomaRepetidosEReportaFalhas() {
+        when(pecaRepository.ajustarQuantidades(any())).thenReturn(Map.of("p2", "Quantidade insuficiente em estoque"));
+
+        AjusteEstoqueResponseDTO result = pecaService.ajustarEstoque(List.of(
+                new AjusteEstoqueRequestDTO.Ajuste("p1", 3),
+                new AjusteEstoqueRequestDTO.Ajuste("p2", -10),
+                new AjusteEstoqueRequestDTO.Ajuste("p1", -1)));
+
+        verify(pecaRepository).ajustarQuantidades(Map.of("p1", 2, "p2", -10));
+        assertEquals(1, result.getAplicados());
+        assertEquals(1, result.getFalhas().size());
+        assertEquals("p2", result.getFalhas().get(0).getId());
+    }
+
+    @Test
+    void reservarEstoque_Success() {
+        String pecaId = UUID.randomUUID().toString();
+        when(pecaRepository.reservar(any(Reserva.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ReservaResponseDTO result = pecaService.reservarEstoque(pecaId, 2, null);
+
+        assertEquals(pecaId, result.getPecaId());
+        assertEquals(2, result.getQuantidade());
+        assertNotNull(result.getExpiraEm());
+        verify(pecaRepository, never()).decrementarQuantidade(any(), anyInt());
+    }
+
+    @Test
+    void reservarEstoque_RetentaEmConflito() {
+        when(pecaRepository.reservar(any(Reserva.class)))
+                .thenThrow(new ConflitoDeVersaoException("conflito", null))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        pecaService.reservarEstoque("p1", 1, 60);
+
+        verify(pecaRepository, times(2)).reservar(any(Reserva.class));
+    }
+
+    @Test
+    void reservarEstoque_ConflitoPersistente_DesisteAposTentativasDeReserva() {
+        when(pecaRepository.reservar(any(Reserva.class))).thenThrow(new ConflitoDeVersaoException("conflito", null));
+
+        assertThrows(ConflitoDeVersaoException.class, () -> pecaService.reservarEstoque("p1", 1, 60));
+
+        verify(pecaRepository, times(RetentativaOtimista.MAX_TENTATIVAS_RESERVA)).reservar(any(Reserva.class));
+    }
+
+    /**
+     * Simula o DynamoDB numa peça disputada: uma transação que chega enquanto outra
+     * está em andamento é cancelada (TransactionConflict). Nenhuma reserva pode
+     * deixar o estoque negativo, e toda chamada termina em reserva, falta de estoque
+     * ou 409, nunca em outro erro.
+     */
+    @Test
+    void reservarEstoque_Concorrente_NuncaVendeAlemDoEstoque() throws Exception {
+        int estoqueInicial = 5;
+        int clientes = 12;
+        AtomicInteger estoque = new AtomicInteger(estoqueInicial);
+        AtomicBoolean emAndamento = new AtomicBoolean();
+        when(pecaRepository.reservar(any(Reserva.class))).thenAnswer(invocation -> {
+            if (!emAndamento.compareAndSet(false, true)) {
+                throw new ConflitoDeVersaoException("conflito", null);
+            }
+            try {
+                Thread.sleep(2);
+                Reserva reserva = invocation.getArgument(0);
+                if (estoque.get() < reserva.getQuantidade()) {
+                    throw new IllegalArgumentException("Quantidade insuficiente em estoque");
+                }
+                estoque.addAndGet(-reserva.getQuantidade());
+                return reserva;
+            } finally {
+                emAndamento.set(false);
+            }
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(clientes);
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicInteger reservadas = new AtomicInteger();
+        AtomicInteger semEstoque = new AtomicInteger();
+        AtomicInteger conflitos = new AtomicInteger();
+        List<Future<?>> chamadas = new ArrayList<>();
+        for (int i = 0; i < clientes; i++) {
+            chamadas.add(executor.submit(() -> {
+                largada.await();
+                try {
+                    pecaService.reservarEstoque("p1", 1, 60);
+                    reservadas.incrementAndGet();
+                } catch (IllegalArgumentException e) {
+                    semEstoque.incrementAndGet();
+                } catch (ConflitoDeVersaoException e) {
+                    conflitos.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        largada.countDown();
+        for (Future<?> chamada : chamadas) {
+            chamada.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertTrue(estoque.get() >= 0);
+        assertEquals(estoqueInicial - estoque.get(), reservadas.get());
+        assertEquals(clientes, reservadas.get() + semEstoque.get() + conflitos.get());
+    }
+
+    @Test
+    void reservarEstoque_ValidadeInvalida() {
+        assertThrows(IllegalArgumentException.class, () -> pecaService.reservarEstoque("p1", 1, 0));
+        verify(pecaRepository, never()).reservar(any());
+    }
+
+    @Test
+    void confirmarReserva_Expirada() {
+        Reserva reserva = new Reserva("p1", 1, Duration.ofMinutes(-1));
+        when(pecaRepository.findReservaById(reserva.getId())).thenReturn(Optional.of(reserva));
+
+        assertThrows(IllegalArgumentException.class, () -> pecaService.confirmarReserva(reserva.getId()));
+        verify(pecaRepository, never()).confirmarReserva(any());
+    }
+
+    @Test
+    void liberarReserva_JaConcluida() {
+        Reserva reserva = new Reserva("p1", 1, Duration.ofMinutes(30));
+        when(pecaRepository.findReservaById(reserva.getId())).thenReturn(Optional.of(reserva));
+        when(pecaRepository.liberarReserva(reserva)).thenReturn(false);
+
+        assertThrows(RuntimeException.class, () -> pecaService.liberarReserva(reserva.getId()));
     }
 }
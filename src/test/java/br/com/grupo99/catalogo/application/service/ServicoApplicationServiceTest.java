@@ -2,6 +2,7 @@ package br.com.grupo99.catalogo.application.service;
 
 import br.com.grupo99.catalogo.application.dto.ServicoRequestDTO;
 import br.com.grupo99.catalogo.application.dto.ServicoResponseDTO;
+import br.com.grupo99.catalogo.domain.model.Pagina;
 import br.com.grupo99.catalogo.domain.model.Servico;
 import br.com.grupo99.catalogo.domain.repository.ServicoRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +12,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -79,13 +81,28 @@ public class ServicoApplicationServiceTest {
     @Test
     void listarTodos_Success() {
         Servico servico = new Servico("Troca de Óleo", "Desc", new BigDecimal("150.00"), 30);
-        when(servicoRepository.findAll()).thenReturn(java.util.List.of(servico));
+        when(servicoRepository.findAll(50, null)).thenReturn(new Pagina<>(java.util.List.of(servico), null));
 
-        var result = servicoService.listarTodos();
+        var result = servicoService.listarTodos(50, null);
 
         assertNotNull(result);
-        assertFalse(result.isEmpty());
-        verify(servicoRepository, times(1)).findAll();
+        assertFalse(result.getItens().isEmpty());
+        assertNull(result.getProximoCursor());
+        verify(servicoRepository, times(1)).findAll(50, null);
+    }
+
+    @Test
+    void buscarEmLote_SeparaNaoEncontrados() {
+        Servico servico = new Servico("Troca de Óleo", "Desc", new BigDecimal("150.00"), 30);
+        servico.setId("s1");
+        List<String> ids = List.of("s2", "s1", "s2");
+        when(servicoRepository.findAllById(ids)).thenReturn(List.of(servico));
+
+        var result = servicoService.buscarEmLote(ids);
+
+        assertEquals(1, result.getItens().size());
+        assertEquals("s1", result.getItens().get(0).getId());
+        assertEquals(List.of("s2"), result.getNaoEncontrados());
     }
 
     @Test
@@ -108,27 +125,39 @@ public class ServicoApplicationServiceTest {
     @Test
     void desativar_Success() {
         String id = UUID.randomUUID().toString();
-        Servico servico = new Servico("Troca de Óleo", "Desc", new BigDecimal("150.00"), 30);
-        servico.setId(id);
-
-        when(servicoRepository.findById(id)).thenReturn(Optional.of(servico));
-        when(servicoRepository.save(any(Servico.class))).thenReturn(servico);
+        when(servicoRepository.desativar(id)).thenReturn(true);
 
         servicoService.desativar(id);
 
-        assertFalse(servico.getAtivo());
-        verify(servicoRepository, times(1)).findById(id);
-        verify(servicoRepository, times(1)).save(any(Servico.class));
+        verify(servicoRepository, times(1)).desativar(id);
+        verify(servicoRepository, never()).findById(any());
+        verify(servicoRepository, never()).save(any(Servico.class));
+    }
+
+    @Test
+    void desativar_NaoEncontrado() {
+        String id = UUID.randomUUID().toString();
+        when(servicoRepository.desativar(id)).thenReturn(false);
+
+        assertThrows(RuntimeException.class, () -> servicoService.desativar(id));
     }
 
     @Test
     void deletar_Success() {
         String id = UUID.randomUUID().toString();
-        when(servicoRepository.existsById(id)).thenReturn(true);
+        when(servicoRepository.deleteById(id)).thenReturn(true);
 
         servicoService.deletar(id);
 
-        verify(servicoRepository, times(1)).existsById(id);
         verify(servicoRepository, times(1)).deleteById(id);
+        verify(servicoRepository, never()).existsById(any());
+    }
+
+    @Test
+    void deletar_NaoEncontrado() {
+        String id = UUID.randomUUID().toString();
+        when(servicoRepository.deleteById(id)).thenReturn(false);
+
+        assertThrows(RuntimeException.class, () -> servicoService.deletar(id));
     }
 }